@@ -16,32 +16,37 @@
 
 package org.kie.appformer.backend.server.service;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.enterprise.context.ApplicationScoped;
-import javax.enterprise.event.Event;
-import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
 import javax.enterprise.inject.Specializes;
 import javax.inject.Inject;
+import javax.servlet.http.HttpSession;
 
 import org.guvnor.ala.pipeline.ConfigExecutor;
 import org.guvnor.ala.pipeline.Input;
 import org.guvnor.ala.pipeline.Pipeline;
-import org.guvnor.ala.pipeline.events.AfterPipelineExecutionEvent;
 import org.guvnor.ala.pipeline.execution.PipelineExecutor;
 import org.guvnor.ala.registry.PipelineRegistry;
-import org.guvnor.ala.registry.RuntimeRegistry;
-import org.guvnor.ala.registry.SourceRegistry;
 import org.guvnor.ala.runtime.Runtime;
+import org.guvnor.common.services.project.builder.model.BuildMessage;
 import org.guvnor.common.services.project.builder.model.BuildResults;
 import org.guvnor.common.services.project.builder.model.IncrementalBuildResults;
 import org.guvnor.common.services.project.builder.service.PostBuildHandler;
@@ -50,15 +55,32 @@ import org.guvnor.common.services.project.service.DeploymentMode;
 import org.guvnor.common.services.project.service.POMService;
 import org.guvnor.common.services.project.service.ProjectRepositoriesService;
 import org.guvnor.common.services.project.service.ProjectRepositoryResolver;
+import org.guvnor.common.services.shared.message.Level;
 import org.guvnor.m2repo.backend.server.ExtendedM2RepoService;
 import org.guvnor.structure.repositories.Repository;
 import org.guvnor.structure.repositories.RepositoryService;
 import org.jboss.errai.bus.server.annotations.Service;
+import org.jboss.errai.bus.server.api.RpcContext;
+import org.kie.appformer.backend.server.service.build.fingerprint.IncrementalBuildPlanner;
+import org.kie.appformer.backend.server.service.dir.TmpDirFactory;
+import org.kie.appformer.backend.server.service.dir.Workspace;
+import org.kie.appformer.backend.server.service.dir.WorkspaceKey;
+import org.kie.appformer.backend.server.service.dir.WorkspaceManager;
+import org.kie.appformer.backend.server.service.job.BuildEventPublisher;
+import org.kie.appformer.backend.server.service.job.BuildJob;
+import org.kie.appformer.backend.server.service.job.BuildJobQueue;
+import org.kie.appformer.backend.server.service.job.BuildRuntimeRegistry;
+import org.kie.appformer.backend.server.service.metrics.PipelineMetrics;
+import org.kie.appformer.backend.server.service.pipeline.PipelineGraph;
+import org.kie.appformer.backend.server.service.pipeline.PipelineGraphExecutor;
+import org.kie.appformer.backend.server.service.pipeline.PipelineGraphRegistry;
 import org.kie.appformer.client.shared.AppReady;
 import org.kie.appformer.client.shared.GwtWarBuildService;
 import org.kie.workbench.common.services.backend.builder.BuildServiceImpl;
 import org.kie.workbench.common.services.backend.builder.LRUBuilderCache;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.uberfire.backend.vfs.Path;
 import org.uberfire.backend.vfs.PathFactory;
 import org.uberfire.workbench.events.ResourceChange;
@@ -68,22 +90,42 @@ import org.uberfire.workbench.events.ResourceChange;
 @Service
 public class GwtWarBuildServiceImpl extends BuildServiceImpl implements GwtWarBuildService {
 
-    private RepositoryService repositoryService;
+    private static final Logger logger = LoggerFactory.getLogger( GwtWarBuildServiceImpl.class );
 
-    private Event<AppReady> appReadyEvent;
+    private static final String WILDFLY_PIPELINE = "wildfly pipeline";
 
-    private Instance<ConfigExecutor> configExecutors;
+    private static final String WILDFLY_SDM_PIPELINE = "wildfly sdm pipeline";
 
-    private RuntimeRegistry runtimeRegistry;
+    private static final String STAGE_THREADS_PROPERTY = "appformer.background_stage_threads";
 
-    private SourceRegistry sourceRegistry;
+    private RepositoryService repositoryService;
+
+    private Instance<ConfigExecutor> configExecutors;
 
     private PipelineRegistry pipelineRegistry;
 
     private CDIPipelineEventListener pipelineEventListener;
 
+    private IncrementalBuildPlanner buildPlanner;
+
+    private WorkspaceManager workspaceManager;
+
+    private TmpDirFactory tmpDirFactory;
+
+    private PipelineMetrics pipelineMetrics;
+
+    private PipelineGraphRegistry pipelineGraphRegistry;
+
+    private BuildEventPublisher buildEventPublisher;
+
+    private BuildRuntimeRegistry buildRuntimeRegistry;
+
     private PipelineExecutor executor;
 
+    private PipelineGraphExecutor graphExecutor;
+
+    private BuildJobQueue buildQueue;
+
     // For proxying
     public GwtWarBuildServiceImpl() {
     }
@@ -97,23 +139,38 @@ public class GwtWarBuildServiceImpl extends BuildServiceImpl implements GwtWarBu
             final LRUBuilderCache cache,
             final Instance<PostBuildHandler> handlers,
             final Instance<ConfigExecutor> configExecutors,
-            final RepositoryService repositoryService, final Event<AppReady> appReadyEvent,
-            final SourceRegistry sourceRegistry,
-            final RuntimeRegistry runtimeRegistry, final PipelineRegistry pipelineRegistry,
-            final CDIPipelineEventListener pipelineEventListener ) {
+            final RepositoryService repositoryService,
+            final PipelineRegistry pipelineRegistry,
+            final CDIPipelineEventListener pipelineEventListener,
+            final IncrementalBuildPlanner buildPlanner,
+            final WorkspaceManager workspaceManager,
+            final TmpDirFactory tmpDirFactory,
+            final PipelineMetrics pipelineMetrics,
+            final PipelineGraphRegistry pipelineGraphRegistry,
+            final BuildEventPublisher buildEventPublisher,
+            final BuildRuntimeRegistry buildRuntimeRegistry ) {
         super( pomService, m2RepoService, projectService, repositoryResolver, projectRepositoriesService, cache, handlers );
         this.configExecutors = configExecutors;
         this.repositoryService = repositoryService;
-        this.appReadyEvent = appReadyEvent;
-        this.runtimeRegistry = runtimeRegistry;
         this.pipelineRegistry = pipelineRegistry;
-        this.sourceRegistry = sourceRegistry;
         this.pipelineEventListener = pipelineEventListener;
+        this.buildPlanner = buildPlanner;
+        this.workspaceManager = workspaceManager;
+        this.tmpDirFactory = tmpDirFactory;
+        this.pipelineMetrics = pipelineMetrics;
+        this.pipelineGraphRegistry = pipelineGraphRegistry;
+        this.buildEventPublisher = buildEventPublisher;
+        this.buildRuntimeRegistry = buildRuntimeRegistry;
     }
 
     @Resource
     private ManagedExecutorService execService;
 
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private ExecutorService stageWorkers;
+
     @PostConstruct
     private void setup() {
         final Iterator<ConfigExecutor> iterator = configExecutors.iterator();
@@ -123,6 +180,20 @@ public class GwtWarBuildServiceImpl extends BuildServiceImpl implements GwtWarBu
             configs.add( configExecutor );
         }
         executor = new PipelineExecutor( configs );
+        /*
+         * Background stages get their own threads: jobs block on them while holding a thread of the managed executor,
+         * which would deadlock once every managed thread runs a job. They run as the build job, so that they report to
+         * and hold resources in its sessions.
+         */
+        final int threads = Integer.getInteger( STAGE_THREADS_PROPERTY, java.lang.Runtime.getRuntime().availableProcessors() );
+        stageWorkers = Executors.newFixedThreadPool( threads, threadFactory );
+        graphExecutor = new PipelineGraphExecutor( configs, BuildJob.contextual( stageWorkers ), pipelineMetrics );
+        buildQueue = new BuildJobQueue( execService );
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        stageWorkers.shutdownNow();
     }
 
     @Override
@@ -140,55 +211,64 @@ public class GwtWarBuildServiceImpl extends BuildServiceImpl implements GwtWarBu
         return buildAndDeploy( project, suppressHandlers, DeploymentMode.VALIDATED );
     }
 
+    /**
+     * Waits for the queued build to finish, reporting a failure in the results.
+     */
     @Override
     public BuildResults buildAndDeploy( final Project project, final boolean suppressHandlers, final DeploymentMode mode ) {
-        return buildAndDeployWithPipeline( project );
+        return awaitResults( project, enqueueBuild( project, WILDFLY_PIPELINE ) );
     }
 
+    /**
+     * Waits for the queued build to finish, reporting a failure in the results.
+     */
     @Override
     public BuildResults buildAndDeployDevMode( final Project project ) {
-        return buildAndDeploySDMWithPipeline(project);
+        return awaitResults( project, enqueueBuild( project, WILDFLY_SDM_PIPELINE ) );
     }
 
-    public BuildResults buildAndDeployWithPipeline( final Project project ) {
-        final BuildResults results = new BuildResults( project.getPom().getGav() );
-        final Path rootPath = project.getRootPath();
-        final Path repoPath = PathFactory.newPath( "repo", rootPath.toURI().substring( 0, rootPath.toURI().indexOf( rootPath.getFileName() ) ) );
-        final Repository repository = repositoryService.getRepository( repoPath );
+    @Override
+    public String startBuildAndDeploy( final Project project ) {
+        return enqueueBuild( project, WILDFLY_PIPELINE ).getId();
+    }
 
-        final Pipeline pipe = pipelineRegistry.getPipelineByName( "wildfly pipeline" );
+    @Override
+    public String startBuildAndDeployDevMode( final Project project ) {
+        return enqueueBuild( project, WILDFLY_SDM_PIPELINE ).getId();
+    }
 
-        final Input wildflyInput = new Input() {
-            {
-                put( "repo-name", repository.getAlias() );
-                put( "branch", repository.getDefaultBranch() );
-                put( "project-dir", project.getProjectName() );
-                put( "wildfly-user", "testadmin" );
-                put( "wildfly-password", "testadmin" );
-                put( "bindAddress", "localhost" );
-                put( "host", "localhost" );
-                put( "port", "8888" );
-                put( "management-port", "9990" );
+    private BuildJob enqueueBuild( final Project project, final String pipeline ) {
+        final Repository repository = getRepository( project );
+        final Input wildflyInput = createInput( project, repository );
+        final Pipeline pipe = pipelineRegistry.getPipelineByName( pipeline );
 
-            }
-        };
-        executor.execute( wildflyInput, pipe, System.out::println, pipelineEventListener );
+        return enqueueBuild( project, pipe, wildflyInput, () -> executeAndRecordBuild( wildflyInput, pipe ) );
+    }
+
+    private BuildResults awaitResults( final Project project, final BuildJob job ) {
+        final BuildResults results = new BuildResults( project.getPom().getGav() );
+        try {
+            job.getOutcome().join();
+        } catch ( final CompletionException | CancellationException e ) {
+            final Throwable cause = ( e.getCause() != null ) ? e.getCause() : e;
+            final BuildMessage message = new BuildMessage();
+            message.setLevel( Level.ERROR );
+            message.setText( "Build failed: " + cause.getMessage() );
+            results.addBuildMessage( message );
+        }
 
         return results;
     }
 
-    public BuildResults buildAndDeploySDMWithPipeline( final Project project ) {
-        final BuildResults results = new BuildResults( project.getPom().getGav() );
+    private Repository getRepository( final Project project ) {
         final Path rootPath = project.getRootPath();
         final Path repoPath = PathFactory.newPath( "repo", rootPath.toURI().substring( 0, rootPath.toURI().indexOf( rootPath.getFileName() ) ) );
-        final Repository repository = repositoryService.getRepository( repoPath );
-
-
-        final Pipeline pipe = pipelineRegistry.getPipelineByName( "wildfly sdm pipeline" );
+        return repositoryService.getRepository( repoPath );
+    }
 
-        final Input wildflyInput = new Input() {
+    private Input createInput( final Project project, final Repository repository ) {
+        return new Input() {
             {
-
                 put( "repo-name", repository.getAlias() );
                 put( "branch", repository.getDefaultBranch() );
                 put( "project-dir", project.getProjectName() );
@@ -201,16 +281,102 @@ public class GwtWarBuildServiceImpl extends BuildServiceImpl implements GwtWarBu
 
             }
         };
-        final org.guvnor.ala.build.Project projectByName = sourceRegistry.getProjectByName(project.getProjectName());
+    }
+
+    /*
+     * Called on the RPC thread, which is the last chance to find the sessions the build reports to and keeps its
+     * workspace and code server in.
+     */
+    private BuildJob enqueueBuild( final Project project, final Pipeline pipe, final Input input, final Runnable build ) {
+        final BuildJob job;
+        if ( RpcContext.getMessage() != null ) {
+            job = new BuildJob( project.getProjectName(), pipe.getName(), input.get( "branch" ), RpcContext.getHttpSession(), RpcContext.getQueueSession().getSessionId() );
+        } else {
+            job = new BuildJob( project.getProjectName(), pipe.getName(), input.get( "branch" ), null, null );
+        }
 
-        if (projectByName != null) {
-            wildflyInput.put("project-temp-dir", projectByName.getTempDir());
+        input.put( BuildJob.BUILD_ID_INPUT, job.getId() );
+        buildEventPublisher.queued( job );
+        buildQueue.submit( job, () -> runBuild( job, project, input, build ) )
+                  .whenComplete( ( result, error ) -> {
+                      if ( error != null ) {
+                          logger.error( "Unable to run " + job, error );
+                          buildEventPublisher.failed( job, error );
+                          job.getOutcome().completeExceptionally( error );
+                      }
+                  } );
+
+        return job;
+    }
+
+    private void runBuild( final BuildJob job, final Project project, final Input input, final Runnable build ) {
+        buildEventPublisher.started( job );
+        pipelineMetrics.markQueued( job.getQueuedAt() );
+        try {
+            executeInWorkspace( project, input, build );
+        } catch ( final RuntimeException e ) {
+            logger.error( "Failed " + job, e );
+            buildEventPublisher.failed( job, e );
+            job.getOutcome().completeExceptionally( e );
+            return;
         }
+        buildEventPublisher.finished( job, findAppReady( job ) );
+        job.getOutcome().complete( null );
+    }
 
+    /*
+     * Builds in a warm workspace so the incremental build planner can reuse the outputs of the previous build of the
+     * project. The Maven Project stage copies the current sources into it. Builds from an HTTP session keep the
+     * workspace until the session ends, as a code server may still be running from it.
+     */
+    private void executeInWorkspace( final Project project, final Input input, final Runnable build ) {
+        final HttpSession session = BuildJob.current().map( BuildJob::getSession ).orElse( null );
+        final Workspace workspace;
+        try {
+            workspace = ( session != null ) ? tmpDirFactory.getWorkspace( WorkspaceKey.of( project ), session )
+                                            : workspaceManager.acquire( WorkspaceKey.of( project ) );
+        } catch ( final IOException e ) {
+            throw new RuntimeException( "Unable to create a workspace for " + project.getProjectName(), e );
+        }
 
-        executor.execute( wildflyInput, pipe, System.out::println, pipelineEventListener );
+        input.put( "project-temp-dir", workspace.getDir().getAbsolutePath() );
+        BuildJob.current().ifPresent( job -> job.setWorkspace( workspace.getDir() ) );
+        try {
+            build.run();
+        } finally {
+            if ( session == null ) {
+                workspace.release();
+            }
+        }
+    }
 
-        return results;
+    private void executeAndRecordBuild( final Input input, final Pipeline pipe ) {
+        try {
+            final Optional<PipelineGraph> graph = pipelineGraphRegistry.getGraph( pipe.getName() );
+            if ( graph.isPresent() ) {
+                graphExecutor.execute( input, graph.get(), output -> recordRuntime( input, output ), pipelineEventListener );
+            } else {
+                executor.execute( input, pipe, output -> recordRuntime( input, output ), pipelineEventListener );
+            }
+        } catch ( final RuntimeException e ) {
+            recordBuildOutcome( input, false );
+            throw e;
+        }
+        recordBuildOutcome( input, true );
+    }
+
+    /*
+     * Uses the workspace of this build, as other builds of the same project may be running in other workspaces.
+     */
+    private void recordBuildOutcome( final Input input, final boolean successful ) {
+        final String projectTempDir = input.get( "project-temp-dir" );
+        if ( projectTempDir != null ) {
+            if ( successful ) {
+                buildPlanner.buildSucceeded( new File( projectTempDir ) );
+            } else {
+                buildPlanner.buildFailed( new File( projectTempDir ) );
+            }
+        }
     }
 
     @Override
@@ -266,11 +432,18 @@ public class GwtWarBuildServiceImpl extends BuildServiceImpl implements GwtWarBu
                 || fileName.endsWith( "RestServiceImpl.java" ) );
     }
 
-    public void buildFinished( @Observes final AfterPipelineExecutionEvent e ) {
-        final List<org.guvnor.ala.runtime.Runtime> allRuntimes = runtimeRegistry.getRuntimes( 0, 10, "", true );
-        final Runtime get = allRuntimes.get( 0 );
-        final String url = "http://" + get.getEndpoint().getHost() + ":" + get.getEndpoint().getPort() + "/" + get.getEndpoint().getContext();
-        appReadyEvent.fire( new AppReady( url ) );
+    private void recordRuntime( final Input input, final Object output ) {
+        final String buildId = input.get( BuildJob.BUILD_ID_INPUT );
+        if ( buildId != null && output instanceof Runtime ) {
+            buildRuntimeRegistry.register( buildId, (Runtime) output );
+        }
+    }
+
+    private AppReady findAppReady( final BuildJob job ) {
+        return buildRuntimeRegistry.getRuntime( job.getId() )
+                .map( runtime -> new AppReady( "http://" + runtime.getEndpoint().getHost() + ":" + runtime.getEndpoint().getPort()
+                                               + "/" + runtime.getEndpoint().getContext() ) )
+                .orElse( null );
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service;
+
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.jboss.errai.bus.server.annotations.Service;
+import org.kie.appformer.backend.server.service.metrics.PipelineMetrics;
+import org.kie.appformer.client.shared.PipelineMetricsService;
+import org.kie.appformer.client.shared.PipelineStatistics;
+
+@Service
+@ApplicationScoped
+public class PipelineMetricsServiceImpl implements PipelineMetricsService {
+
+    private PipelineMetrics pipelineMetrics;
+
+    // For proxying
+    public PipelineMetricsServiceImpl() {
+    }
+
+    @Inject
+    public PipelineMetricsServiceImpl( final PipelineMetrics pipelineMetrics ) {
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @Override
+    public List<PipelineStatistics> getPipelineStatistics() {
+        return pipelineMetrics.getStatistics();
+    }
+
+}
@@ -20,9 +20,11 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletRequest;
@@ -37,6 +39,8 @@ import org.guvnor.common.services.shared.message.Level;
 import org.jboss.errai.bus.client.api.base.MessageBuilder;
 import org.jboss.errai.bus.server.api.ServerMessageBus;
 import org.jboss.errai.common.client.protocols.MessageParts;
+import org.kie.appformer.backend.server.service.build.fingerprint.BuildPlan;
+import org.kie.appformer.backend.server.service.build.fingerprint.IncrementalBuildPlanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,18 +57,21 @@ public abstract class BaseBuildCallable implements BuildCallable {
     protected final ServerMessageBus bus;
     protected final String queueSessionId;
     protected final OutputHandler outputHandler;
+    protected final IncrementalBuildPlanner buildPlanner;
 
 
     BaseBuildCallable( final Project project,
                        final File pomXml,
                        final String queueSessionId,
                        final ServletRequest sreq,
-                       final ServerMessageBus bus ) {
+                       final ServerMessageBus bus,
+                       final IncrementalBuildPlanner buildPlanner ) {
         this.project = project;
         this.pomXml = pomXml;
         this.queueSessionId = queueSessionId;
         this.sreq = sreq;
         this.bus = bus;
+        this.buildPlanner = buildPlanner;
 
         OutputHandler outputHandler = new ClientOutputHandler( bus, queueSessionId );
         if ( logBuildOutput ) {
@@ -77,18 +84,36 @@ public abstract class BaseBuildCallable implements BuildCallable {
     protected abstract List<BuildMessage> postBuildTasks( InvocationResult res ) throws Exception;
 
     @Override
-    public List<BuildMessage> call() throws Exception {
-        final List<BuildMessage> retVal = new ArrayList<>();
-
+    public CompletableFuture<List<BuildMessage>> callAsync() {
+        CompletableFuture<InvocationResult> request;
         try {
             cleanClientConsole();
-            final InvocationResult res = executeRequest();
-            retVal.addAll( postBuildTasks( res ) );
+            request = executeRequestAsync();
         } catch ( final Throwable t ) {
-            logBuildException( project, t );
+            request = new CompletableFuture<>();
+            request.completeExceptionally( t );
         }
 
-        return retVal;
+        return request.thenApply( res -> {
+            recordBuildOutcome( res.getExitCode() == 0 );
+            try {
+                return postBuildTasks( res );
+            } catch ( final Exception e ) {
+                throw new CompletionException( e );
+            }
+        } ).exceptionally( t -> {
+            recordBuildOutcome( false );
+            logBuildException( project, t instanceof CompletionException && t.getCause() != null ? t.getCause() : t );
+            return new ArrayList<>();
+        } );
+    }
+
+    private void recordBuildOutcome( final boolean successful ) {
+        if ( successful ) {
+            buildPlanner.buildSucceeded( pomXml.getParentFile() );
+        } else {
+            buildPlanner.buildFailed( pomXml.getParentFile() );
+        }
     }
 
     private void logBuildException( final Project project,
@@ -126,6 +151,14 @@ public abstract class BaseBuildCallable implements BuildCallable {
         return message;
     }
 
+    /**
+     * Runs the build request on the calling thread. Subclasses that wait on other processes should override
+     * {@link #executeRequestAsync()} instead.
+     */
+    protected CompletableFuture<InvocationResult> executeRequestAsync() throws Throwable {
+        return CompletableFuture.completedFuture( executeRequest() );
+    }
+
     protected InvocationResult executeRequest() throws Throwable {
         final DefaultInvocationRequest packageRequest = createPackageRequest( pomXml );
 
@@ -141,9 +174,11 @@ public abstract class BaseBuildCallable implements BuildCallable {
 
     protected DefaultInvocationRequest createPackageRequest( final File pomXml ) {
         final DefaultInvocationRequest packageRequest = new DefaultInvocationRequest();
+        final BuildPlan plan = buildPlanner.plan( project.getProjectName(), pomXml.getParentFile(), new Properties() );
 
         packageRequest.setPomFile( pomXml );
-        packageRequest.setGoals( Collections.singletonList( "package" ) );
+        packageRequest.setGoals( plan.getGoals() );
+        packageRequest.setProperties( plan.applyTo( new Properties() ) );
         maybeSetLocalRepo( packageRequest );
 
         return packageRequest;
@@ -34,20 +34,24 @@ import javax.servlet.http.HttpSessionBindingEvent;
 import javax.servlet.http.HttpSessionBindingListener;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.FileFilterUtils;
-import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
-import org.apache.commons.io.monitor.FileAlterationMonitor;
-import org.apache.commons.io.monitor.FileAlterationObserver;
 import org.apache.maven.shared.invoker.InvocationResult;
 import org.guvnor.common.services.project.builder.model.BuildMessage;
 import org.guvnor.common.services.project.model.Project;
 import org.jboss.errai.bus.server.api.ServerMessageBus;
+import org.kie.appformer.backend.server.service.build.deploy.DeploymentMarkerWatcher;
+import org.kie.appformer.backend.server.service.build.deploy.WarDeployer;
+import org.kie.appformer.backend.server.service.build.fingerprint.IncrementalBuildPlanner;
 import org.kie.appformer.client.shared.AppReady;
 
 public class BuildAndDeployCallable extends BaseBuildCallable implements HttpSessionBindingListener {
 
+    private static final String EXPLODED_DEPLOYMENT_PROPERTY = "appformer.exploded_deployment";
+    private static final WarDeployer deployer = new WarDeployer( Boolean.valueOf( System.getProperty( EXPLODED_DEPLOYMENT_PROPERTY, "false" ) )
+            ? WarDeployer.Mode.EXPLODED
+            : WarDeployer.Mode.ARCHIVE );
+
     private final Event<AppReady> appReadyEvent;
+    private final DeploymentMarkerWatcher deploymentWatcher;
     protected final HttpSession session;
     private final Set<File> deployedWars = new LinkedHashSet<>();
 
@@ -57,10 +61,13 @@ public class BuildAndDeployCallable extends BaseBuildCallable implements HttpSes
                             String queueSessionId,
                             ServletRequest sreq,
                             ServerMessageBus bus,
-                            Event<AppReady> appReadyEvent ) {
-        super( project, pomXml, queueSessionId, sreq, bus );
+                            Event<AppReady> appReadyEvent,
+                            IncrementalBuildPlanner buildPlanner,
+                            DeploymentMarkerWatcher deploymentWatcher ) {
+        super( project, pomXml, queueSessionId, sreq, bus, buildPlanner );
         this.session = session;
         this.appReadyEvent = appReadyEvent;
+        this.deploymentWatcher = deploymentWatcher;
     }
 
     @Override
@@ -106,31 +113,19 @@ public class BuildAndDeployCallable extends BaseBuildCallable implements HttpSes
     }
 
     private FileMonitorHandle startDeployedFileObserver( File deployDir, final File destination ) throws Exception {
-        final FileAlterationMonitor monitor = new FileAlterationMonitor( 500 );
-        final IOFileFilter filter = FileFilterUtils.nameFileFilter( destination.getName() + ".deployed" );
-        final FileAlterationObserver observer = new FileAlterationObserver( deployDir, filter );
-        observer.addListener( new FileAlterationListenerAdaptor() {
-
-            @Override
-            public void onFileCreate( final File file ) {
-                fireAppReadyEvent( destination, sreq );
-            }
+        final DeploymentMarkerWatcher.Watch watch = deploymentWatcher.watch( deployDir,
+                                                                             destination.getName() + WarDeployer.DEPLOYED_MARKER_SUFFIX,
+                                                                             () -> fireAppReadyEvent( destination, sreq ) );
 
-            @Override
-            public void onFileChange(final File file) {
-                fireAppReadyEvent( destination, sreq );
-            }
-        } );
-        monitor.addObserver( observer );
-        monitor.start();
-
-        return new FileMonitorHandle( monitor, destination.getName() );
+        return new FileMonitorHandle( watch );
     }
 
     private void replaceDeployedWarFile( final File war,
                             final File destination ) throws IOException {
-        FileUtils.deleteQuietly( destination );
-        FileUtils.copyFile( war, destination );
+        final int written = deployer.deploy( war, destination );
+        if ( deployer.getMode() == WarDeployer.Mode.EXPLODED ) {
+            sendOutputToClient( "Updated " + written + " files in " + destination.getName() );
+        }
         deployedWars.add( destination );
     }
 
@@ -186,6 +181,8 @@ public class BuildAndDeployCallable extends BaseBuildCallable implements HttpSes
     @Override
     public void valueUnbound( HttpSessionBindingEvent event ) {
         for ( final File war : deployedWars ) {
+            // Removing the marker first undeploys exploded deployments before their content disappears.
+            FileUtils.deleteQuietly( new File( war.getParentFile(), war.getName() + WarDeployer.DEPLOYED_MARKER_SUFFIX ) );
             FileUtils.deleteQuietly( war );
         }
     }
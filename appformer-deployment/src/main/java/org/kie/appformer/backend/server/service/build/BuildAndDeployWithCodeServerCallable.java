@@ -19,8 +19,16 @@ package org.kie.appformer.backend.server.service.build;
 import java.io.File;
 import java.util.Collections;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 import javax.enterprise.event.Event;
 import javax.servlet.ServletRequest;
@@ -35,17 +43,32 @@ import org.apache.maven.shared.invoker.InvocationResult;
 import org.apache.maven.shared.invoker.MavenInvocationException;
 import org.guvnor.common.services.project.model.Project;
 import org.jboss.errai.bus.server.api.ServerMessageBus;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServer;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerKey;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerLease;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerPool;
+import org.kie.appformer.backend.server.service.build.deploy.DeploymentMarkerWatcher;
+import org.kie.appformer.backend.server.service.build.deploy.WarDeployer;
+import org.kie.appformer.backend.server.service.build.fingerprint.IncrementalBuildPlanner;
 import org.kie.appformer.client.shared.AppReady;
 
 public class BuildAndDeployWithCodeServerCallable extends BuildAndDeployCallable {
 
     private static final String GWT_CODE_SERVER_PORT = "gwt.codeServerPort";
     private static final String GWT_CODE_SERVER_LAUNCHER_DIR = "gwt.codeServer.launcherDir";
-    private volatile boolean isCodeServerReady = false;
-    private volatile Throwable error = null;
+    private static final String CODE_SERVER_READY_TIMEOUT_PROPERTY = "appformer.code_server_ready_timeout_seconds";
+    private static final long CODE_SERVER_READY_TIMEOUT_SECONDS = Long.getLong( CODE_SERVER_READY_TIMEOUT_PROPERTY, 600 );
+    private static final ScheduledExecutorService readyTimeouts = Executors.newSingleThreadScheduledExecutor( r -> {
+        final Thread thread = new Thread( r, "appformer-code-server-ready-timeout" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
     private ExecutorService execService;
-    private Future< ? > runningCodeServer;
-    private final CodeServerPortHandle codeServerPort;
+    private final CodeServerPool codeServerPool;
+    private final CodeServerKey codeServerKey;
+    private final Supplier<CodeServerPortHandle> codeServerPorts;
+    private CodeServerLease codeServerLease;
 
     BuildAndDeployWithCodeServerCallable( Project project,
                                           File pomXml,
@@ -54,42 +77,53 @@ public class BuildAndDeployWithCodeServerCallable extends BuildAndDeployCallable
                                           ServletRequest sreq,
                                           ServerMessageBus bus,
                                           Event<AppReady> appReadyEvent,
-                                          CodeServerPortHandle codeServerPort,
-                                          ExecutorService execService ) {
-        super( project, pomXml, session, queueSessionId, sreq, bus, appReadyEvent );
-        this.codeServerPort = codeServerPort;
+                                          CodeServerPool codeServerPool,
+                                          CodeServerKey codeServerKey,
+                                          Supplier<CodeServerPortHandle> codeServerPorts,
+                                          ExecutorService execService,
+                                          IncrementalBuildPlanner buildPlanner,
+                                          DeploymentMarkerWatcher deploymentWatcher ) {
+        super( project, pomXml, session, queueSessionId, sreq, bus, appReadyEvent, buildPlanner, deploymentWatcher );
+        this.codeServerPool = codeServerPool;
+        this.codeServerKey = codeServerKey;
+        this.codeServerPorts = codeServerPorts;
         this.execService = execService;
     }
 
-    public Integer getCodeServerPort() {
-        return codeServerPort.getPortNumber();
+    public synchronized Integer getCodeServerPort() {
+        if ( codeServerLease != null )
+            return codeServerLease.getCodeServer().getPort();
+        else
+            throw new RuntimeException( "No code server has been acquired." );
     }
 
+    /**
+     * Acquires the shared code server for this project, launching it if necessary, and packages the war on the executor once the code
+     * server is ready, without blocking any thread in the meantime.
+     */
     @Override
-    protected InvocationResult executeRequest() throws Throwable {
-        final InvocationRequest codeServerRequest = createCodeServerRequest( pomXml );
+    protected CompletableFuture<InvocationResult> executeRequestAsync() {
         final DefaultInvocationRequest packageRequest = createDevModePackageRequest( pomXml );
-
-        setCodeServerOutputHandler( codeServerRequest );
         setPackageOutputHandler( packageRequest );
 
-        maybeLaunchCodeServer( codeServerRequest );
-        blockUntilCodeServerIsReadyOrError();
-        if ( error != null ) {
-            // TODO Handle this error. Currently gets swallowed.
-            throw error;
-        }
-
-        return new DefaultInvoker().execute( packageRequest );
+        return acquireCodeServer().thenApplyAsync( ready -> {
+            try {
+                // Dev mode packaging is not planned, so it has to detach the deployed war itself.
+                WarDeployer.detachPackagedWars( pomXml.getParentFile() );
+                return new DefaultInvoker().execute( packageRequest );
+            } catch ( final MavenInvocationException e ) {
+                throw new CompletionException( e );
+            }
+        }, execService );
     }
 
-    protected InvocationRequest createCodeServerRequest( final File pomXml ) {
+    protected InvocationRequest createCodeServerRequest( final File pomXml, final int port ) {
         final DefaultInvocationRequest codeServerRequest = new DefaultInvocationRequest();
         final Properties codeServerProperties = new Properties();
         final File webappFolder = new File( pomXml.getParentFile(), "src/main/webapp" );
 
         codeServerProperties.setProperty( GWT_CODE_SERVER_LAUNCHER_DIR, webappFolder.getAbsolutePath() );
-        codeServerProperties.setProperty( GWT_CODE_SERVER_PORT, String.valueOf( codeServerPort.getPortNumber() ) );
+        codeServerProperties.setProperty( GWT_CODE_SERVER_PORT, String.valueOf( port ) );
 
         codeServerRequest.setPomFile( pomXml );
         codeServerRequest.setGoals( Collections.singletonList( "gwt:run-codeserver" ) );
@@ -113,39 +147,69 @@ public class BuildAndDeployWithCodeServerCallable extends BuildAndDeployCallable
         return packageRequest;
     }
 
-    private void maybeLaunchCodeServer(final InvocationRequest codeServerRequest ) {
-        if ( !isCodeServerReady ) {
-            runningCodeServer = execService.submit( new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        new DefaultInvoker().execute( codeServerRequest );
-                    } catch ( MavenInvocationException e ) {
-                        error = e;
-                    }
-                }
-            } );
+    private synchronized CompletableFuture<Void> acquireCodeServer() {
+        if ( codeServerLease == null || !codeServerLease.isValid() ) {
+            if ( codeServerLease != null ) {
+                codeServerLease.release();
+            }
+            codeServerLease = codeServerPool.acquire( codeServerKey, this::launchCodeServer );
         }
+
+        return codeServerLease.getCodeServer().getReady();
     }
 
-    private void maybeShutdownCodeServer() {
-        if ( runningCodeServer != null )
-            runningCodeServer.cancel( true );
+    private CodeServer launchCodeServer() {
+        final CodeServerPortHandle port = codeServerPorts.get();
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        final InvocationRequest codeServerRequest = createCodeServerRequest( pomXml, port.getPortNumber() );
+        setCodeServerOutputHandler( codeServerRequest, ready );
+
+        final Future<?> running = execService.submit( new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final InvocationResult result = new DefaultInvoker().execute( codeServerRequest );
+                    // Has no effect if the code server became ready before exiting.
+                    ready.completeExceptionally( new IllegalStateException( "The code server exited with code " + result.getExitCode()
+                                                                            + " before it was ready." ) );
+                } catch ( MavenInvocationException e ) {
+                    ready.completeExceptionally( e );
+                }
+            }
+        } );
+        port.bindToProcess( running );
+        final MavenCodeServer codeServer = new MavenCodeServer( port, ready, running, pomXml.getParentFile() );
+        scheduleReadyTimeout( codeServer );
+
+        return codeServer;
     }
 
-    private void blockUntilCodeServerIsReadyOrError() throws InterruptedException {
-        while ( !( isCodeServerReady || error != null ) ) {
-            Thread.sleep( 500 );
+    private void scheduleReadyTimeout( final MavenCodeServer codeServer ) {
+        final CompletableFuture<Void> ready = codeServer.getReady();
+        final ScheduledFuture<?> timeout = readyTimeouts.schedule( () -> {
+            if ( ready.completeExceptionally( new TimeoutException( "The code server was not ready after "
+                                                                    + CODE_SERVER_READY_TIMEOUT_SECONDS + " seconds." ) ) ) {
+                codeServer.shutdown();
+            }
+        }, CODE_SERVER_READY_TIMEOUT_SECONDS, TimeUnit.SECONDS );
+        ready.whenComplete( ( v, t ) -> timeout.cancel( false ) );
+    }
+
+    private synchronized void releaseCodeServer() {
+        if ( codeServerLease != null ) {
+            codeServerLease.release();
+            codeServerLease = null;
         }
     }
 
-    private void setCodeServerOutputHandler( final InvocationRequest codeServerRequest ) {
+    private void setCodeServerOutputHandler( final InvocationRequest codeServerRequest,
+                                             final CompletableFuture<Void> ready ) {
         codeServerRequest.setOutputHandler( new InvocationOutputHandler() {
 
             @Override
             public void consumeLine( String line ) {
-                if ( !isCodeServerReady && line.contains( "The code server is ready at" ) ) {
-                    isCodeServerReady = true;
+                if ( !ready.isDone() && line.contains( "The code server is ready at" ) ) {
+                    ready.complete( null );
                 }
                 sendOutputToClient( line );
             }
@@ -167,8 +231,55 @@ public class BuildAndDeployWithCodeServerCallable extends BuildAndDeployCallable
 
     @Override
     public void valueUnbound( HttpSessionBindingEvent event ) {
-        maybeShutdownCodeServer();
-        codeServerPort.relinquishPort();
+        releaseCodeServer();
         super.valueUnbound( event );
     }
-}
\ No newline at end of file
+
+    /**
+     * A code server run by a Maven invocation on the executor. It serves the sources of the session that launched
+     * it, so it is no longer usable once that session's project directory is removed. Shutting it down interrupts the
+     * invocation, upon which the invoker destroys the Maven process it started.
+     */
+    private static class MavenCodeServer implements CodeServer {
+
+        private final CodeServerPortHandle port;
+        private final CompletableFuture<Void> ready;
+        private final Future<?> running;
+        private final File projectDir;
+        private final int portNumber;
+
+        private MavenCodeServer( final CodeServerPortHandle port,
+                                 final CompletableFuture<Void> ready,
+                                 final Future<?> running,
+                                 final File projectDir ) {
+            this.port = port;
+            this.portNumber = port.getPortNumber();
+            this.ready = ready;
+            this.running = running;
+            this.projectDir = projectDir;
+        }
+
+        @Override
+        public int getPort() {
+            return portNumber;
+        }
+
+        @Override
+        public CompletableFuture<Void> getReady() {
+            return ready;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return !running.isDone() && !ready.isCompletedExceptionally() && projectDir.isDirectory();
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            ready.cancel( false );
+            running.cancel( true );
+            port.relinquishPort();
+        }
+
+    }
+}
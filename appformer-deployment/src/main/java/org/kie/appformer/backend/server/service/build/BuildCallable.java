@@ -17,10 +17,17 @@
 package org.kie.appformer.backend.server.service.build;
 
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import org.guvnor.common.services.project.builder.model.BuildMessage;
 
 
-public interface BuildCallable extends Callable<List<BuildMessage>> {
+public interface BuildCallable {
+
+    /**
+     * Starts the build, returning a future for its messages. No thread is blocked while the build waits on other
+     * processes, such as a code server starting, so callers should compose on the future rather than wait for it.
+     */
+    CompletableFuture<List<BuildMessage>> callAsync();
+
 }
@@ -17,7 +17,7 @@
 package org.kie.appformer.backend.server.service.build;
 
 import java.io.File;
-import java.util.Set;
+import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
@@ -27,9 +27,14 @@ import javax.inject.Inject;
 import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpSession;
 
-import org.apache.mina.util.ConcurrentHashSet;
 import org.guvnor.common.services.project.model.Project;
 import org.jboss.errai.bus.server.api.ServerMessageBus;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerKey;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerPool;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerPortAllocator;
+import org.kie.appformer.backend.server.service.build.deploy.DeploymentMarkerWatcher;
+import org.kie.appformer.backend.server.service.build.fingerprint.IncrementalBuildPlanner;
+import org.kie.appformer.backend.server.service.dir.WorkspaceKey;
 import org.kie.appformer.client.shared.AppReady;
 
 @ApplicationScoped
@@ -38,10 +43,6 @@ public class BuildCallableFactory {
     public static final String CODE_SERVER_CALLABLE_ATTR_KEY = BuildAndDeployWithCodeServerCallable.class.getCanonicalName();
     public static final String BUILD_AND_DEPLOY_CALLABLE_ATTR_KEY = BuildAndDeployCallable.class.getCanonicalName();
 
-    // TODO make configurable
-    private static final int CODE_SERVER_LOWEST_PORT = 50000;
-    private static final int CODE_SERVER_HIGHEST_PORT = 50100;
-
     @Inject
     private Event<AppReady> appReadyEvent;
 
@@ -51,7 +52,17 @@ public class BuildCallableFactory {
     @Resource
     private ManagedExecutorService execService;
 
-    private final Set<Integer> leasedCodeServerPorts = new ConcurrentHashSet<Integer>();
+    @Inject
+    private IncrementalBuildPlanner buildPlanner;
+
+    @Inject
+    private DeploymentMarkerWatcher deploymentWatcher;
+
+    @Inject
+    private CodeServerPool codeServerPool;
+
+    @Inject
+    private CodeServerPortAllocator codeServerPortAllocator;
 
     public BuildCallable createProductionDeploymentCallable( final Project project,
                                                              final File pomXml,
@@ -66,7 +77,9 @@ public class BuildCallableFactory {
                                                    queueSessionId,
                                                    sreq,
                                                    bus,
-                                                   appReadyEvent );
+                                                   appReadyEvent,
+                                                   buildPlanner,
+                                                   deploymentWatcher );
             session.setAttribute( BUILD_AND_DEPLOY_CALLABLE_ATTR_KEY, callable );
         }
 
@@ -87,49 +100,45 @@ public class BuildCallableFactory {
                                                                  sreq,
                                                                  bus,
                                                                  appReadyEvent,
-                                                                 getAvailableCodeServerPort(),
-                                                                 execService );
+                                                                 codeServerPool,
+                                                                 new CodeServerKey( project.getProjectName(),
+                                                                                    WorkspaceKey.of( project ).getBranch(),
+                                                                                    pomXml.getParentFile() ),
+                                                                 () -> getAvailableCodeServerPort( session ),
+                                                                 execService,
+                                                                 buildPlanner,
+                                                                 deploymentWatcher );
             session.setAttribute( CODE_SERVER_CALLABLE_ATTR_KEY, callable );
         }
 
         return callable;
     }
 
-    private CodeServerPortHandle getAvailableCodeServerPort() {
+    private CodeServerPortHandle getAvailableCodeServerPort( final HttpSession session ) {
         return new CodeServerPortHandle() {
 
-            private Integer leasedPort = leaseAvailableCodeServerPort();
+            private final CodeServerPortAllocator.PortLease lease = codeServerPortAllocator.lease( CodeServerPortAllocator.whileValid( session ) );
+            private volatile boolean relinquished;
 
             @Override
             public void relinquishPort() {
-                leasedCodeServerPorts.remove( leasedPort );
-                leasedPort = null;
+                relinquished = true;
+                lease.release();
             }
 
             @Override
             public Integer getPortNumber() {
-                if ( leasedPort != null )
-                    return leasedPort;
+                if ( !relinquished )
+                    return lease.getPort();
                 else
                     throw new RuntimeException( "Cannot get port number after relinquishing." );
             }
-        };
-    }
 
-    private synchronized Integer leaseAvailableCodeServerPort() {
-        Integer port = CODE_SERVER_LOWEST_PORT;
-
-        while ( port <= CODE_SERVER_HIGHEST_PORT && leasedCodeServerPorts.contains( port ) ) {
-            port++;
-        }
-
-        if ( port > CODE_SERVER_HIGHEST_PORT ) {
-            throw new RuntimeException( "All available code server ports are in use." );
-        }
-
-        leasedCodeServerPorts.add( port );
-
-        return port;
+            @Override
+            public void bindToProcess( final Future<?> process ) {
+                lease.bindTo( process );
+            }
+        };
     }
 
 }
@@ -15,10 +15,17 @@
  */
 package org.kie.appformer.backend.server.service.build;
 
+import java.util.concurrent.Future;
+
 public interface CodeServerPortHandle {
 
     Integer getPortNumber();
 
     void relinquishPort();
 
+    /**
+     * Keeps the port leased for as long as the given code server process runs.
+     */
+    void bindToProcess( Future<?> process );
+
 }
@@ -18,20 +18,14 @@ package org.kie.appformer.backend.server.service.build;
 import javax.servlet.http.HttpSessionBindingEvent;
 import javax.servlet.http.HttpSessionBindingListener;
 
-import org.apache.commons.io.monitor.FileAlterationMonitor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.kie.appformer.backend.server.service.build.deploy.DeploymentMarkerWatcher;
 
 public class FileMonitorHandle implements HttpSessionBindingListener {
 
-    private static final Logger logger = LoggerFactory.getLogger( FileMonitorHandle.class );
+    private final DeploymentMarkerWatcher.Watch watch;
 
-    private final FileAlterationMonitor monitor;
-    private final String fileName;
-
-    public FileMonitorHandle( final FileAlterationMonitor monitor, final String fileName ) {
-        this.monitor = monitor;
-        this.fileName = fileName;
+    public FileMonitorHandle( final DeploymentMarkerWatcher.Watch watch ) {
+        this.watch = watch;
     }
 
     @Override
@@ -40,11 +34,7 @@ public class FileMonitorHandle implements HttpSessionBindingListener {
 
     @Override
     public void valueUnbound( HttpSessionBindingEvent event ) {
-        try {
-            monitor.stop();
-        } catch ( Exception e ) {
-            logger.error( "An error occurred while stopping the FileAlterationMonitor for " + fileName, e );
-        }
+        watch.close();
     }
 
 }
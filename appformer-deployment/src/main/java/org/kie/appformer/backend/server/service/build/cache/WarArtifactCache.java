@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local, content-addressed store of built wars. Each entry is kept in a directory named after its
+ * {@link WarCacheKey#getId() key id}, so the original war name is preserved.
+ *
+ * Entries are evicted in least-recently-used order once the total size exceeds the configured maximum. The last
+ * modified time of each war is refreshed on every hit so that the LRU order survives server restarts.
+ */
+@ApplicationScoped
+public class WarArtifactCache {
+
+    private static final Logger logger = LoggerFactory.getLogger( WarArtifactCache.class );
+
+    private static final String CACHE_DIR_PROPERTY = "appformer.war_cache.dir";
+    private static final String MAX_SIZE_PROPERTY = "appformer.war_cache.max_size_mb";
+    private static final long DEFAULT_MAX_SIZE_MB = 2048;
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Map<String, CachedWar> entries = new LinkedHashMap<>( 16, 0.75f, true );
+    private File cacheDir;
+    private long maxBytes;
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public WarArtifactCache() {
+    }
+
+    public WarArtifactCache( final File cacheDir, final long maxBytes ) {
+        init( cacheDir, maxBytes );
+    }
+
+    @PostConstruct
+    private void setup() {
+        final String dir = System.getProperty( CACHE_DIR_PROPERTY );
+        final File cacheDir = ( dir == null || dir.isEmpty() )
+                ? new File( System.getProperty( "user.home" ), ".appformer/war-cache" )
+                : new File( dir );
+        final long maxSizeMb = Long.getLong( MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE_MB );
+
+        init( cacheDir, maxSizeMb * 1024 * 1024 );
+    }
+
+    private void init( final File cacheDir, final long maxBytes ) {
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+        cacheDir.mkdirs();
+        loadExistingEntries();
+    }
+
+    /**
+     * @return The cached war for the given key, if there is one. Every call counts as either a hit or a miss.
+     */
+    public synchronized Optional<File> get( final WarCacheKey key ) {
+        final CachedWar cached = entries.get( key.getId() );
+        if ( cached != null && cached.war.isFile() ) {
+            hits++;
+            cached.war.setLastModified( System.currentTimeMillis() );
+            logger.debug( "War cache hit for " + key );
+            return Optional.of( cached.war );
+        } else {
+            if ( cached != null ) {
+                forget( key.getId() );
+            }
+            misses++;
+            logger.debug( "War cache miss for " + key );
+            return Optional.empty();
+        }
+    }
+
+    public synchronized boolean contains( final WarCacheKey key ) {
+        final CachedWar cached = entries.get( key.getId() );
+        return cached != null && cached.war.isFile();
+    }
+
+    /**
+     * Copies the given war into the cache, unless an entry for the key already exists. Wars larger than the maximum
+     * cache size are not cached.
+     */
+    public void put( final WarCacheKey key, final File war ) {
+        if ( contains( key ) ) {
+            return;
+        }
+        if ( war.length() > maxBytes ) {
+            logger.info( "Not caching " + war + " because it is larger than the war cache." );
+            return;
+        }
+
+        final File tmpEntryDir = new File( cacheDir, key.getId() + "-" + System.nanoTime() + TMP_SUFFIX );
+        final File entryDir = new File( cacheDir, key.getId() );
+        try {
+            // Copy outside of the lock so that lookups are not blocked by large wars.
+            FileUtils.copyFile( war, new File( tmpEntryDir, war.getName() ) );
+            synchronized ( this ) {
+                if ( entries.containsKey( key.getId() ) ) {
+                    return;
+                }
+                FileUtils.deleteQuietly( entryDir );
+                Files.move( tmpEntryDir.toPath(), entryDir.toPath(), StandardCopyOption.ATOMIC_MOVE );
+                final CachedWar cached = new CachedWar( new File( entryDir, war.getName() ) );
+                entries.put( key.getId(), cached );
+                totalBytes += cached.size;
+                evictIfNecessary();
+            }
+        } catch ( final IOException e ) {
+            logger.warn( "Unable to cache " + war + " for " + key, e );
+        } finally {
+            FileUtils.deleteQuietly( tmpEntryDir );
+        }
+    }
+
+    public synchronized WarCacheStatistics getStatistics() {
+        return new WarCacheStatistics( hits, misses, evictions, entries.size(), totalBytes, maxBytes );
+    }
+
+    private void evictIfNecessary() {
+        final Iterator<CachedWar> eldestFirst = entries.values().iterator();
+        while ( totalBytes > maxBytes && eldestFirst.hasNext() ) {
+            final CachedWar eldest = eldestFirst.next();
+            eldestFirst.remove();
+            totalBytes -= eldest.size;
+            FileUtils.deleteQuietly( eldest.war.getParentFile() );
+            evictions++;
+            logger.debug( "Evicted " + eldest.war + " from the war cache." );
+        }
+    }
+
+    private void forget( final String id ) {
+        final CachedWar cached = entries.remove( id );
+        if ( cached != null ) {
+            totalBytes -= cached.size;
+            FileUtils.deleteQuietly( cached.war.getParentFile() );
+        }
+    }
+
+    private void loadExistingEntries() {
+        final File[] entryDirs = cacheDir.listFiles( File::isDirectory );
+        if ( entryDirs == null ) {
+            return;
+        }
+
+        Arrays.stream( entryDirs )
+              .filter( dir -> {
+                  if ( dir.getName().endsWith( TMP_SUFFIX ) ) {
+                      FileUtils.deleteQuietly( dir );
+                      return false;
+                  }
+                  return true;
+              } )
+              .map( dir -> dir.listFiles( file -> file.isFile() && file.getName().endsWith( ".war" ) ) )
+              .filter( wars -> wars != null && wars.length == 1 )
+              .map( wars -> wars[0] )
+              .sorted( Comparator.comparingLong( File::lastModified ) )
+              .forEach( war -> {
+                  final CachedWar cached = new CachedWar( war );
+                  entries.put( war.getParentFile().getName(), cached );
+                  totalBytes += cached.size;
+              } );
+        evictIfNecessary();
+    }
+
+    private static class CachedWar {
+
+        private final File war;
+        private final long size;
+
+        private CachedWar( final File war ) {
+            this.war = war;
+            this.size = war.length();
+        }
+
+    }
+
+}
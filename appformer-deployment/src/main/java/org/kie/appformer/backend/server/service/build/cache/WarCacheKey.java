@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.cache;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Identifies a built war by the project it was built from, the revision of that project's sources and the build
+ * configuration that was used.
+ *
+ * The revision is a digest of the source content rather than a commit id, so two sessions, branches or commits with
+ * identical sources share a single cache entry.
+ */
+public class WarCacheKey {
+
+    private final String project;
+    private final String revision;
+    private final SortedMap<String, String> buildProperties = new TreeMap<>();
+    private final String id;
+
+    public WarCacheKey( final String project,
+                        final String revision,
+                        final Properties buildProperties ) {
+        this.project = project;
+        this.revision = revision;
+        for ( final String name : buildProperties.stringPropertyNames() ) {
+            this.buildProperties.put( name, buildProperties.getProperty( name ) );
+        }
+        this.id = digest();
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public SortedMap<String, String> getBuildProperties() {
+        return buildProperties;
+    }
+
+    /**
+     * @return A file name safe digest of all the parts of this key.
+     */
+    public String getId() {
+        return id;
+    }
+
+    private String digest() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+            update( digest, project );
+            update( digest, revision );
+            for ( final Map.Entry<String, String> property : buildProperties.entrySet() ) {
+                update( digest, property.getKey() );
+                update( digest, property.getValue() );
+            }
+
+            return String.format( "%064x", new BigInteger( 1, digest.digest() ) );
+        } catch ( final NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static void update( final MessageDigest digest, final String value ) {
+        digest.update( value.getBytes( StandardCharsets.UTF_8 ) );
+        digest.update( (byte) 0 );
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        return obj instanceof WarCacheKey && id.equals( ( (WarCacheKey) obj ).id );
+    }
+
+    @Override
+    public String toString() {
+        return "WarCacheKey[project=" + project + ", buildProperties=" + buildProperties + ", id=" + id + "]";
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A running GWT SuperDevMode code server that can be shared through a {@link CodeServerPool}.
+ */
+public interface CodeServer {
+
+    int getPort();
+
+    /**
+     * @return A future completed once the code server accepts requests.
+     */
+    CompletableFuture<Void> getReady();
+
+    /**
+     * @return False once the code server has exited, failed to start, or can no longer serve its sources.
+     */
+    boolean isAlive();
+
+    void shutdown();
+
+}
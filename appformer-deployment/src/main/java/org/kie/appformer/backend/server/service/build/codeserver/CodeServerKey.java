@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * Identifies the sources a code server compiles: a project and branch checked out in a workspace. Code servers compile
+ * the sources of their workspace, so only builds in the same workspace share a code server.
+ */
+public class CodeServerKey {
+
+    private final String project;
+    private final String branch;
+    private final String workspace;
+
+    /**
+     * @param branch
+     *            The branch being built, or null.
+     * @param workspace
+     *            The directory the sources are built in, or null if it is unknown.
+     */
+    public CodeServerKey( final String project,
+                          final String branch,
+                          final File workspace ) {
+        this.project = Objects.requireNonNull( project );
+        this.branch = branch == null ? "" : branch;
+        this.workspace = workspace == null ? "" : workspace.getAbsolutePath();
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public String getWorkspace() {
+        return workspace;
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof CodeServerKey ) ) {
+            return false;
+        }
+        final CodeServerKey other = (CodeServerKey) obj;
+        return project.equals( other.project ) && branch.equals( other.branch ) && workspace.equals( other.workspace );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash( project, branch, workspace );
+    }
+
+    @Override
+    public String toString() {
+        final String name = branch.isEmpty() ? project : project + "@" + branch;
+        return workspace.isEmpty() ? name : name + " in " + workspace;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.util.function.Consumer;
+
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+/**
+ * One user's claim on a pooled code server. The code server is kept running while any lease on it is held, and is
+ * released when the lease is released or unbound from its session.
+ */
+public class CodeServerLease implements HttpSessionBindingListener {
+
+    private final CodeServerKey key;
+    private final CodeServer codeServer;
+    private final Consumer<CodeServerLease> onRelease;
+    private volatile boolean released;
+
+    CodeServerLease( final CodeServerKey key,
+                     final CodeServer codeServer,
+                     final Consumer<CodeServerLease> onRelease ) {
+        this.key = key;
+        this.codeServer = codeServer;
+        this.onRelease = onRelease;
+    }
+
+    public CodeServerKey getKey() {
+        return key;
+    }
+
+    public CodeServer getCodeServer() {
+        return codeServer;
+    }
+
+    /**
+     * @return True while the lease is held and its code server is still alive.
+     */
+    public boolean isValid() {
+        return !released && codeServer.isAlive();
+    }
+
+    public synchronized void release() {
+        if ( !released ) {
+            released = true;
+            onRelease.accept( this );
+        }
+    }
+
+    @Override
+    public void valueBound( final HttpSessionBindingEvent event ) {
+    }
+
+    @Override
+    public void valueUnbound( final HttpSessionBindingEvent event ) {
+        release();
+    }
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.kie.appformer.backend.server.service.job.BuildJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares one SuperDevMode code server between all builds of a project and branch in the same workspace. Workspaces are
+ * leased to one session at a time, so a session that is handed a warm workspace also gets the code server still
+ * running from it.
+ *
+ * Code servers are reference counted through {@link CodeServerLease leases}. A code server without leases is shut
+ * down once it has been idle for {@code appformer.code_server.idle_ttl_seconds} (15 minutes by default), and code
+ * servers that have died are dropped so that the next user launches a new one. Checking whether a code server is alive
+ * may block, so it is never done while holding the pool's lock.
+ */
+@ApplicationScoped
+public class CodeServerPool {
+
+    private static final Logger logger = LoggerFactory.getLogger( CodeServerPool.class );
+
+    private static final String IDLE_TTL_PROPERTY = "appformer.code_server.idle_ttl_seconds";
+    private static final long DEFAULT_IDLE_TTL_SECONDS = 900;
+    private static final long REAP_INTERVAL_SECONDS = 30;
+
+    private final Map<CodeServerKey, Entry> entries = new HashMap<>();
+    private long idleTtlMillis;
+    private LongSupplier clock;
+    private ScheduledExecutorService reaper;
+
+    public CodeServerPool() {
+    }
+
+    CodeServerPool( final long idleTtlMillis, final LongSupplier clock ) {
+        this.idleTtlMillis = idleTtlMillis;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    private void setup() {
+        idleTtlMillis = TimeUnit.SECONDS.toMillis( Long.getLong( IDLE_TTL_PROPERTY, DEFAULT_IDLE_TTL_SECONDS ) );
+        clock = System::currentTimeMillis;
+        reaper = Executors.newSingleThreadScheduledExecutor( r -> {
+            final Thread thread = new Thread( r, "appformer-code-server-reaper" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        reaper.scheduleWithFixedDelay( this::reap, REAP_INTERVAL_SECONDS, REAP_INTERVAL_SECONDS, TimeUnit.SECONDS );
+    }
+
+    /**
+     * Leases the code server for the given key, launching one if there is none or the previous one died.
+     */
+    public CodeServerLease acquire( final CodeServerKey key, final Supplier<CodeServer> launcher ) {
+        while ( true ) {
+            final Entry existing = get( key );
+            final boolean alive = existing != null && existing.server.isAlive();
+            final CodeServerLease lease;
+            synchronized ( this ) {
+                Entry entry = entries.get( key );
+                if ( entry != existing ) {
+                    // Replaced while checking, so check the replacement.
+                    continue;
+                }
+                if ( !alive ) {
+                    entry = new Entry( key, launcher.get() );
+                    entries.put( key, entry );
+                    logger.info( "Launched shared code server for " + key + " on port " + entry.server.getPort() );
+                }
+                lease = entry.lease();
+            }
+            if ( existing != null && !alive ) {
+                existing.server.shutdown();
+            }
+
+            return lease;
+        }
+    }
+
+    /**
+     * Leases the code server for the given key only if one is already running.
+     */
+    public Optional<CodeServerLease> acquireRunning( final CodeServerKey key ) {
+        final Entry entry = get( key );
+        if ( entry == null || !entry.server.isAlive() ) {
+            return Optional.empty();
+        }
+
+        synchronized ( this ) {
+            // A code server that was replaced or reaped while checking is not handed out.
+            return entries.get( key ) == entry ? Optional.of( entry.lease() ) : Optional.empty();
+        }
+    }
+
+    /**
+     * Adds a code server launched outside of the pool, replacing any other code server for the same key.
+     */
+    public CodeServerLease register( final CodeServerKey key, final CodeServer server ) {
+        final Entry previous;
+        final CodeServerLease lease;
+        synchronized ( this ) {
+            final Entry entry = new Entry( key, server );
+            previous = entries.put( key, entry );
+            lease = entry.lease();
+        }
+        if ( previous != null && previous.server != server ) {
+            previous.server.shutdown();
+        }
+
+        return lease;
+    }
+
+    /**
+     * Resolves the key of a project for code that only knows project names (such as a pipeline stage), using the
+     * branch and workspace of the {@link BuildJob} running on the calling thread.
+     */
+    public CodeServerKey keyFor( final String project ) {
+        final Optional<BuildJob> job = BuildJob.current();
+        return new CodeServerKey( project,
+                                  job.map( BuildJob::getBranch ).orElse( null ),
+                                  job.map( BuildJob::getWorkspace ).orElse( null ) );
+    }
+
+    /**
+     * @return The status of all pooled code servers, including their memory usage where it can be determined.
+     */
+    public List<CodeServerStatus> getStatus() {
+        final List<Entry> snapshot;
+        final long now;
+        final Map<Entry, Integer> users = new IdentityHashMap<>();
+        synchronized ( this ) {
+            snapshot = new ArrayList<>( entries.values() );
+            now = clock.getAsLong();
+            snapshot.forEach( entry -> users.put( entry, entry.leases.size() ) );
+        }
+
+        final List<CodeServerStatus> status = new ArrayList<>();
+        for ( final Entry entry : snapshot ) {
+            final int port = entry.server.getPort();
+            final OptionalLong pid = ListeningProcesses.findPid( port );
+            status.add( new CodeServerStatus( entry.key,
+                                              port,
+                                              users.get( entry ),
+                                              users.get( entry ) == 0 ? now - entry.idleSince : 0,
+                                              pid.isPresent() ? ListeningProcesses.residentBytes( pid.getAsLong() ) : OptionalLong.empty() ) );
+        }
+
+        return status;
+    }
+
+    /**
+     * Shuts down code servers that have died or have been idle for longer than the idle TTL.
+     */
+    void reap() {
+        final Set<Entry> dead = Collections.newSetFromMap( new IdentityHashMap<>() );
+        for ( final Entry entry : snapshot() ) {
+            if ( !entry.server.isAlive() ) {
+                dead.add( entry );
+            }
+        }
+
+        final List<Entry> expired = new ArrayList<>();
+        synchronized ( this ) {
+            final long now = clock.getAsLong();
+            final Iterator<Entry> iterator = entries.values().iterator();
+            while ( iterator.hasNext() ) {
+                final Entry entry = iterator.next();
+                if ( dead.contains( entry ) || ( entry.leases.isEmpty() && now - entry.idleSince >= idleTtlMillis ) ) {
+                    iterator.remove();
+                    expired.add( entry );
+                }
+            }
+        }
+
+        for ( final Entry entry : expired ) {
+            logger.info( "Shutting down shared code server for " + entry.key + " on port " + entry.server.getPort() );
+            try {
+                entry.server.shutdown();
+            } catch ( final RuntimeException e ) {
+                logger.warn( "Unable to shut down the code server for " + entry.key, e );
+            }
+        }
+        if ( logger.isDebugEnabled() ) {
+            getStatus().forEach( status -> logger.debug( "Code server " + status ) );
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if ( reaper != null ) {
+            reaper.shutdownNow();
+        }
+
+        final List<Entry> all;
+        synchronized ( this ) {
+            all = new ArrayList<>( entries.values() );
+            entries.clear();
+        }
+        all.forEach( entry -> entry.server.shutdown() );
+    }
+
+    private synchronized Entry get( final CodeServerKey key ) {
+        return entries.get( key );
+    }
+
+    private synchronized List<Entry> snapshot() {
+        return new ArrayList<>( entries.values() );
+    }
+
+    private synchronized void release( final CodeServerLease lease ) {
+        final Entry entry = entries.get( lease.getKey() );
+        if ( entry != null && entry.leases.remove( lease ) && entry.leases.isEmpty() ) {
+            entry.idleSince = clock.getAsLong();
+        }
+    }
+
+    private class Entry {
+
+        private final CodeServerKey key;
+        private final CodeServer server;
+        private final Set<CodeServerLease> leases = Collections.newSetFromMap( new IdentityHashMap<>() );
+        private long idleSince;
+
+        private Entry( final CodeServerKey key, final CodeServer server ) {
+            this.key = key;
+            this.server = server;
+            this.idleSince = clock.getAsLong();
+        }
+
+        private CodeServerLease lease() {
+            final CodeServerLease lease = new CodeServerLease( key, server, CodeServerPool.this::release );
+            leases.add( lease );
+            return lease;
+        }
+
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.servlet.http.HttpSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Leases code server ports from the range {@code appformer.code_server.lowest_port} to
+ * {@code appformer.code_server.highest_port} (50000 to 50100 by default).
+ *
+ * Ports are kept in a slot array that is claimed with compare-and-set instead of a lock. Leasing scans the slots from a
+ * rotating start, so it takes time linear in the size of the range when most ports are taken, but rarely revisits
+ * recently released ports. A port is only leased after binding to it succeeds, so ports held by other processes are
+ * skipped. Leases expire once the code server process they are bound to has finished, or, before a
+ * process is bound, once their owner (such as an HTTP session) is gone. Expired leases are reclaimed by later leases.
+ */
+@ApplicationScoped
+public class CodeServerPortAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger( CodeServerPortAllocator.class );
+
+    private static final String LOWEST_PORT_PROPERTY = "appformer.code_server.lowest_port";
+    private static final String HIGHEST_PORT_PROPERTY = "appformer.code_server.highest_port";
+    private static final int DEFAULT_LOWEST_PORT = 50000;
+    private static final int DEFAULT_HIGHEST_PORT = 50100;
+
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private AtomicReferenceArray<PortLease> slots;
+    private int lowestPort;
+    private IntPredicate portProbe;
+
+    public CodeServerPortAllocator() {
+    }
+
+    CodeServerPortAllocator( final int lowestPort,
+                             final int highestPort,
+                             final IntPredicate portProbe ) {
+        init( lowestPort, highestPort, portProbe );
+    }
+
+    @PostConstruct
+    private void setup() {
+        init( Integer.getInteger( LOWEST_PORT_PROPERTY, DEFAULT_LOWEST_PORT ),
+              Integer.getInteger( HIGHEST_PORT_PROPERTY, DEFAULT_HIGHEST_PORT ),
+              CodeServerPortAllocator::canBind );
+    }
+
+    private void init( final int lowestPort,
+                       final int highestPort,
+                       final IntPredicate portProbe ) {
+        if ( lowestPort < 1 || highestPort > 65535 || lowestPort > highestPort ) {
+            throw new IllegalArgumentException( "Invalid code server port range " + lowestPort + "-" + highestPort );
+        }
+        this.lowestPort = lowestPort;
+        this.slots = new AtomicReferenceArray<>( highestPort - lowestPort + 1 );
+        this.portProbe = portProbe;
+    }
+
+    /**
+     * @param owner
+     *            Reports whether the owner of the lease is still alive. Consulted until a process is bound to the
+     *            lease.
+     */
+    public PortLease lease( final BooleanSupplier owner ) {
+        final int size = slots.length();
+        final int start = Math.floorMod( nextSlot.getAndIncrement(), size );
+        for ( int i = 0; i < size; i++ ) {
+            final int slot = ( start + i ) % size;
+            final PortLease current = slots.get( slot );
+            if ( current != null && !current.isExpired() ) {
+                continue;
+            }
+
+            final int port = lowestPort + slot;
+            if ( !portProbe.test( port ) ) {
+                logger.debug( "Skipping code server port " + port + " because it is in use by another process." );
+                continue;
+            }
+
+            final PortLease lease = new PortLease( slot, port, owner );
+            if ( slots.compareAndSet( slot, current, lease ) ) {
+                if ( current != null ) {
+                    logger.info( "Reclaimed expired lease of code server port " + port );
+                }
+                return lease;
+            }
+        }
+
+        throw new RuntimeException( "All available code server ports are in use." );
+    }
+
+    /**
+     * @return An owner that is alive until the given session is invalidated.
+     */
+    public static BooleanSupplier whileValid( final HttpSession session ) {
+        return () -> {
+            try {
+                session.getLastAccessedTime();
+                return true;
+            } catch ( final IllegalStateException e ) {
+                // Thrown by invalidated sessions.
+                return false;
+            }
+        };
+    }
+
+    public int getLeasedPortCount() {
+        int leased = 0;
+        for ( int slot = 0; slot < slots.length(); slot++ ) {
+            final PortLease lease = slots.get( slot );
+            if ( lease != null && !lease.isExpired() ) {
+                leased++;
+            }
+        }
+
+        return leased;
+    }
+
+    static boolean canBind( final int port ) {
+        try ( ServerSocket socket = new ServerSocket() ) {
+            socket.setReuseAddress( false );
+            socket.bind( new InetSocketAddress( port ) );
+            return true;
+        } catch ( final IOException e ) {
+            return false;
+        }
+    }
+
+    public class PortLease {
+
+        private final int slot;
+        private final int port;
+        private final BooleanSupplier owner;
+        private volatile Future<?> process;
+        private volatile boolean released;
+
+        private PortLease( final int slot,
+                           final int port,
+                           final BooleanSupplier owner ) {
+            this.slot = slot;
+            this.port = port;
+            this.owner = owner;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        /**
+         * Ties the lease to the given code server process instead of its owner.
+         */
+        public void bindTo( final Future<?> process ) {
+            this.process = process;
+        }
+
+        public boolean isExpired() {
+            if ( released ) {
+                return true;
+            }
+
+            final Future<?> process = this.process;
+            return process != null ? process.isDone() : !owner.getAsBoolean();
+        }
+
+        public void release() {
+            released = true;
+            slots.compareAndSet( slot, this, null );
+        }
+
+    }
+
+}
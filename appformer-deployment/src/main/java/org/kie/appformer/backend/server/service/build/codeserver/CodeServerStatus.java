@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.util.OptionalLong;
+
+/**
+ * A snapshot of one pooled code server.
+ */
+public class CodeServerStatus {
+
+    private final CodeServerKey key;
+    private final int port;
+    private final int users;
+    private final long idleMillis;
+    private final OptionalLong residentBytes;
+
+    public CodeServerStatus( final CodeServerKey key,
+                             final int port,
+                             final int users,
+                             final long idleMillis,
+                             final OptionalLong residentBytes ) {
+        this.key = key;
+        this.port = port;
+        this.users = users;
+        this.idleMillis = idleMillis;
+        this.residentBytes = residentBytes;
+    }
+
+    public CodeServerKey getKey() {
+        return key;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * @return How long the code server has had no users, or zero while it is in use.
+     */
+    public long getIdleMillis() {
+        return idleMillis;
+    }
+
+    /**
+     * @return The resident memory of the code server process, if it could be determined on this platform.
+     */
+    public OptionalLong getResidentBytes() {
+        return residentBytes;
+    }
+
+    @Override
+    public String toString() {
+        return key + " on port " + port + ": " + users + " users, idle for " + ( idleMillis / 1000 ) + "s, "
+                + ( residentBytes.isPresent() ? ( residentBytes.getAsLong() / ( 1024 * 1024 ) ) + "MB resident" : "memory unknown" );
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds and inspects the local processes listening on code server ports, so that their memory usage can be reported.
+ *
+ * Process lookups read {@code /proc} and return nothing on other platforms.
+ */
+public final class ListeningProcesses {
+
+    private static final Logger logger = LoggerFactory.getLogger( ListeningProcesses.class );
+
+    private static final Path PROC = Paths.get( "/proc" );
+    private static final String TCP_LISTEN = "0A";
+
+    private ListeningProcesses() {
+    }
+
+    public static boolean isAcceptingConnections( final int port ) {
+        try ( Socket socket = new Socket() ) {
+            socket.connect( new InetSocketAddress( "localhost", port ), 200 );
+            return true;
+        } catch ( final IOException e ) {
+            return false;
+        }
+    }
+
+    public static OptionalLong findPid( final int port ) {
+        if ( !Files.isDirectory( PROC ) ) {
+            return OptionalLong.empty();
+        }
+
+        final Set<String> socketLinks = new HashSet<>();
+        for ( final String table : new String[]{ "net/tcp", "net/tcp6" } ) {
+            for ( final String inode : listeningInodes( PROC.resolve( table ), port ) ) {
+                socketLinks.add( "socket:[" + inode + "]" );
+            }
+        }
+        if ( socketLinks.isEmpty() ) {
+            return OptionalLong.empty();
+        }
+
+        try ( DirectoryStream<Path> processes = Files.newDirectoryStream( PROC, "[0-9]*" ) ) {
+            for ( final Path process : processes ) {
+                if ( ownsSocket( process, socketLinks ) ) {
+                    return OptionalLong.of( Long.parseLong( process.getFileName().toString() ) );
+                }
+            }
+        } catch ( final IOException e ) {
+            logger.debug( "Unable to list processes.", e );
+        }
+
+        return OptionalLong.empty();
+    }
+
+    public static OptionalLong residentBytes( final long pid ) {
+        try {
+            for ( final String line : Files.readAllLines( PROC.resolve( pid + "/status" ), StandardCharsets.UTF_8 ) ) {
+                if ( line.startsWith( "VmRSS:" ) ) {
+                    final String[] parts = line.substring( "VmRSS:".length() ).trim().split( "\\s+" );
+                    return OptionalLong.of( Long.parseLong( parts[0] ) * 1024 );
+                }
+            }
+        } catch ( final IOException | RuntimeException e ) {
+            logger.debug( "Unable to read the memory usage of process " + pid, e );
+        }
+
+        return OptionalLong.empty();
+    }
+
+    private static Set<String> listeningInodes( final Path table, final int port ) {
+        final Set<String> inodes = new HashSet<>();
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines( table, StandardCharsets.US_ASCII );
+        } catch ( final IOException e ) {
+            return inodes;
+        }
+
+        final String portSuffix = String.format( ":%04X", port );
+        for ( final String line : lines.subList( Math.min( 1, lines.size() ), lines.size() ) ) {
+            // sl local_address rem_address st tx_queue:rx_queue tr:tm->when retrnsmt uid timeout inode
+            final String[] columns = line.trim().split( "\\s+" );
+            if ( columns.length > 9 && columns[1].endsWith( portSuffix ) && TCP_LISTEN.equals( columns[3] ) ) {
+                inodes.add( columns[9] );
+            }
+        }
+
+        return inodes;
+    }
+
+    private static boolean ownsSocket( final Path process, final Set<String> socketLinks ) {
+        try ( DirectoryStream<Path> fds = Files.newDirectoryStream( process.resolve( "fd" ) ) ) {
+            for ( final Path fd : fds ) {
+                try {
+                    if ( socketLinks.contains( Files.readSymbolicLink( fd ).toString() ) ) {
+                        return true;
+                    }
+                } catch ( final IOException e ) {
+                    // The descriptor was closed while listing.
+                }
+            }
+        } catch ( final IOException e ) {
+            // Processes of other users cannot be inspected.
+        }
+
+        return false;
+    }
+
+}
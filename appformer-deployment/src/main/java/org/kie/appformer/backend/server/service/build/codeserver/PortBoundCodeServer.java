@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A code server launched by someone else, such as a pipeline stage, that is only known by its port.
+ *
+ * It is considered alive while it is starting up (for at most the startup timeout) and afterwards for as long as it
+ * accepts connections on its port. The pool did not start its process and holds no handle on it, so shutting it down
+ * only stops sharing it and leaves the process to whoever launched it.
+ */
+public class PortBoundCodeServer implements CodeServer {
+
+    private static final Logger logger = LoggerFactory.getLogger( PortBoundCodeServer.class );
+
+    private final int port;
+    private final long startupDeadline;
+    private final Runnable onShutdown;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile boolean shutdown;
+
+    public PortBoundCodeServer( final int port,
+                                final long startupTimeoutSeconds,
+                                final Runnable onShutdown ) {
+        this.port = port;
+        this.startupDeadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( startupTimeoutSeconds );
+        this.onShutdown = onShutdown;
+    }
+
+    @Override
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public CompletableFuture<Void> getReady() {
+        return ready;
+    }
+
+    @Override
+    public boolean isAlive() {
+        if ( shutdown ) {
+            return false;
+        } else if ( ListeningProcesses.isAcceptingConnections( port ) ) {
+            ready.complete( null );
+            return true;
+        } else {
+            return !ready.isDone() && System.currentTimeMillis() < startupDeadline;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        ready.cancel( false );
+        logger.debug( "No longer sharing the code server on port " + port );
+        onShutdown.run();
+    }
+
+}
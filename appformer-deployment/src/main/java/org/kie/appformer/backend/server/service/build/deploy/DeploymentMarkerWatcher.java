@@ -0,0 +1,242 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Notifies listeners when deployment scanner markers (such as {@code app.war.deployed}) are created or modified.
+ * Writing a marker raises several events, so a listener is only notified again once the modification time of its
+ * marker has changed.
+ *
+ * All watches share a single {@link WatchService} and dispatcher thread, and each deployment directory is registered
+ * once no matter how many sessions watch markers in it.
+ */
+@ApplicationScoped
+public class DeploymentMarkerWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger( DeploymentMarkerWatcher.class );
+
+    private final Map<Path, WatchedDir> watchedDirs = new HashMap<>();
+    private final Map<WatchKey, WatchedDir> watchedDirsByKey = new HashMap<>();
+    private WatchService watchService;
+    private Thread dispatcher;
+
+    /**
+     * @param dir
+     *            The deployment directory containing the marker.
+     * @param markerName
+     *            The name of the marker file.
+     * @param listener
+     *            Invoked on the dispatcher thread every time the marker is written.
+     * @return A watch that must be closed once notifications are no longer needed.
+     */
+    public synchronized Watch watch( final File dir,
+                                     final String markerName,
+                                     final Runnable listener ) throws IOException {
+        ensureStarted();
+
+        final Path path = dir.toPath().toAbsolutePath().normalize();
+        WatchedDir watchedDir = watchedDirs.get( path );
+        if ( watchedDir == null ) {
+            final WatchKey key = path.register( watchService,
+                                                StandardWatchEventKinds.ENTRY_CREATE,
+                                                StandardWatchEventKinds.ENTRY_MODIFY );
+            watchedDir = new WatchedDir( path, key );
+            watchedDirs.put( path, watchedDir );
+            watchedDirsByKey.put( key, watchedDir );
+        }
+
+        final Watch watch = new Watch( watchedDir, markerName, listener );
+        watchedDir.watches.add( watch );
+
+        return watch;
+    }
+
+    public synchronized int getWatchCount() {
+        return watchedDirs.values().stream().mapToInt( dir -> dir.watches.size() ).sum();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if ( watchService != null ) {
+            try {
+                watchService.close();
+            } catch ( final IOException e ) {
+                logger.warn( "Unable to close the deployment watch service.", e );
+            }
+            watchService = null;
+            dispatcher = null;
+            watchedDirs.clear();
+            watchedDirsByKey.clear();
+        }
+    }
+
+    private void ensureStarted() throws IOException {
+        if ( watchService == null ) {
+            watchService = FileSystems.getDefault().newWatchService();
+            final WatchService service = watchService;
+            dispatcher = new Thread( () -> dispatch( service ), "appformer-deployment-watcher" );
+            dispatcher.setDaemon( true );
+            dispatcher.start();
+        }
+    }
+
+    private synchronized void cancel( final Watch watch ) {
+        final WatchedDir watchedDir = watch.dir;
+        if ( watchedDir.watches.remove( watch ) && watchedDir.watches.isEmpty() ) {
+            watchedDir.key.cancel();
+            watchedDirs.remove( watchedDir.path );
+            watchedDirsByKey.remove( watchedDir.key );
+        }
+    }
+
+    private void dispatch( final WatchService service ) {
+        while ( true ) {
+            final WatchKey key;
+            try {
+                key = service.take();
+            } catch ( final ClosedWatchServiceException | InterruptedException e ) {
+                return;
+            }
+
+            final Set<Watch> notified = new LinkedHashSet<>();
+            synchronized ( this ) {
+                final WatchedDir watchedDir = watchedDirsByKey.get( key );
+                for ( final WatchEvent<?> event : key.pollEvents() ) {
+                    if ( watchedDir != null ) {
+                        collectWatches( watchedDir, event, notified );
+                    }
+                }
+            }
+            key.reset();
+
+            // Listeners run outside of the lock so that they may open or close watches.
+            for ( final Watch watch : notified ) {
+                if ( !watch.markerChanged() ) {
+                    continue;
+                }
+                try {
+                    watch.listener.run();
+                } catch ( final RuntimeException e ) {
+                    logger.error( "Deployment marker listener failed.", e );
+                }
+            }
+        }
+    }
+
+    private static void collectWatches( final WatchedDir watchedDir,
+                                        final WatchEvent<?> event,
+                                        final Set<Watch> notified ) {
+        if ( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+            // Events were lost, so notify every watch whose marker is present.
+            for ( final Watch watch : watchedDir.watches ) {
+                if ( Files.exists( watchedDir.path.resolve( watch.markerName ) ) ) {
+                    notified.add( watch );
+                }
+            }
+        } else {
+            final String fileName = ( (Path) event.context() ).getFileName().toString();
+            for ( final Watch watch : watchedDir.watches ) {
+                if ( watch.markerName.equals( fileName ) ) {
+                    notified.add( watch );
+                }
+            }
+        }
+    }
+
+    private static class WatchedDir {
+
+        private final Path path;
+        private final WatchKey key;
+        private final List<Watch> watches = new ArrayList<>();
+
+        private WatchedDir( final Path path, final WatchKey key ) {
+            this.path = path;
+            this.key = key;
+        }
+
+    }
+
+    public class Watch implements AutoCloseable {
+
+        private final WatchedDir dir;
+        private final String markerName;
+        private final Runnable listener;
+        // Only accessed by the dispatcher thread
+        private FileTime notifiedModification;
+
+        private Watch( final WatchedDir dir,
+                       final String markerName,
+                       final Runnable listener ) {
+            this.dir = dir;
+            this.markerName = markerName;
+            this.listener = listener;
+        }
+
+        public String getMarkerName() {
+            return markerName;
+        }
+
+        /*
+         * Records the modification time of the marker, returning whether it differs from the one last notified. A
+         * marker that was deleted since it was written does not notify.
+         */
+        private boolean markerChanged() {
+            final FileTime modification;
+            try {
+                modification = Files.getLastModifiedTime( dir.path.resolve( markerName ) );
+            } catch ( final IOException e ) {
+                return false;
+            }
+            if ( modification.equals( notifiedModification ) ) {
+                return false;
+            }
+            notifiedModification = modification;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            cancel( this );
+        }
+
+    }
+
+}
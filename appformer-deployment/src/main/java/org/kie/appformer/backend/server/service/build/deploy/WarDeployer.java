@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Puts wars into a Wildfly deployment scanner directory without ever exposing a missing or partially written
+ * deployment to the scanner.
+ *
+ * In {@link Mode#ARCHIVE} mode the war is hard-linked (or copied, when linking is not possible) to a hidden temporary
+ * file in the deployment directory, which is then atomically renamed over the previous deployment. In
+ * {@link Mode#EXPLODED} mode the war is unpacked into a directory, only rewriting entries whose content changed, and
+ * a {@code .dodeploy} marker is written to trigger the redeployment.
+ */
+public class WarDeployer {
+
+    public enum Mode {
+        ARCHIVE, EXPLODED
+    }
+
+    public static final String DEPLOY_MARKER_SUFFIX = ".dodeploy";
+    public static final String DEPLOYED_MARKER_SUFFIX = ".deployed";
+
+    private final Mode mode;
+
+    public WarDeployer( final Mode mode ) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @param war
+     *            The war to deploy. It must not be modified in place afterwards when it is hard-linked.
+     * @param destination
+     *            The deployment path inside the scanned deployment directory.
+     * @return The number of files that were written. In archive mode this is always one.
+     */
+    public int deploy( final File war, final File destination ) throws IOException {
+        if ( mode == Mode.EXPLODED ) {
+            return deployExploded( war, destination );
+        } else {
+            deployArchive( war, destination );
+            return 1;
+        }
+    }
+
+    /**
+     * Removes the packaged wars of a project, which deployments may be hard-linked to. Must be called before every
+     * build that packages the project, so that the build writes a new file instead of rewriting a deployed one in
+     * place.
+     */
+    public static void detachPackagedWars( final File projectDir ) {
+        final File targetDir = new File( projectDir, "target" );
+        if ( targetDir.isDirectory() ) {
+            for ( final File war : FileUtils.listFiles( targetDir, new String[]{ "war" }, false ) ) {
+                FileUtils.deleteQuietly( war );
+            }
+        }
+    }
+
+    private void deployArchive( final File war, final File destination ) throws IOException {
+        final Path tmp = hiddenTempPath( destination );
+        try {
+            linkOrCopy( war.toPath(), tmp );
+            if ( destination.isDirectory() ) {
+                FileUtils.deleteDirectory( destination );
+            }
+            atomicReplace( tmp, destination.toPath() );
+        } finally {
+            Files.deleteIfExists( tmp );
+        }
+    }
+
+    private int deployExploded( final File war, final File destination ) throws IOException {
+        if ( destination.isFile() ) {
+            Files.delete( destination.toPath() );
+        }
+        final Path root = destination.toPath().toAbsolutePath().normalize();
+        Files.createDirectories( root );
+
+        int written = 0;
+        final Set<Path> entries = new HashSet<>();
+        try ( ZipFile zip = new ZipFile( war ) ) {
+            final Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+            while ( zipEntries.hasMoreElements() ) {
+                final ZipEntry entry = zipEntries.nextElement();
+                final Path target = root.resolve( entry.getName() ).normalize();
+                if ( !target.startsWith( root ) ) {
+                    throw new IOException( "War entry " + entry.getName() + " is outside of the deployment directory." );
+                }
+                entries.add( target );
+
+                if ( entry.isDirectory() ) {
+                    Files.createDirectories( target );
+                } else if ( !hasSameContent( target, entry ) ) {
+                    Files.createDirectories( target.getParent() );
+                    final Path tmp = hiddenTempPath( target.toFile() );
+                    try ( InputStream in = zip.getInputStream( entry ) ) {
+                        Files.copy( in, tmp );
+                        atomicReplace( tmp, target );
+                    } finally {
+                        Files.deleteIfExists( tmp );
+                    }
+                    written++;
+                }
+            }
+        }
+
+        final int removed = removeStaleFiles( root, entries );
+        final File deployedMarker = new File( destination.getParentFile(), destination.getName() + DEPLOYED_MARKER_SUFFIX );
+        if ( written > 0 || removed > 0 || !deployedMarker.exists() ) {
+            FileUtils.touch( new File( destination.getParentFile(), destination.getName() + DEPLOY_MARKER_SUFFIX ) );
+        }
+
+        return written;
+    }
+
+    private static boolean hasSameContent( final Path file, final ZipEntry entry ) throws IOException {
+        if ( !Files.isRegularFile( file ) || entry.getSize() < 0 || Files.size( file ) != entry.getSize() ) {
+            return false;
+        }
+
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[8192];
+        try ( InputStream in = Files.newInputStream( file ) ) {
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 ) {
+                crc.update( buffer, 0, read );
+            }
+        }
+
+        return crc.getValue() == entry.getCrc();
+    }
+
+    private static int removeStaleFiles( final Path root, final Set<Path> entries ) throws IOException {
+        final List<Path> stale;
+        try ( Stream<Path> files = Files.walk( root ) ) {
+            stale = files.filter( path -> !path.equals( root ) && !entries.contains( path ) )
+                         .sorted( Comparator.reverseOrder() )
+                         .collect( Collectors.toList() );
+        }
+
+        int removed = 0;
+        for ( final Path path : stale ) {
+            if ( Files.isDirectory( path ) ) {
+                // Directories are only implied by their entries in some wars, so keep them while they have content.
+                if ( !hasChildren( path ) ) {
+                    Files.delete( path );
+                }
+            } else {
+                Files.delete( path );
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    private static boolean hasChildren( final Path dir ) throws IOException {
+        try ( Stream<Path> children = Files.list( dir ) ) {
+            return children.findAny().isPresent();
+        }
+    }
+
+    private static void linkOrCopy( final Path source, final Path target ) throws IOException {
+        try {
+            Files.createLink( target, source );
+        } catch ( final FileSystemException | UnsupportedOperationException e ) {
+            // Different file stores or no hard link support.
+            Files.deleteIfExists( target );
+            Files.copy( source, target );
+        }
+    }
+
+    private static void atomicReplace( final Path source, final Path target ) throws IOException {
+        try {
+            Files.move( source, target, StandardCopyOption.ATOMIC_MOVE );
+        } catch ( final AtomicMoveNotSupportedException e ) {
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    /*
+     * Dot-prefixed names without an archive extension are ignored by the deployment scanner.
+     */
+    private static Path hiddenTempPath( final File destination ) {
+        return new File( destination.getParentFile(), "." + destination.getName() + "." + UUID.randomUUID() + ".tmp" ).toPath();
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.fingerprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content hashes of the parts of a Maven project, and of the properties it is built with, that determine how much of it
+ * must be rebuilt.
+ */
+public class BuildFingerprint {
+
+    private static final String SEPARATOR = ":";
+
+    private static final String[] SOURCE_ROOTS = { "src/main/java/", "src/main/resources/" };
+
+    /*
+     * Types the GWT compiler generates marshallers or data bindings for, wherever they are.
+     */
+    private static final Pattern CLIENT_TYPE_ANNOTATION = Pattern.compile( "@([\\w$]+\\.)*(Portable|Bindable)\\b" );
+
+    private static final Pattern MODULE_SOURCE_PATH = Pattern.compile( "<(?:super-)?source\\s[^>]*path\\s*=\\s*\"([^\"]*)\"" );
+
+    private final String pom;
+    private final String clientSources;
+    private final String serverSources;
+    private final String resources;
+    private final String buildProperties;
+
+    BuildFingerprint( final String pom,
+                      final String clientSources,
+                      final String serverSources,
+                      final String resources,
+                      final String buildProperties ) {
+        this.pom = pom;
+        this.clientSources = clientSources;
+        this.serverSources = serverSources;
+        this.resources = resources;
+        this.buildProperties = buildProperties;
+    }
+
+    /**
+     * @param buildProperties
+     *            The properties the project is built with, as they change what ends up in its target directory.
+     */
+    public static BuildFingerprint of( final File projectDir, final Properties buildProperties ) throws IOException {
+        final Path root = projectDir.toPath();
+        final MessageDigest pom = newDigest();
+        final MessageDigest client = newDigest();
+        final MessageDigest server = newDigest();
+        final MessageDigest resources = newDigest();
+
+        final Path pomFile = root.resolve( "pom.xml" );
+        if ( Files.isRegularFile( pomFile ) ) {
+            update( pom, "pom.xml", Files.readAllBytes( pomFile ) );
+        }
+
+        final List<Path> files = listSourceFiles( root.resolve( "src" ) );
+        final List<String> clientPaths = getModuleSourcePaths( root, files );
+        for ( final Path file : files ) {
+            final String relative = toRelativePath( root, file );
+            final byte[] content = Files.readAllBytes( file );
+            if ( isClientFile( relative, content, clientPaths ) ) {
+                update( client, relative, content );
+            } else if ( relative.startsWith( "src/main/java/" ) ) {
+                update( server, relative, content );
+            } else {
+                update( resources, relative, content );
+            }
+        }
+
+        final MessageDigest properties = newDigest();
+        for ( final String name : new TreeSet<>( buildProperties.stringPropertyNames() ) ) {
+            update( properties, name, buildProperties.getProperty( name ).getBytes( StandardCharsets.UTF_8 ) );
+        }
+
+        return new BuildFingerprint( toHex( pom ), toHex( client ), toHex( server ), toHex( resources ), toHex( properties ) );
+    }
+
+    public static BuildFingerprint parse( final String serialized ) {
+        final String[] parts = serialized.split( SEPARATOR );
+        if ( parts.length != 5 ) {
+            throw new IllegalArgumentException( "Malformed build fingerprint: " + serialized );
+        }
+
+        return new BuildFingerprint( parts[0], parts[1], parts[2], parts[3], parts[4] );
+    }
+
+    public String serialize() {
+        return getRevision() + SEPARATOR + buildProperties;
+    }
+
+    /**
+     * @return An identifier of the exact source content this fingerprint was taken from, regardless of the build
+     *         properties.
+     */
+    public String getRevision() {
+        return pom + SEPARATOR + clientSources + SEPARATOR + serverSources + SEPARATOR + resources;
+    }
+
+    /**
+     * @return The least expensive build that brings the output of a build with the {@code previous} fingerprint up
+     *         to date with this one. Outputs of a build with other properties, such as one that skipped the GWT
+     *         compiler, cannot be trusted.
+     */
+    public BuildPlan planFrom( final BuildFingerprint previous ) {
+        if ( !pom.equals( previous.pom ) || !buildProperties.equals( previous.buildProperties ) ) {
+            return BuildPlan.CLEAN_PACKAGE;
+        } else if ( !clientSources.equals( previous.clientSources ) ) {
+            return BuildPlan.PACKAGE;
+        } else if ( !serverSources.equals( previous.serverSources ) || !resources.equals( previous.resources ) ) {
+            return BuildPlan.COMPILE;
+        } else {
+            return BuildPlan.SKIP;
+        }
+    }
+
+    /*
+     * Anything the GWT compiler reads: client packages, sources of GWT modules, portable and bindable types, module
+     * descriptors and the Errai marshalling config.
+     */
+    private static boolean isClientFile( final String relativePath,
+                                         final byte[] content,
+                                         final List<String> clientPaths ) {
+        final String path = stripSourceRoot( relativePath );
+        if ( path == null ) {
+            return false;
+        }
+
+        return ( "/" + path ).contains( "/client/" )
+                || path.endsWith( ".gwt.xml" )
+                || path.endsWith( "ErraiApp.properties" )
+                || clientPaths.stream().anyMatch( path::startsWith )
+                || ( path.endsWith( ".java" )
+                        && CLIENT_TYPE_ANNOTATION.matcher( new String( content, StandardCharsets.UTF_8 ) ).find() );
+    }
+
+    /**
+     * @return The package directories, such as {@code org/example/client/}, of the sources of the GWT modules of
+     *         the project.
+     */
+    private static List<String> getModuleSourcePaths( final Path root,
+                                                      final List<Path> files ) throws IOException {
+        final List<String> paths = new ArrayList<>();
+        for ( final Path file : files ) {
+            final String module = stripSourceRoot( toRelativePath( root, file ) );
+            if ( module == null || !module.endsWith( ".gwt.xml" ) ) {
+                continue;
+            }
+
+            final String moduleDir = module.substring( 0, module.lastIndexOf( '/' ) + 1 );
+            final Matcher sources = MODULE_SOURCE_PATH.matcher( new String( Files.readAllBytes( file ),
+                                                                            StandardCharsets.UTF_8 ) );
+            boolean declared = false;
+            while ( sources.find() ) {
+                declared = true;
+                final String sourcePath = sources.group( 1 );
+                paths.add( moduleDir + ( sourcePath.isEmpty() || sourcePath.endsWith( "/" ) ? sourcePath : sourcePath + "/" ) );
+            }
+            if ( !declared ) {
+                paths.add( moduleDir + "client/" );
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * @return The path relative to its source root, or null if the file is not in a main source root.
+     */
+    private static String stripSourceRoot( final String relativePath ) {
+        for ( final String sourceRoot : SOURCE_ROOTS ) {
+            if ( relativePath.startsWith( sourceRoot ) ) {
+                return relativePath.substring( sourceRoot.length() );
+            }
+        }
+
+        return null;
+    }
+
+    private static String toRelativePath( final Path root,
+                                          final Path file ) {
+        return root.relativize( file ).toString().replace( File.separatorChar, '/' );
+    }
+
+    private static List<Path> listSourceFiles( final Path srcDir ) throws IOException {
+        if ( !Files.isDirectory( srcDir ) ) {
+            return Collections.emptyList();
+        }
+
+        try ( Stream<Path> files = Files.walk( srcDir ) ) {
+            return files.filter( Files::isRegularFile ).sorted().collect( Collectors.toList() );
+        }
+    }
+
+    private static void update( final MessageDigest digest, final String relativePath, final byte[] content ) {
+        digest.update( relativePath.getBytes( StandardCharsets.UTF_8 ) );
+        digest.update( (byte) 0 );
+        digest.update( content );
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance( "SHA-256" );
+        } catch ( final NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static String toHex( final MessageDigest digest ) {
+        return String.format( "%064x", new BigInteger( 1, digest.digest() ) );
+    }
+
+    @Override
+    public int hashCode() {
+        return serialize().hashCode();
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        return obj instanceof BuildFingerprint && serialize().equals( ( (BuildFingerprint) obj ).serialize() );
+    }
+
+    @Override
+    public String toString() {
+        return "BuildFingerprint[" + serialize() + "]";
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.fingerprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fingerprints of the last successful build of each project directory, persisted to a properties file so that they
+ * survive server restarts.
+ */
+public class BuildFingerprintStore {
+
+    private static final Logger logger = LoggerFactory.getLogger( BuildFingerprintStore.class );
+
+    private final File storeFile;
+    private final Properties fingerprints = new Properties();
+
+    public BuildFingerprintStore( final File storeFile ) {
+        this.storeFile = storeFile;
+        load();
+    }
+
+    /**
+     * @return The fingerprint of the last successful build, or nothing if none was recorded in the current format.
+     */
+    public synchronized Optional<BuildFingerprint> get( final File projectDir ) {
+        final String serialized = fingerprints.getProperty( projectDir.getAbsolutePath() );
+        if ( serialized == null ) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of( BuildFingerprint.parse( serialized ) );
+        } catch ( final IllegalArgumentException e ) {
+            logger.debug( "Ignoring build fingerprint of " + projectDir + " in an old format." );
+            return Optional.empty();
+        }
+    }
+
+    public synchronized void put( final File projectDir, final BuildFingerprint fingerprint ) {
+        fingerprints.setProperty( projectDir.getAbsolutePath(), fingerprint.serialize() );
+        save();
+    }
+
+    public synchronized void remove( final File projectDir ) {
+        if ( fingerprints.remove( projectDir.getAbsolutePath() ) != null ) {
+            save();
+        }
+    }
+
+    private void load() {
+        if ( !storeFile.isFile() ) {
+            return;
+        }
+
+        try ( InputStream in = Files.newInputStream( storeFile.toPath() ) ) {
+            fingerprints.load( in );
+        } catch ( final IOException | IllegalArgumentException e ) {
+            logger.warn( "Could not read build fingerprints from " + storeFile + ". All projects will be fully rebuilt.", e );
+            fingerprints.clear();
+        }
+    }
+
+    private void save() {
+        try {
+            final Path target = storeFile.toPath();
+            Files.createDirectories( target.getParent() );
+            final Path tmp = Files.createTempFile( target.getParent(), storeFile.getName(), ".tmp" );
+            try ( OutputStream out = Files.newOutputStream( tmp ) ) {
+                fingerprints.store( out, "AppFormer build fingerprints" );
+            }
+            Files.move( tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        } catch ( final IOException e ) {
+            logger.warn( "Could not write build fingerprints to " + storeFile, e );
+        }
+    }
+
+}
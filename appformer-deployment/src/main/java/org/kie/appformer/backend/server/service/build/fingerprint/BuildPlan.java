@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.fingerprint;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The amount of Maven work required to bring a project's target directory up to date with its sources.
+ */
+public enum BuildPlan {
+
+    /**
+     * Nothing changed since the last successful build. Only the cheapest lifecycle phase is run so that the
+     * existing war in the target directory is picked up as is.
+     */
+    SKIP( true, "validate" ),
+
+    /**
+     * Only server-side sources or resources changed. Classes are recompiled and the war is repackaged on top of
+     * the previously compiled GWT output.
+     */
+    COMPILE( true, "compile", "war:war" ),
+
+    /**
+     * Client-side sources changed, so the GWT compiler has to run again.
+     */
+    PACKAGE( false, "package" ),
+
+    /**
+     * The POM changed or there is no usable previous build, so nothing in the target directory can be trusted.
+     */
+    CLEAN_PACKAGE( false, "clean", "package" );
+
+    public static final String GWT_COMPILER_SKIP = "gwt.compiler.skip";
+
+    private final boolean skipGwtCompile;
+    private final List<String> goals;
+
+    private BuildPlan( final boolean skipGwtCompile, final String... goals ) {
+        this.skipGwtCompile = skipGwtCompile;
+        this.goals = Collections.unmodifiableList( Arrays.asList( goals ) );
+    }
+
+    public List<String> getGoals() {
+        return goals;
+    }
+
+    public boolean isGwtCompileSkipped() {
+        return skipGwtCompile;
+    }
+
+    /**
+     * Adds the properties required by this plan to the given build properties.
+     */
+    public Properties applyTo( final Properties properties ) {
+        if ( skipGwtCompile ) {
+            properties.setProperty( GWT_COMPILER_SKIP, "true" );
+        }
+
+        return properties;
+    }
+
+}
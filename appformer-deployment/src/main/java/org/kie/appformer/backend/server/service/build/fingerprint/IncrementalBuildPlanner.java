@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.fingerprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.guvnor.ala.build.Project;
+import org.guvnor.ala.config.ProjectConfig;
+import org.kie.appformer.backend.server.service.build.cache.WarArtifactCache;
+import org.kie.appformer.backend.server.service.build.cache.WarCacheKey;
+import org.kie.appformer.backend.server.service.build.deploy.WarDeployer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides how much of a project has to be rebuilt by comparing the fingerprint of its sources and build properties with
+ * the fingerprint recorded after the last successful build in the same directory. When anything would have to be rebuilt, a war
+ * built elsewhere from identical sources and build properties is restored from the {@link WarArtifactCache} instead.
+ *
+ * A fingerprint is only recorded once {@link #buildSucceeded(File)} is called for the directory that was planned,
+ * so a failed or interrupted build is always followed by a full one.
+ */
+@ApplicationScoped
+public class IncrementalBuildPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger( IncrementalBuildPlanner.class );
+    private static final String FINGERPRINT_STORE_PROPERTY = "appformer.build_fingerprints";
+
+    private final Map<File, PendingBuild> pendingBuilds = new ConcurrentHashMap<>();
+    private BuildFingerprintStore store;
+    private WarArtifactCache warCache;
+
+    public IncrementalBuildPlanner() {
+    }
+
+    @Inject
+    public IncrementalBuildPlanner( final WarArtifactCache warCache ) {
+        this.warCache = warCache;
+    }
+
+    IncrementalBuildPlanner( final BuildFingerprintStore store, final WarArtifactCache warCache ) {
+        this.store = store;
+        this.warCache = warCache;
+    }
+
+    @PostConstruct
+    private void setup() {
+        final String storePath = System.getProperty( FINGERPRINT_STORE_PROPERTY );
+        final File storeFile = ( storePath == null || storePath.isEmpty() )
+                ? new File( System.getProperty( "user.home" ), ".appformer/build-fingerprints.properties" )
+                : new File( storePath );
+
+        store = new BuildFingerprintStore( storeFile );
+    }
+
+    /**
+     * Plans the build of the project produced by a "Maven Project" pipeline stage.
+     */
+    public BuildPlan plan( final ProjectConfig projectConfig, final Properties buildProperties ) {
+        if ( projectConfig instanceof Project && ( (Project) projectConfig ).getTempDir() != null ) {
+            final Project project = (Project) projectConfig;
+            return plan( project.getName(), new File( project.getTempDir() ), buildProperties );
+        } else {
+            return BuildPlan.CLEAN_PACKAGE;
+        }
+    }
+
+    /**
+     * @param projectName
+     *            Identifies the project in war cache keys.
+     * @param dir
+     *            The project directory, or a directory whose immediate child is the project directory.
+     * @param buildProperties
+     *            The properties the build will be run with, not including any added by the returned plan.
+     */
+    public BuildPlan plan( final String projectName, final File dir, final Properties buildProperties ) {
+        final Optional<File> projectDir = findProjectDir( dir );
+        if ( !projectDir.isPresent() ) {
+            return BuildPlan.CLEAN_PACKAGE;
+        }
+
+        final BuildFingerprint current;
+        try {
+            current = BuildFingerprint.of( projectDir.get(), buildProperties );
+        } catch ( final IOException e ) {
+            logger.warn( "Unable to fingerprint " + projectDir.get() + ". Falling back to a full build.", e );
+            return BuildPlan.CLEAN_PACKAGE;
+        }
+        final WarCacheKey cacheKey = new WarCacheKey( projectName, current.getRevision(), buildProperties );
+
+        BuildPlan plan = store.get( projectDir.get() )
+                              .filter( previous -> hasPackagedWar( projectDir.get() ) )
+                              .map( previous -> current.planFrom( previous ) )
+                              .orElse( BuildPlan.CLEAN_PACKAGE );
+        boolean restored = false;
+        if ( plan != BuildPlan.SKIP ) {
+            if ( restoreFromCache( projectDir.get(), cacheKey ) ) {
+                plan = BuildPlan.SKIP;
+                restored = true;
+            } else {
+                WarDeployer.detachPackagedWars( projectDir.get() );
+            }
+        }
+        pendingBuilds.put( projectDir.get(), new PendingBuild( current, cacheKey, restored ) );
+        logger.info( "Planned " + plan + " build for " + projectDir.get() + ( restored ? " using a cached war" : "" ) );
+
+        return plan;
+    }
+
+    public void buildSucceeded( final File dir ) {
+        findProjectDir( dir ).ifPresent( projectDir -> {
+            final PendingBuild build = pendingBuilds.remove( projectDir );
+            if ( build != null && !build.restored ) {
+                store.put( projectDir, build.fingerprint );
+                final Collection<File> wars = getPackagedWars( projectDir );
+                if ( wars.size() == 1 ) {
+                    warCache.put( build.cacheKey, wars.iterator().next() );
+                }
+            }
+        } );
+    }
+
+    public void buildFailed( final File dir ) {
+        findProjectDir( dir ).ifPresent( projectDir -> {
+            pendingBuilds.remove( projectDir );
+            store.remove( projectDir );
+        } );
+    }
+
+    /*
+     * Only the war is restored, so the rest of the target directory no longer matches any recorded fingerprint.
+     */
+    private boolean restoreFromCache( final File projectDir, final WarCacheKey cacheKey ) {
+        final Optional<File> cachedWar = warCache.get( cacheKey );
+        if ( !cachedWar.isPresent() ) {
+            return false;
+        }
+
+        try {
+            final File targetDir = new File( projectDir, "target" );
+            for ( final File war : getPackagedWars( projectDir ) ) {
+                FileUtils.forceDelete( war );
+            }
+            FileUtils.copyFile( cachedWar.get(), new File( targetDir, cachedWar.get().getName() ) );
+            store.remove( projectDir );
+            return true;
+        } catch ( final IOException e ) {
+            logger.warn( "Unable to restore cached war " + cachedWar.get() + " into " + projectDir, e );
+            return false;
+        }
+    }
+
+    private static Optional<File> findProjectDir( final File dir ) {
+        if ( new File( dir, "pom.xml" ).isFile() ) {
+            return Optional.of( dir.getAbsoluteFile() );
+        }
+
+        final File[] children = dir.listFiles( child -> new File( child, "pom.xml" ).isFile() );
+        if ( children != null && children.length == 1 ) {
+            return Optional.of( children[0].getAbsoluteFile() );
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean hasPackagedWar( final File projectDir ) {
+        return !getPackagedWars( projectDir ).isEmpty();
+    }
+
+    private static Collection<File> getPackagedWars( final File projectDir ) {
+        final File targetDir = new File( projectDir, "target" );
+        if ( targetDir.isDirectory() ) {
+            return FileUtils.listFiles( targetDir, new String[]{ "war" }, false );
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class PendingBuild {
+
+        private final BuildFingerprint fingerprint;
+        private final WarCacheKey cacheKey;
+        private final boolean restored;
+
+        private PendingBuild( final BuildFingerprint fingerprint,
+                              final WarCacheKey cacheKey,
+                              final boolean restored ) {
+            this.fingerprint = fingerprint;
+            this.cacheKey = cacheKey;
+            this.restored = restored;
+        }
+
+    }
+
+}
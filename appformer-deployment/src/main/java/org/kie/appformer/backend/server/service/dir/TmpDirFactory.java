@@ -19,39 +19,41 @@ import java.io.File;
 import java.io.IOException;
 
 import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
 import javax.servlet.http.HttpSession;
 
 import org.guvnor.common.services.project.model.Project;
 
+/**
+ * Hands each HTTP session a {@link Workspace} per project and branch. The workspace is held until the session ends, and
+ * is then kept warm by the {@link WorkspaceManager} for later sessions.
+ */
 @Dependent
 public class TmpDirFactory {
 
-    private static final String TMP_DIR_HANDLE_SESSION_ATTR_KEY = TmpDirHandle.class.getCanonicalName();
-
-    public File getTmpDir( final Project project, final HttpSession session ) throws IOException {
-        TmpDirHandle handle = (TmpDirHandle) session.getAttribute( TMP_DIR_HANDLE_SESSION_ATTR_KEY );
+    private static final String WORKSPACE_SESSION_ATTR_PREFIX = Workspace.class.getCanonicalName() + "-";
 
-        if (handle == null) {
-            handle = createNewDirAndHandle( project, session );
-            session.setAttribute( TMP_DIR_HANDLE_SESSION_ATTR_KEY, handle );
-        }
+    private final WorkspaceManager workspaceManager;
 
-        return handle.getFile();
+    @Inject
+    public TmpDirFactory( final WorkspaceManager workspaceManager ) {
+        this.workspaceManager = workspaceManager;
     }
 
-    private TmpDirHandle createNewDirAndHandle( final Project project, final HttpSession session ) throws IOException {
-        final File tmpDir = createTmpProjectDir( project, session );
-        final TmpDirHandle handle = new TmpDirHandle( tmpDir );
-
-        return handle;
+    public File getTmpDir( final Project project, final HttpSession session ) throws IOException {
+        return getWorkspace( WorkspaceKey.of( project ), session ).getDir();
     }
 
-    private File createTmpProjectDir( final Project project, final HttpSession session ) throws IOException {
-        final File tmpDir = File.createTempFile( project.getProjectName() + session.getId(), "" );
-        tmpDir.delete();
-        tmpDir.mkdir();
+    public Workspace getWorkspace( final WorkspaceKey key, final HttpSession session ) throws IOException {
+        final String attribute = WORKSPACE_SESSION_ATTR_PREFIX + key;
+        Workspace workspace = (Workspace) session.getAttribute( attribute );
+
+        if ( workspace == null ) {
+            workspace = workspaceManager.acquire( key );
+            session.setAttribute( attribute, workspace );
+        }
 
-        return tmpDir;
+        return workspace;
     }
 
 }
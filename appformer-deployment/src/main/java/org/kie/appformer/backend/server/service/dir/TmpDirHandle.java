@@ -1,49 +0,0 @@
-/*
- * Copyright 2015 JBoss Inc
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *       http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package org.kie.appformer.backend.server.service.dir;
-
-import java.io.File;
-
-import javax.servlet.http.HttpSessionBindingEvent;
-import javax.servlet.http.HttpSessionBindingListener;
-
-import org.uberfire.java.nio.file.Files;
-import org.uberfire.java.nio.file.Paths;
-import org.uberfire.java.nio.file.StandardDeleteOption;
-
-public class TmpDirHandle implements HttpSessionBindingListener {
-
-    private final File tmpDir;
-
-    public TmpDirHandle(final File tmpDir) {
-        this.tmpDir = tmpDir;
-    }
-
-    public File getFile() {
-        return tmpDir;
-    }
-
-    @Override
-    public void valueBound( HttpSessionBindingEvent event ) {
-        tmpDir.mkdir();
-    }
-
-    @Override
-    public void valueUnbound( HttpSessionBindingEvent event ) {
-        Files.deleteIfExists( Paths.get( tmpDir.toURI() ), StandardDeleteOption.NON_EMPTY_DIRECTORIES );
-    }
-
-}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.dir;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+
+/**
+ * An exclusive lease on a workspace directory managed by the {@link WorkspaceManager}. The directory is kept, warm,
+ * for later users of the same project and branch after the lease is released or unbound from its session.
+ */
+public class Workspace implements HttpSessionBindingListener {
+
+    private final WorkspaceKey key;
+    private final File dir;
+    private final Consumer<Workspace> onRelease;
+    private boolean released;
+
+    Workspace( final WorkspaceKey key,
+               final File dir,
+               final Consumer<Workspace> onRelease ) {
+        this.key = key;
+        this.dir = dir;
+        this.onRelease = onRelease;
+    }
+
+    public WorkspaceKey getKey() {
+        return key;
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    public synchronized void release() {
+        if ( !released ) {
+            released = true;
+            onRelease.accept( this );
+        }
+    }
+
+    @Override
+    public void valueBound( final HttpSessionBindingEvent event ) {
+    }
+
+    @Override
+    public void valueUnbound( final HttpSessionBindingEvent event ) {
+        release();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.dir;
+
+import java.util.Objects;
+
+import org.guvnor.common.services.project.model.Project;
+
+/**
+ * Identifies the project and branch checked out in a workspace.
+ */
+public class WorkspaceKey {
+
+    private final String project;
+    private final String branch;
+
+    public WorkspaceKey( final String project, final String branch ) {
+        this.project = Objects.requireNonNull( project );
+        this.branch = branch == null ? "" : branch;
+    }
+
+    public static WorkspaceKey of( final Project project ) {
+        return new WorkspaceKey( project.getProjectName(), getBranch( project ) );
+    }
+
+    /*
+     * Project root URIs have the form scheme://branch@repository/path.
+     */
+    private static String getBranch( final Project project ) {
+        if ( project.getRootPath() == null ) {
+            return null;
+        }
+
+        final String uri = project.getRootPath().toURI();
+        final int start = uri.indexOf( "://" );
+        final int end = uri.indexOf( '@' );
+        if ( start >= 0 && end > start ) {
+            return uri.substring( start + 3, end );
+        } else {
+            return null;
+        }
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * @return A name for the workspace directory that only contains file name safe characters.
+     */
+    String getDirectoryName() {
+        final String name = branch.isEmpty() ? project : project + "-" + branch;
+        return name.replaceAll( "[^A-Za-z0-9._-]", "_" );
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof WorkspaceKey ) ) {
+            return false;
+        }
+        final WorkspaceKey other = (WorkspaceKey) obj;
+        return project.equals( other.project ) && branch.equals( other.branch );
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * project.hashCode() + branch.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return branch.isEmpty() ? project : project + "@" + branch;
+    }
+
+}
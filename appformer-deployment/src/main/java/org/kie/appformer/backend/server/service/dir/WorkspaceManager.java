@@ -0,0 +1,324 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.dir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manages the directories that projects are built in.
+ *
+ * Workspaces live under {@code appformer.workspaces.dir} and are leased exclusively. A released workspace stays warm
+ * and is handed to the next build of the same project and branch, whichever session it comes from, so that build can
+ * reuse the previous target outputs. Idle workspaces are evicted, least recently used first, while the workspaces use
+ * more than {@code appformer.workspaces.max_size_mb} (10GB by default), and once they have been idle for
+ * {@code appformer.workspaces.max_idle_hours} (a week by default). Directories left behind by a previous run that are
+ * not known workspaces are deleted on startup.
+ */
+@ApplicationScoped
+public class WorkspaceManager {
+
+    private static final Logger logger = LoggerFactory.getLogger( WorkspaceManager.class );
+
+    private static final String DIR_PROPERTY = "appformer.workspaces.dir";
+    private static final String MAX_SIZE_PROPERTY = "appformer.workspaces.max_size_mb";
+    private static final String MAX_IDLE_PROPERTY = "appformer.workspaces.max_idle_hours";
+    private static final long DEFAULT_MAX_SIZE_MB = 10240;
+    private static final long DEFAULT_MAX_IDLE_HOURS = 168;
+
+    static final String MARKER_SUFFIX = ".workspace";
+    private static final String PROJECT_KEY = "project";
+    private static final String BRANCH_KEY = "branch";
+    private static final String LAST_USED_KEY = "lastUsed";
+
+    private final Map<File, Entry> entries = new HashMap<>();
+    private File root;
+    private long maxSizeBytes;
+    private long maxIdleMillis;
+    private LongSupplier clock;
+
+    public WorkspaceManager() {
+    }
+
+    WorkspaceManager( final File root,
+                      final long maxSizeBytes,
+                      final long maxIdleMillis,
+                      final LongSupplier clock ) {
+        init( root, maxSizeBytes, maxIdleMillis, clock );
+    }
+
+    @PostConstruct
+    private void setup() {
+        init( new File( System.getProperty( DIR_PROPERTY, new File( System.getProperty( "java.io.tmpdir" ), "appformer-workspaces" ).getPath() ) ),
+              Long.getLong( MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE_MB ) * 1024 * 1024,
+              TimeUnit.HOURS.toMillis( Long.getLong( MAX_IDLE_PROPERTY, DEFAULT_MAX_IDLE_HOURS ) ),
+              System::currentTimeMillis );
+    }
+
+    private void init( final File root,
+                       final long maxSizeBytes,
+                       final long maxIdleMillis,
+                       final LongSupplier clock ) {
+        this.root = root;
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxIdleMillis = maxIdleMillis;
+        this.clock = clock;
+        root.mkdirs();
+        sweep();
+        evict();
+    }
+
+    /**
+     * Leases the most recently used idle workspace for the given key, or a new one if all of them are in use.
+     */
+    public Workspace acquire( final WorkspaceKey key ) throws IOException {
+        final Workspace workspace;
+        synchronized ( this ) {
+            final Optional<Entry> warm = entries.values()
+                    .stream()
+                    .filter( entry -> entry.key.equals( key ) && !entry.leased )
+                    .max( Comparator.comparingLong( entry -> entry.lastUsed ) );
+            if ( warm.isPresent() ) {
+                warm.get().leased = true;
+                logger.debug( "Reusing workspace " + warm.get().dir + " for " + key );
+                return new Workspace( key, warm.get().dir, this::release );
+            }
+
+            final File dir = new File( root, key.getDirectoryName() + "-" + UUID.randomUUID().toString().substring( 0, 8 ) );
+            final Entry entry = new Entry( key, dir );
+            entry.leased = true;
+            entry.lastUsed = clock.getAsLong();
+            entries.put( dir, entry );
+            workspace = new Workspace( key, dir, this::release );
+        }
+
+        try {
+            Files.createDirectories( workspace.getDir().toPath() );
+            writeMarker( workspace.getDir(), key, clock.getAsLong() );
+        } catch ( final IOException e ) {
+            discard( workspace.getDir() );
+            throw e;
+        }
+        logger.info( "Created workspace " + workspace.getDir() + " for " + key );
+        evict();
+
+        return workspace;
+    }
+
+    /**
+     * @return The total size in bytes of all workspaces, as of when each was last released.
+     */
+    public synchronized long getTotalSize() {
+        return entries.values().stream().mapToLong( entry -> entry.size ).sum();
+    }
+
+    public synchronized int getWorkspaceCount() {
+        return entries.size();
+    }
+
+    private void release( final Workspace workspace ) {
+        final File dir = workspace.getDir();
+        final long size = sizeOf( dir );
+        final long now = clock.getAsLong();
+        synchronized ( this ) {
+            final Entry entry = entries.get( dir );
+            if ( entry == null ) {
+                return;
+            }
+            entry.leased = false;
+            entry.lastUsed = now;
+            entry.size = size;
+        }
+        try {
+            writeMarker( dir, workspace.getKey(), now );
+        } catch ( final IOException e ) {
+            logger.warn( "Unable to record use of workspace " + dir, e );
+        }
+        evict();
+    }
+
+    /**
+     * Deletes idle workspaces, least recently used first, while the total size is over quota, as well as any that have
+     * been idle for too long.
+     */
+    void evict() {
+        final List<File> evicted = new ArrayList<>();
+        synchronized ( this ) {
+            final long now = clock.getAsLong();
+            final List<Entry> idle = entries.values()
+                    .stream()
+                    .filter( entry -> !entry.leased )
+                    .sorted( Comparator.comparingLong( entry -> entry.lastUsed ) )
+                    .collect( Collectors.toList() );
+            long total = getTotalSize();
+            for ( final Entry entry : idle ) {
+                if ( total > maxSizeBytes || now - entry.lastUsed >= maxIdleMillis ) {
+                    entries.remove( entry.dir );
+                    evicted.add( entry.dir );
+                    total -= entry.size;
+                }
+            }
+        }
+
+        for ( final File dir : evicted ) {
+            logger.info( "Evicting workspace " + dir );
+            discard( dir );
+        }
+    }
+
+    /*
+     * The marker is deleted first so that a workspace that is only partially deleted is swept up on the next startup.
+     */
+    private void discard( final File dir ) {
+        synchronized ( this ) {
+            entries.remove( dir );
+        }
+        FileUtils.deleteQuietly( markerFor( dir ) );
+        FileUtils.deleteQuietly( dir );
+    }
+
+    /**
+     * Loads the workspaces of a previous run as idle, and deletes everything else under the workspace root.
+     */
+    private synchronized void sweep() {
+        final File[] children = root.listFiles();
+        if ( children == null ) {
+            return;
+        }
+
+        for ( final File child : children ) {
+            if ( child.isDirectory() ) {
+                final Optional<Entry> entry = readMarker( child );
+                if ( entry.isPresent() ) {
+                    entry.get().size = sizeOf( child );
+                    entries.put( child, entry.get() );
+                } else {
+                    logger.info( "Deleting orphaned workspace " + child );
+                    FileUtils.deleteQuietly( child );
+                }
+            } else if ( !child.getName().endsWith( MARKER_SUFFIX )
+                    || !new File( root, child.getName().substring( 0, child.getName().length() - MARKER_SUFFIX.length() ) ).isDirectory() ) {
+                FileUtils.deleteQuietly( child );
+            }
+        }
+    }
+
+    private static File markerFor( final File dir ) {
+        return new File( dir.getParentFile(), dir.getName() + MARKER_SUFFIX );
+    }
+
+    private static void writeMarker( final File dir,
+                                     final WorkspaceKey key,
+                                     final long lastUsed ) throws IOException {
+        final Properties marker = new Properties();
+        marker.setProperty( PROJECT_KEY, key.getProject() );
+        marker.setProperty( BRANCH_KEY, key.getBranch() );
+        marker.setProperty( LAST_USED_KEY, Long.toString( lastUsed ) );
+        try ( OutputStream out = new FileOutputStream( markerFor( dir ) ) ) {
+            marker.store( out, null );
+        }
+    }
+
+    private static Optional<Entry> readMarker( final File dir ) {
+        final File markerFile = markerFor( dir );
+        if ( !markerFile.isFile() ) {
+            return Optional.empty();
+        }
+
+        final Properties marker = new Properties();
+        try ( InputStream in = new FileInputStream( markerFile ) ) {
+            marker.load( in );
+            final String project = marker.getProperty( PROJECT_KEY );
+            if ( project == null ) {
+                return Optional.empty();
+            }
+            final Entry entry = new Entry( new WorkspaceKey( project, marker.getProperty( BRANCH_KEY ) ), dir );
+            entry.lastUsed = Long.parseLong( marker.getProperty( LAST_USED_KEY, "0" ) );
+            return Optional.of( entry );
+        } catch ( final IOException | NumberFormatException e ) {
+            logger.warn( "Unable to read workspace marker " + markerFile, e );
+            return Optional.empty();
+        }
+    }
+
+    static long sizeOf( final File dir ) {
+        final AtomicLong size = new AtomicLong();
+        try {
+            Files.walkFileTree( dir.toPath(), new SimpleFileVisitor<Path>() {
+
+                @Override
+                public FileVisitResult visitFile( final Path file, final BasicFileAttributes attrs ) {
+                    size.addAndGet( attrs.size() );
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed( final Path file, final IOException exc ) {
+                    return FileVisitResult.CONTINUE;
+                }
+            } );
+        } catch ( final IOException e ) {
+            logger.warn( "Unable to determine the size of workspace " + dir, e );
+        }
+
+        return size.get();
+    }
+
+    private static class Entry {
+
+        private final WorkspaceKey key;
+        private final File dir;
+        private boolean leased;
+        private long lastUsed;
+        private long size;
+
+        private Entry( final WorkspaceKey key, final File dir ) {
+            this.key = key;
+            this.dir = dir;
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.job;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.guvnor.ala.pipeline.events.AfterStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.BeforeStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.OnErrorStageExecutionEvent;
+import org.jboss.errai.bus.client.api.base.MessageBuilder;
+import org.jboss.errai.bus.server.api.ServerMessageBus;
+import org.jboss.errai.common.client.protocols.MessageParts;
+import org.kie.appformer.client.shared.AppReady;
+import org.kie.appformer.client.shared.BuildFinished;
+import org.kie.appformer.client.shared.BuildProgress;
+import org.kie.appformer.client.shared.BuildProgress.Status;
+
+/**
+ * Reports the {@link BuildProgress} and {@link BuildFinished outcome} of {@link BuildJob BuildJobs} to the bus session
+ * that queued them. Stage transitions are taken from the pipeline events fired while a job runs.
+ */
+@ApplicationScoped
+public class BuildEventPublisher {
+
+    private ServerMessageBus bus;
+
+    // For proxying
+    public BuildEventPublisher() {
+    }
+
+    @Inject
+    public BuildEventPublisher( final ServerMessageBus bus ) {
+        this.bus = bus;
+    }
+
+    public void queued( final BuildJob job ) {
+        progress( job, null, Status.QUEUED );
+    }
+
+    public void started( final BuildJob job ) {
+        progress( job, null, Status.STARTED );
+    }
+
+    /**
+     * @param appReady
+     *            The deployed app, or null if the build did not deploy one.
+     */
+    public void finished( final BuildJob job, final AppReady appReady ) {
+        send( job, BuildFinished.SUBJECT, BuildFinished.PART, new BuildFinished( job.getId(), appReady, null ) );
+    }
+
+    public void failed( final BuildJob job, final Throwable error ) {
+        final String message = ( error.getMessage() != null ) ? error.getMessage() : error.getClass().getSimpleName();
+        send( job, BuildFinished.SUBJECT, BuildFinished.PART, new BuildFinished( job.getId(), null, message ) );
+    }
+
+    public void beforeStage( @Observes final BeforeStageExecutionEvent event ) {
+        BuildJob.current().ifPresent( job -> progress( job, event.getStage().getName(), Status.STAGE_STARTED ) );
+    }
+
+    public void afterStage( @Observes final AfterStageExecutionEvent event ) {
+        BuildJob.current().ifPresent( job -> progress( job, event.getStage().getName(), Status.STAGE_COMPLETED ) );
+    }
+
+    public void onStageError( @Observes final OnErrorStageExecutionEvent event ) {
+        BuildJob.current().ifPresent( job -> progress( job, event.getStage().getName(), Status.STAGE_FAILED ) );
+    }
+
+    private void progress( final BuildJob job, final String stage, final Status status ) {
+        send( job, BuildProgress.SUBJECT, BuildProgress.PART, new BuildProgress( job.getId(), job.getPipeline(), stage, status ) );
+    }
+
+    private void send( final BuildJob job, final String subject, final String part, final Object value ) {
+        if ( job.getQueueSessionId() == null ) {
+            return;
+        }
+
+        MessageBuilder.createMessage()
+                .toSubject( subject )
+                .signalling()
+                .with( MessageParts.SessionID, job.getQueueSessionId() )
+                .with( part, value )
+                .noErrorHandling()
+                .sendNowWith( bus );
+    }
+
+}
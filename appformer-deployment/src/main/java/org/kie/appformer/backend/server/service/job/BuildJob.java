@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.job;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.servlet.http.HttpSession;
+
+/**
+ * A build requested by a client. Jobs run on worker threads, so they carry the sessions of the request that queued them
+ * and are available to the code running them through {@link #current()}. Pipelines receive the ID of their job as the
+ * {@value #BUILD_ID_INPUT} input.
+ */
+public class BuildJob {
+
+    public static final String BUILD_ID_INPUT = "build-id";
+
+    private static final ThreadLocal<BuildJob> current = new ThreadLocal<>();
+
+    private final String id = UUID.randomUUID().toString();
+    private final long queuedAt = System.nanoTime();
+    private final String projectName;
+    private final String pipeline;
+    private final String branch;
+    private final HttpSession session;
+    private final String queueSessionId;
+    private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+    private volatile File workspace;
+
+    /**
+     * @param branch
+     *            The branch being built, which code servers are shared by, or null.
+     * @param session
+     *            The HTTP session that keeps the workspace and code server of the build, or null.
+     * @param queueSessionId
+     *            The bus session that progress is reported to, or null.
+     */
+    public BuildJob( final String projectName,
+                     final String pipeline,
+                     final String branch,
+                     final HttpSession session,
+                     final String queueSessionId ) {
+        this.projectName = projectName;
+        this.pipeline = pipeline;
+        this.branch = branch;
+        this.session = session;
+        this.queueSessionId = queueSessionId;
+    }
+
+    /**
+     * @return The job being run by the calling thread, if any.
+     */
+    public static Optional<BuildJob> current() {
+        return Optional.ofNullable( current.get() );
+    }
+
+    /**
+     * @return An executor that runs tasks as the job that was current when they were submitted.
+     */
+    public static Executor contextual( final Executor executor ) {
+        return task -> {
+            final Optional<BuildJob> job = current();
+            executor.execute( job.isPresent() ? () -> job.get().runAs( task ) : task );
+        };
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} at which the job was queued.
+     */
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public String getPipeline() {
+        return pipeline;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public HttpSession getSession() {
+        return session;
+    }
+
+    public String getQueueSessionId() {
+        return queueSessionId;
+    }
+
+    /**
+     * @return The directory the job builds in, or null until the code running the job has acquired it.
+     */
+    public File getWorkspace() {
+        return workspace;
+    }
+
+    public void setWorkspace( final File workspace ) {
+        this.workspace = workspace;
+    }
+
+    /**
+     * @return Completed by the code running the job once it has finished, or exceptionally with the reason it failed.
+     */
+    public CompletableFuture<Void> getOutcome() {
+        return outcome;
+    }
+
+    /*
+     * Builds of a project from the same session share a workspace, so they must not overlap.
+     */
+    String getQueueKey() {
+        return ( session != null ? session.getId() : "" ) + "/" + projectName;
+    }
+
+    /**
+     * Runs work on the calling thread as this job.
+     */
+    public void runAs( final Runnable work ) {
+        final BuildJob previous = current.get();
+        current.set( this );
+        try {
+            work.run();
+        } finally {
+            if ( previous == null ) {
+                current.remove();
+            } else {
+                current.set( previous );
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "build " + id + " of " + projectName;
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.job;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs {@link BuildJob BuildJobs} on an executor instead of the thread requesting them. Jobs building the same project
+ * for the same session run one after another in the order they were submitted; all other jobs run concurrently.
+ */
+public class BuildJobQueue {
+
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public BuildJobQueue( final Executor executor ) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return Completes once the work has run, or exceptionally if it could not be scheduled. Failures of the work
+     *         itself are not reported.
+     */
+    public CompletableFuture<Void> submit( final BuildJob job, final Runnable work ) {
+        final String key = job.getQueueKey();
+        final CompletableFuture<Void> scheduled = tails.compute( key, ( k, tail ) -> {
+            final CompletableFuture<Void> previous = ( tail != null ) ? tail : CompletableFuture.completedFuture( null );
+            return previous.handle( ( result, error ) -> null )
+                    .thenRunAsync( () -> job.runAs( work ), executor );
+        } );
+        scheduled.whenComplete( ( result, error ) -> tails.remove( key, scheduled ) );
+
+        return scheduled;
+    }
+
+    /**
+     * @return The number of projects and sessions with queued or running jobs.
+     */
+    public int getActiveQueueCount() {
+        return tails.size();
+    }
+
+}
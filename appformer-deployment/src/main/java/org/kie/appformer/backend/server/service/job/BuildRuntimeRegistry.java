@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.job;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.guvnor.ala.runtime.Runtime;
+
+/**
+ * Indexes the runtimes deployed by builds by the ID of the {@link BuildJob} that deployed them, so each build reports
+ * its own app no matter how many others run at the same time. Only the runtimes of the last
+ * {@code appformer.builds.max_recorded_runtimes} builds (100 by default) are kept.
+ */
+@ApplicationScoped
+public class BuildRuntimeRegistry {
+
+    private static final String MAX_RECORDED_RUNTIMES_PROPERTY = "appformer.builds.max_recorded_runtimes";
+    private static final int DEFAULT_MAX_RECORDED_RUNTIMES = 100;
+
+    private final Map<String, Runtime> runtimes;
+
+    public BuildRuntimeRegistry() {
+        this( Integer.getInteger( MAX_RECORDED_RUNTIMES_PROPERTY, DEFAULT_MAX_RECORDED_RUNTIMES ) );
+    }
+
+    BuildRuntimeRegistry( final int maxRecordedRuntimes ) {
+        this.runtimes = Collections.synchronizedMap( new LinkedHashMap<String, Runtime>() {
+
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<String, Runtime> eldest ) {
+                return size() > maxRecordedRuntimes;
+            }
+        } );
+    }
+
+    public void register( final String buildId, final Runtime runtime ) {
+        runtimes.put( buildId, runtime );
+    }
+
+    public Optional<Runtime> getRuntime( final String buildId ) {
+        return Optional.ofNullable( runtimes.get( buildId ) );
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import org.guvnor.ala.pipeline.events.AfterPipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.AfterStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.BeforePipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.BeforeStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.OnErrorPipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.OnErrorStageExecutionEvent;
+import org.kie.appformer.backend.server.service.pipeline.StageTimingListener;
+import org.kie.appformer.client.shared.PipelineStatistics;
+import org.kie.appformer.client.shared.TimingStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the wall time and outcome of every pipeline and each of its stages from the events fired by the
+ * {@link org.kie.appformer.backend.server.service.CDIPipelineEventListener}, along with how long builds waited between
+ * being requested ({@link #markQueued()}) and their pipeline starting. Percentiles are kept over the last
+ * {@value #WINDOW_SIZE} samples of each timer. Stages of pipeline graphs are recorded with the run time measured by the
+ * {@link org.kie.appformer.backend.server.service.pipeline.PipelineGraphExecutor}.
+ *
+ * Pipelines execute on the thread that started them, so executions are tracked per thread.
+ */
+@ApplicationScoped
+public class PipelineMetrics implements StageTimingListener {
+
+    private static final Logger logger = LoggerFactory.getLogger( PipelineMetrics.class );
+
+    static final int WINDOW_SIZE = 500;
+
+    private final Map<String, PipelineTimers> pipelines = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> queuedAt = new ThreadLocal<>();
+    private final ThreadLocal<Execution> currentExecution = new ThreadLocal<>();
+    private final LongSupplier nanoClock;
+
+    public PipelineMetrics() {
+        this( System::nanoTime );
+    }
+
+    PipelineMetrics( final LongSupplier nanoClock ) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Marks that the calling thread is about to wait for a pipeline to start, such as while its workspace is prepared.
+     */
+    public void markQueued() {
+        queuedAt.set( nanoClock.getAsLong() );
+    }
+
+    /**
+     * Like {@link #markQueued()}, for builds that were queued earlier, such as on another thread.
+     *
+     * @param since
+     *            The {@link System#nanoTime()} at which the build was queued.
+     */
+    public void markQueued( final long since ) {
+        queuedAt.set( since );
+    }
+
+    public void beforePipeline( @Observes final BeforePipelineExecutionEvent event ) {
+        pipelineStarted( event.getPipeline().getName() );
+    }
+
+    public void afterPipeline( @Observes final AfterPipelineExecutionEvent event ) {
+        pipelineFinished( true );
+    }
+
+    public void onPipelineError( @Observes final OnErrorPipelineExecutionEvent event ) {
+        pipelineFinished( false );
+    }
+
+    public void beforeStage( @Observes final BeforeStageExecutionEvent event ) {
+        stageStarted( event.getStage().getName() );
+    }
+
+    public void afterStage( @Observes final AfterStageExecutionEvent event ) {
+        stageFinished( event.getStage().getName(), true );
+    }
+
+    public void onStageError( @Observes final OnErrorStageExecutionEvent event ) {
+        stageFinished( event.getStage().getName(), false );
+    }
+
+    void pipelineStarted( final String pipeline ) {
+        final long now = nanoClock.getAsLong();
+        final PipelineTimers timers = timersFor( pipeline );
+        final Long queued = queuedAt.get();
+        queuedAt.remove();
+        if ( queued != null ) {
+            timers.queueWait.record( toMillis( now - queued ), true );
+        }
+        currentExecution.set( new Execution( timers, now ) );
+    }
+
+    void stageStarted( final String stage ) {
+        final Execution execution = currentExecution.get();
+        if ( execution != null ) {
+            execution.stageStarts.put( stage, nanoClock.getAsLong() );
+        }
+    }
+
+    /*
+     * A failing stage may be reported both as failed and finished, so only the first report counts.
+     */
+    void stageFinished( final String stage, final boolean successful ) {
+        final Execution execution = currentExecution.get();
+        final Long start = execution != null ? execution.stageStarts.remove( stage ) : null;
+        if ( start != null ) {
+            final long millis = toMillis( nanoClock.getAsLong() - start );
+            execution.timers.stage( stage ).record( millis, successful );
+            execution.stageMillis.put( stage, millis );
+        }
+    }
+
+    /*
+     * Takes precedence over the stage events, which for background stages arrive after the stage has finished.
+     */
+    @Override
+    public void stageExecuted( final String stage, final long durationMillis, final boolean successful ) {
+        final Execution execution = currentExecution.get();
+        if ( execution != null && execution.stageStarts.remove( stage ) != null ) {
+            execution.timers.stage( stage ).record( durationMillis, successful );
+            execution.stageMillis.put( stage, durationMillis );
+        }
+    }
+
+    void pipelineFinished( final boolean successful ) {
+        final Execution execution = currentExecution.get();
+        if ( execution == null ) {
+            return;
+        }
+        currentExecution.remove();
+
+        final long millis = toMillis( nanoClock.getAsLong() - execution.start );
+        execution.timers.wallTime.record( millis, successful );
+        logger.info( "Pipeline " + execution.timers.name + ( successful ? " completed" : " failed" ) + " in " + millis + "ms "
+                + execution.stageMillis.entrySet()
+                        .stream()
+                        .map( e -> e.getKey() + "=" + e.getValue() + "ms" )
+                        .collect( Collectors.joining( ", ", "[", "]" ) ) );
+    }
+
+    /**
+     * @return The statistics of every pipeline that has run, ordered by name.
+     */
+    public List<PipelineStatistics> getStatistics() {
+        return new TreeMap<>( pipelines ).values()
+                .stream()
+                .map( PipelineTimers::snapshot )
+                .collect( Collectors.toList() );
+    }
+
+    private PipelineTimers timersFor( final String pipeline ) {
+        return pipelines.computeIfAbsent( pipeline, PipelineTimers::new );
+    }
+
+    private static long toMillis( final long nanos ) {
+        return TimeUnit.NANOSECONDS.toMillis( nanos );
+    }
+
+    private static class PipelineTimers {
+
+        private final String name;
+        private final RollingTimer wallTime;
+        private final RollingTimer queueWait;
+        private final Map<String, RollingTimer> stages = new LinkedHashMap<>();
+
+        private PipelineTimers( final String name ) {
+            this.name = name;
+            this.wallTime = new RollingTimer( name, WINDOW_SIZE );
+            this.queueWait = new RollingTimer( name + " queue wait", WINDOW_SIZE );
+        }
+
+        private synchronized RollingTimer stage( final String stage ) {
+            return stages.computeIfAbsent( stage, s -> new RollingTimer( s, WINDOW_SIZE ) );
+        }
+
+        private PipelineStatistics snapshot() {
+            final List<RollingTimer> stageTimers;
+            synchronized ( this ) {
+                stageTimers = new ArrayList<>( stages.values() );
+            }
+            final List<TimingStatistics> stageStatistics = stageTimers.stream()
+                    .map( RollingTimer::snapshot )
+                    .collect( Collectors.toList() );
+
+            return new PipelineStatistics( wallTime.snapshot(), queueWait.snapshot(), stageStatistics );
+        }
+
+    }
+
+    private static class Execution {
+
+        private final PipelineTimers timers;
+        private final long start;
+        private final Map<String, Long> stageStarts = new HashMap<>();
+        private final Map<String, Long> stageMillis = new LinkedHashMap<>();
+
+        private Execution( final PipelineTimers timers, final long start ) {
+            this.timers = timers;
+            this.start = start;
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.metrics;
+
+import java.util.Arrays;
+
+import org.kie.appformer.client.shared.TimingStatistics;
+
+/**
+ * Counts outcomes and keeps the most recent durations in a ring buffer, from which percentiles are computed on demand.
+ */
+class RollingTimer {
+
+    private final String name;
+    private final long[] window;
+    private int next;
+    private int size;
+    private long successes;
+    private long failures;
+
+    RollingTimer( final String name, final int windowSize ) {
+        this.name = name;
+        this.window = new long[ windowSize ];
+    }
+
+    synchronized void record( final long millis, final boolean successful ) {
+        window[ next ] = millis;
+        next = ( next + 1 ) % window.length;
+        size = Math.min( size + 1, window.length );
+        if ( successful ) {
+            successes++;
+        } else {
+            failures++;
+        }
+    }
+
+    TimingStatistics snapshot() {
+        final long[] sorted;
+        final long successes;
+        final long failures;
+        synchronized ( this ) {
+            sorted = Arrays.copyOf( window, size );
+            successes = this.successes;
+            failures = this.failures;
+        }
+        Arrays.sort( sorted );
+
+        return new TimingStatistics( name,
+                                     successes,
+                                     failures,
+                                     sorted.length,
+                                     percentile( sorted, 50 ),
+                                     percentile( sorted, 90 ),
+                                     percentile( sorted, 99 ),
+                                     sorted.length == 0 ? 0 : sorted[ sorted.length - 1 ] );
+    }
+
+    /*
+     * Nearest-rank percentile.
+     */
+    static long percentile( final long[] sorted, final int percent ) {
+        if ( sorted.length == 0 ) {
+            return 0;
+        }
+        final int rank = (int) Math.ceil( percent / 100.0 * sorted.length );
+
+        return sorted[ Math.max( 0, rank - 1 ) ];
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.pipeline;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The chain of stages that determined how long a pipeline execution took: the stage that finished last, preceded by the
+ * dependency it waited for longest, and so on back to the start of the pipeline.
+ */
+public class CriticalPath {
+
+    private final String pipeline;
+    private final List<StageTiming> stages;
+    private final long totalMillis;
+
+    CriticalPath( final String pipeline,
+                  final List<StageTiming> stages,
+                  final long totalMillis ) {
+        this.pipeline = pipeline;
+        this.stages = Collections.unmodifiableList( stages );
+        this.totalMillis = totalMillis;
+    }
+
+    public String getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * @return The stages on the critical path, in execution order.
+     */
+    public List<StageTiming> getStages() {
+        return stages;
+    }
+
+    /**
+     * @return The wall time of the whole execution.
+     */
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    @Override
+    public String toString() {
+        return stages.stream()
+                .map( StageTiming::toString )
+                .collect( Collectors.joining( " -> ", "Critical path of " + pipeline + " (" + totalMillis + "ms): ", "" ) );
+    }
+
+    public static class StageTiming {
+
+        private final String name;
+        private final long startMillis;
+        private final long durationMillis;
+
+        StageTiming( final String name,
+                     final long startMillis,
+                     final long durationMillis ) {
+            this.name = name;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return When the stage started, relative to the start of the pipeline.
+         */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + durationMillis + "ms";
+        }
+
+    }
+
+}
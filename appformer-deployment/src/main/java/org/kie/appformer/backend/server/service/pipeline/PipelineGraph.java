@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.guvnor.ala.pipeline.Pipeline;
+import org.guvnor.ala.pipeline.Stage;
+
+/**
+ * The stages of a {@link Pipeline} along with the stages each of them depends on, so that independent stages can run
+ * concurrently. A stage receives the output of its first dependency, or the pipeline input if it has none.
+ *
+ * Stages run on the thread executing the pipeline, which carries the request's context, unless they are declared as
+ * background stages.
+ */
+public class PipelineGraph {
+
+    private final Pipeline pipeline;
+    private final List<Node> nodes;
+
+    private PipelineGraph( final Pipeline pipeline, final List<Node> nodes ) {
+        this.pipeline = pipeline;
+        this.nodes = Collections.unmodifiableList( nodes );
+    }
+
+    /**
+     * @param pipeline
+     *            The linear equivalent of the graph, which is reported to pipeline event listeners.
+     */
+    public static Builder of( final Pipeline pipeline ) {
+        return new Builder( pipeline );
+    }
+
+    public String getName() {
+        return pipeline.getName();
+    }
+
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * @return The stages of the graph, each after all of its dependencies.
+     */
+    List<Node> getNodes() {
+        return nodes;
+    }
+
+    static class Node {
+
+        private final Stage<Object, Object> stage;
+        private final List<Node> dependencies;
+        private final boolean background;
+
+        private Node( final Stage<Object, Object> stage,
+                      final List<Node> dependencies,
+                      final boolean background ) {
+            this.stage = stage;
+            this.dependencies = dependencies;
+            this.background = background;
+        }
+
+        Stage<Object, Object> getStage() {
+            return stage;
+        }
+
+        String getName() {
+            return stage.getName();
+        }
+
+        List<Node> getDependencies() {
+            return dependencies;
+        }
+
+        boolean isBackground() {
+            return background;
+        }
+
+    }
+
+    public static class Builder {
+
+        private final Pipeline pipeline;
+        private final List<Node> nodes = new ArrayList<>();
+        private final Map<Stage<?, ?>, Node> nodesByStage = new IdentityHashMap<>();
+
+        private Builder( final Pipeline pipeline ) {
+            this.pipeline = pipeline;
+        }
+
+        /**
+         * Adds a stage that runs on the thread executing the pipeline once all of the given stages have completed.
+         */
+        public Builder stage( final Stage<?, ?> stage, final Stage<?, ?>... dependencies ) {
+            return add( stage, dependencies, false );
+        }
+
+        /**
+         * Adds a stage that runs on a worker thread once all of the given stages have completed. Only stages that do
+         * not rely on the context of the thread executing the pipeline, such as the HTTP session, may run in the
+         * background.
+         */
+        public Builder backgroundStage( final Stage<?, ?> stage, final Stage<?, ?>... dependencies ) {
+            return add( stage, dependencies, true );
+        }
+
+        @SuppressWarnings( "unchecked" )
+        private Builder add( final Stage<?, ?> stage,
+                             final Stage<?, ?>[] dependencies,
+                             final boolean background ) {
+            if ( nodesByStage.containsKey( stage ) ) {
+                throw new IllegalArgumentException( "Stage " + stage.getName() + " was already added to " + pipeline.getName() );
+            }
+
+            final List<Node> dependencyNodes = new ArrayList<>( dependencies.length );
+            for ( final Stage<?, ?> dependency : dependencies ) {
+                final Node node = nodesByStage.get( dependency );
+                if ( node == null ) {
+                    throw new IllegalArgumentException( "Stage " + stage.getName() + " depends on " + dependency.getName()
+                            + ", which must be added first." );
+                }
+                dependencyNodes.add( node );
+            }
+
+            final Node node = new Node( (Stage<Object, Object>) stage, Collections.unmodifiableList( dependencyNodes ), background );
+            nodes.add( node );
+            nodesByStage.put( stage, node );
+
+            return this;
+        }
+
+        public PipelineGraph build() {
+            if ( nodes.isEmpty() ) {
+                throw new IllegalStateException( "Pipeline graph " + pipeline.getName() + " has no stages." );
+            }
+
+            return new PipelineGraph( pipeline, new ArrayList<>( nodes ) );
+        }
+
+    }
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.guvnor.ala.pipeline.ConfigExecutor;
+import org.guvnor.ala.pipeline.ContextAware;
+import org.guvnor.ala.pipeline.Input;
+import org.guvnor.ala.pipeline.Pipeline;
+import org.guvnor.ala.pipeline.events.AfterPipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.AfterStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.BeforePipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.BeforeStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.OnErrorPipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.OnErrorStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.PipelineEventListener;
+import org.guvnor.ala.util.VariableInterpolation;
+import org.kie.appformer.backend.server.service.pipeline.CriticalPath.StageTiming;
+import org.kie.appformer.backend.server.service.pipeline.PipelineGraph.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes a {@link PipelineGraph}, starting each stage as soon as the stages it depends on have completed.
+ *
+ * Stages share one context of executor outputs, as in a linear pipeline. Foreground stages run on the calling thread and
+ * background stages on the given executor. All pipeline events are delivered on the calling thread, so listeners may
+ * rely on its context. Events of background stages are delivered once the calling thread is free, so the time each
+ * stage actually ran is reported to a {@link StageTimingListener}. The {@link CriticalPath} of every execution is logged
+ * and returned.
+ */
+public class PipelineGraphExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger( PipelineGraphExecutor.class );
+
+    private final Map<Class<?>, ConfigExecutor> executors = new HashMap<>();
+    private final Executor workers;
+    private final StageTimingListener timingListener;
+
+    public PipelineGraphExecutor( final Collection<ConfigExecutor> configExecutors, final Executor workers ) {
+        this( configExecutors, workers, ( stage, durationMillis, successful ) -> {
+        } );
+    }
+
+    public PipelineGraphExecutor( final Collection<ConfigExecutor> configExecutors,
+                                  final Executor workers,
+                                  final StageTimingListener timingListener ) {
+        configExecutors.forEach( executor -> executors.put( executor.executeFor(), executor ) );
+        this.workers = workers;
+        this.timingListener = timingListener;
+    }
+
+    public CriticalPath execute( final Input input,
+                                 final PipelineGraph graph,
+                                 final PipelineEventListener... listeners ) {
+        return execute( input, graph, output -> {
+        }, listeners );
+    }
+
+    /**
+     * @param callback
+     *            Receives the outputs of the final stages, those no other stage depends on, once the pipeline has
+     *            completed.
+     */
+    public CriticalPath execute( final Input input,
+                                 final PipelineGraph graph,
+                                 final Consumer<Object> callback,
+                                 final PipelineEventListener... listeners ) {
+        return new Execution( input, graph, callback, listeners ).run();
+    }
+
+    private ConfigExecutor resolve( final Object config ) {
+        final Deque<Class<?>> types = new ArrayDeque<>();
+        types.add( config.getClass() );
+        while ( !types.isEmpty() ) {
+            final Class<?> type = types.poll();
+            final ConfigExecutor executor = executors.get( type );
+            if ( executor != null ) {
+                return executor;
+            }
+            if ( type.getSuperclass() != null ) {
+                types.add( type.getSuperclass() );
+            }
+            Collections.addAll( types, type.getInterfaces() );
+        }
+
+        throw new IllegalStateException( "No executor found for " + config.getClass().getName() );
+    }
+
+    private class Execution {
+
+        private final Input input;
+        private final PipelineGraph graph;
+        private final Pipeline pipeline;
+        private final Consumer<Object> callback;
+        private final PipelineEventListener[] listeners;
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+        private final BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        private final Deque<Node> foreground = new ArrayDeque<>();
+        private final Set<Node> started = Collections.newSetFromMap( new HashMap<>() );
+        private final Map<Node, Completion> completed = new HashMap<>();
+        private final long start = System.nanoTime();
+        private int running;
+        private Completion failure;
+
+        private Execution( final Input input,
+                           final PipelineGraph graph,
+                           final Consumer<Object> callback,
+                           final PipelineEventListener[] listeners ) {
+            this.input = input;
+            this.graph = graph;
+            this.pipeline = graph.getPipeline();
+            this.callback = callback;
+            this.listeners = listeners;
+            values.put( "input", input );
+        }
+
+        private CriticalPath run() {
+            for ( final PipelineEventListener listener : listeners ) {
+                listener.beforePipelineExecution( new BeforePipelineExecutionEvent( pipeline ) );
+            }
+
+            scheduleReadyStages();
+            while ( ( failure == null && completed.size() < graph.getNodes().size() ) || running > 0 ) {
+                if ( failure == null && !foreground.isEmpty() ) {
+                    final Node node = foreground.poll();
+                    fireBeforeStage( node );
+                    complete( execute( node, inputFor( node ) ) );
+                } else if ( running > 0 ) {
+                    final Completion completion = awaitBackgroundStage();
+                    running--;
+                    complete( completion );
+                } else {
+                    throw new IllegalStateException( "Pipeline " + pipeline.getName() + " has stages that can never run." );
+                }
+            }
+
+            if ( failure != null ) {
+                for ( final PipelineEventListener listener : listeners ) {
+                    listener.onPipelineError( new OnErrorPipelineExecutionEvent( pipeline, failure.error ) );
+                }
+                throw new RuntimeException( "Stage " + failure.node.getName() + " of pipeline " + pipeline.getName() + " failed.",
+                                            failure.error );
+            }
+
+            for ( final PipelineEventListener listener : listeners ) {
+                listener.afterPipelineExecution( new AfterPipelineExecutionEvent( pipeline ) );
+            }
+            finalOutputs().forEach( callback );
+            final CriticalPath criticalPath = criticalPath();
+            logger.info( criticalPath.toString() );
+
+            return criticalPath;
+        }
+
+        /*
+         * Stages that become ready after a failure are not started, but background stages that are already running
+         * are awaited so that none outlive the execution.
+         */
+        private void scheduleReadyStages() {
+            if ( failure != null ) {
+                return;
+            }
+
+            for ( final Node node : graph.getNodes() ) {
+                if ( !started.contains( node ) && completed.keySet().containsAll( node.getDependencies() ) ) {
+                    started.add( node );
+                    if ( node.isBackground() ) {
+                        submit( node );
+                    } else {
+                        foreground.add( node );
+                    }
+                }
+            }
+        }
+
+        private void submit( final Node node ) {
+            final Object stageInput = inputFor( node );
+            try {
+                workers.execute( () -> completions.add( execute( node, stageInput ) ) );
+                running++;
+                fireBeforeStage( node );
+            } catch ( final RejectedExecutionException e ) {
+                logger.debug( "Running stage " + node.getName() + " on the calling thread as no worker is available." );
+                foreground.add( node );
+            }
+        }
+
+        private Completion awaitBackgroundStage() {
+            try {
+                return completions.take();
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while executing pipeline " + pipeline.getName(), e );
+            }
+        }
+
+        private List<Object> finalOutputs() {
+            final Set<Node> dependedOn = new HashSet<>();
+            graph.getNodes().forEach( node -> dependedOn.addAll( node.getDependencies() ) );
+
+            return graph.getNodes()
+                    .stream()
+                    .filter( node -> !dependedOn.contains( node ) )
+                    .map( node -> completed.get( node ).output )
+                    .filter( Objects::nonNull )
+                    .collect( Collectors.toList() );
+        }
+
+        private Object inputFor( final Node node ) {
+            return node.getDependencies().isEmpty() ? input : completed.get( node.getDependencies().get( 0 ) ).output;
+        }
+
+        private Completion execute( final Node node, final Object stageInput ) {
+            final long stageStart = System.nanoTime();
+            try {
+                final AtomicReference<Object> output = new AtomicReference<>();
+                node.getStage().execute( stageInput, config -> output.set( apply( config ) ) );
+                return new Completion( node, output.get(), null, stageStart, System.nanoTime() );
+            } catch ( final Throwable t ) {
+                return new Completion( node, null, t, stageStart, System.nanoTime() );
+            }
+        }
+
+        @SuppressWarnings( "unchecked" )
+        private Object apply( final Object config ) {
+            final ConfigExecutor executor = resolve( config );
+            final Object interpolated = VariableInterpolation.interpolate( values, config );
+            if ( interpolated instanceof ContextAware ) {
+                ( (ContextAware) interpolated ).setContext( Collections.unmodifiableMap( values ) );
+            }
+
+            final Optional<Object> result = (Optional<Object>) executor.apply( interpolated );
+            result.ifPresent( output -> values.put( executor.outputId(), output ) );
+
+            return result.orElse( null );
+        }
+
+        private void complete( final Completion completion ) {
+            timingListener.stageExecuted( completion.node.getName(),
+                                          TimeUnit.NANOSECONDS.toMillis( completion.end - completion.start ),
+                                          completion.error == null );
+            if ( completion.error != null ) {
+                for ( final PipelineEventListener listener : listeners ) {
+                    listener.onStageError( new OnErrorStageExecutionEvent( pipeline, completion.node.getStage(), completion.error ) );
+                }
+                if ( failure == null ) {
+                    failure = completion;
+                }
+                return;
+            }
+
+            completed.put( completion.node, completion );
+            for ( final PipelineEventListener listener : listeners ) {
+                listener.afterStageExecution( new AfterStageExecutionEvent( pipeline, completion.node.getStage() ) );
+            }
+            scheduleReadyStages();
+        }
+
+        private void fireBeforeStage( final Node node ) {
+            for ( final PipelineEventListener listener : listeners ) {
+                listener.beforeStageExecution( new BeforeStageExecutionEvent( pipeline, node.getStage() ) );
+            }
+        }
+
+        private CriticalPath criticalPath() {
+            final Set<Node> path = new LinkedHashSet<>();
+            Completion current = latest( completed.values() );
+            while ( current != null ) {
+                path.add( current.node );
+                final List<Completion> dependencies = new ArrayList<>();
+                current.node.getDependencies().forEach( dependency -> dependencies.add( completed.get( dependency ) ) );
+                current = latest( dependencies );
+            }
+
+            final List<StageTiming> stages = new ArrayList<>();
+            for ( final Node node : path ) {
+                final Completion completion = completed.get( node );
+                stages.add( 0, new StageTiming( node.getName(),
+                                                TimeUnit.NANOSECONDS.toMillis( completion.start - start ),
+                                                TimeUnit.NANOSECONDS.toMillis( completion.end - completion.start ) ) );
+            }
+
+            return new CriticalPath( pipeline.getName(), stages, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        }
+
+        private Completion latest( final Collection<Completion> completions ) {
+            Completion latest = null;
+            for ( final Completion completion : completions ) {
+                if ( latest == null || completion.end > latest.end ) {
+                    latest = completion;
+                }
+            }
+
+            return latest;
+        }
+
+    }
+
+    private static class Completion {
+
+        private final Node node;
+        private final Object output;
+        private final Throwable error;
+        private final long start;
+        private final long end;
+
+        private Completion( final Node node,
+                            final Object output,
+                            final Throwable error,
+                            final long start,
+                            final long end ) {
+            this.node = node;
+            this.output = output;
+            this.error = error;
+            this.start = start;
+            this.end = end;
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.pipeline;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Holds the {@link PipelineGraph graphs} of pipelines whose independent stages may run concurrently, by pipeline name.
+ */
+@ApplicationScoped
+public class PipelineGraphRegistry {
+
+    private final Map<String, PipelineGraph> graphs = new ConcurrentHashMap<>();
+
+    public void registerGraph( final PipelineGraph graph ) {
+        graphs.put( graph.getName(), graph );
+    }
+
+    public Optional<PipelineGraph> getGraph( final String pipelineName ) {
+        return Optional.ofNullable( graphs.get( pipelineName ) );
+    }
+
+}
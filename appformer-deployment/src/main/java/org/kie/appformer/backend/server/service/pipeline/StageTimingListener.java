@@ -0,0 +1,30 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.pipeline;
+
+/**
+ * Receives how long each stage executed by a {@link PipelineGraphExecutor} ran, as measured on the thread running it.
+ * Stage events are delivered on the thread executing the pipeline, so for background stages they only tell when the
+ * pipeline noticed the stage had completed.
+ *
+ * Each stage is reported on the thread executing the pipeline, before the event that it has completed or failed.
+ */
+public interface StageTimingListener {
+
+    void stageExecuted( String stage, long durationMillis, boolean successful );
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.client.shared;
+
+import org.jboss.errai.common.client.api.annotations.MapsTo;
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Sent as the {@link #PART} of messages on {@link #SUBJECT} to the session that requested a build once it has
+ * finished, carrying the deployed app if it succeeded or the error if it failed.
+ */
+@Portable
+public class BuildFinished {
+
+    public static final String SUBJECT = "AppFormerBuildFinished";
+
+    public static final String PART = "finished";
+
+    private final String buildId;
+    private final AppReady appReady;
+    private final String error;
+
+    public BuildFinished( @MapsTo( "buildId" ) final String buildId,
+                          @MapsTo( "appReady" ) final AppReady appReady,
+                          @MapsTo( "error" ) final String error ) {
+        this.buildId = buildId;
+        this.appReady = appReady;
+        this.error = error;
+    }
+
+    public String getBuildId() {
+        return buildId;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * @return The deployed app, or null if the build failed or deployed nothing.
+     */
+    public AppReady getAppReady() {
+        return appReady;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.client.shared;
+
+import org.jboss.errai.common.client.api.annotations.MapsTo;
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Sent as the {@link #PART} of messages on {@link #SUBJECT} to the session that requested a build as the build is
+ * queued, starts, and moves through the stages of its pipeline.
+ */
+@Portable
+public class BuildProgress {
+
+    public static final String SUBJECT = "AppFormerBuildProgress";
+
+    public static final String PART = "progress";
+
+    @Portable
+    public enum Status {
+        QUEUED, STARTED, STAGE_STARTED, STAGE_COMPLETED, STAGE_FAILED
+    }
+
+    private final String buildId;
+    private final String pipeline;
+    private final String stage;
+    private final Status status;
+
+    public BuildProgress( @MapsTo( "buildId" ) final String buildId,
+                          @MapsTo( "pipeline" ) final String pipeline,
+                          @MapsTo( "stage" ) final String stage,
+                          @MapsTo( "status" ) final Status status ) {
+        this.buildId = buildId;
+        this.pipeline = pipeline;
+        this.stage = stage;
+        this.status = status;
+    }
+
+    public String getBuildId() {
+        return buildId;
+    }
+
+    public String getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * @return The stage this progress is about, or null if it is about the whole build.
+     */
+    public String getStage() {
+        return stage;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+}
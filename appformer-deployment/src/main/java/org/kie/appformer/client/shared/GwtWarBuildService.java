@@ -27,4 +27,17 @@ public interface GwtWarBuildService {
 
     BuildResults buildAndDeployDevMode( Project project );
 
+    /**
+     * Queues a build and deployment of the project, reporting its {@link BuildProgress} and {@link BuildFinished}
+     * outcome to the calling session.
+     *
+     * @return The ID of the build.
+     */
+    String startBuildAndDeploy( Project project );
+
+    /**
+     * Like {@link #startBuildAndDeploy(Project)}, but deploys the project for SuperDevMode.
+     */
+    String startBuildAndDeployDevMode( Project project );
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.client.shared;
+
+import java.util.List;
+
+import org.jboss.errai.common.client.api.annotations.MapsTo;
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Timings of a pipeline: its wall time, how long builds waited before it started, and each of its stages in execution
+ * order.
+ */
+@Portable
+public class PipelineStatistics {
+
+    private final TimingStatistics wallTime;
+    private final TimingStatistics queueWait;
+    private final List<TimingStatistics> stages;
+
+    public PipelineStatistics( @MapsTo( "wallTime" ) final TimingStatistics wallTime,
+                               @MapsTo( "queueWait" ) final TimingStatistics queueWait,
+                               @MapsTo( "stages" ) final List<TimingStatistics> stages ) {
+        this.wallTime = wallTime;
+        this.queueWait = queueWait;
+        this.stages = stages;
+    }
+
+    public String getName() {
+        return wallTime.getName();
+    }
+
+    public TimingStatistics getWallTime() {
+        return wallTime;
+    }
+
+    public TimingStatistics getQueueWait() {
+        return queueWait;
+    }
+
+    public List<TimingStatistics> getStages() {
+        return stages;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.client.shared;
+
+import org.jboss.errai.common.client.api.annotations.MapsTo;
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Outcome counts and rolling percentiles of the durations of a pipeline, stage or queue wait, in milliseconds.
+ * Percentiles are taken over the most recent samples only.
+ */
+@Portable
+public class TimingStatistics {
+
+    private final String name;
+    private final long successes;
+    private final long failures;
+    private final int samples;
+    private final long p50Millis;
+    private final long p90Millis;
+    private final long p99Millis;
+    private final long maxMillis;
+
+    public TimingStatistics( @MapsTo( "name" ) final String name,
+                             @MapsTo( "successes" ) final long successes,
+                             @MapsTo( "failures" ) final long failures,
+                             @MapsTo( "samples" ) final int samples,
+                             @MapsTo( "p50Millis" ) final long p50Millis,
+                             @MapsTo( "p90Millis" ) final long p90Millis,
+                             @MapsTo( "p99Millis" ) final long p99Millis,
+                             @MapsTo( "maxMillis" ) final long maxMillis ) {
+        this.name = name;
+        this.successes = successes;
+        this.failures = failures;
+        this.samples = samples;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return The number of recent durations the percentiles are taken over.
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    public long getP50Millis() {
+        return p50Millis;
+    }
+
+    public long getP90Millis() {
+        return p90Millis;
+    }
+
+    public long getP99Millis() {
+        return p99Millis;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [ok=" + successes + ", failed=" + failures + ", p50=" + p50Millis + "ms, p90=" + p90Millis
+                + "ms, p99=" + p99Millis + "ms, max=" + maxMillis + "ms]";
+    }
+
+}
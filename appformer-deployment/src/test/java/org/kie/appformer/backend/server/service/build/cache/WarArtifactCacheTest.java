@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WarArtifactCacheTest {
+
+    private File workDir;
+    private File cacheDir;
+
+    @Before
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory( "war-cache" ).toFile();
+        cacheDir = new File( workDir, "cache" );
+    }
+
+    @After
+    public void cleanup() {
+        FileUtils.deleteQuietly( workDir );
+    }
+
+    @Test
+    public void cachedWarKeepsItsName() throws IOException {
+        final WarArtifactCache cache = new WarArtifactCache( cacheDir, 1000 );
+        cache.put( key( "r1" ), war( "app.war", 10 ) );
+
+        final Optional<File> cached = cache.get( key( "r1" ) );
+
+        assertTrue( cached.isPresent() );
+        assertEquals( "app.war", cached.get().getName() );
+        assertEquals( 10, cached.get().length() );
+    }
+
+    @Test
+    public void countsHitsAndMisses() throws IOException {
+        final WarArtifactCache cache = new WarArtifactCache( cacheDir, 1000 );
+        cache.put( key( "r1" ), war( "app.war", 10 ) );
+
+        cache.get( key( "r1" ) );
+        cache.get( key( "r1" ) );
+        cache.get( key( "r2" ) );
+
+        final WarCacheStatistics statistics = cache.getStatistics();
+        assertEquals( 2, statistics.getHits() );
+        assertEquals( 1, statistics.getMisses() );
+        assertEquals( 1, statistics.getEntries() );
+        assertEquals( 10, statistics.getTotalBytes() );
+    }
+
+    @Test
+    public void buildPropertiesArePartOfTheKey() throws IOException {
+        final WarArtifactCache cache = new WarArtifactCache( cacheDir, 1000 );
+        cache.put( key( "r1" ), war( "app.war", 10 ) );
+
+        final Properties skipGwt = new Properties();
+        skipGwt.setProperty( "gwt.compiler.skip", "true" );
+
+        assertFalse( cache.get( new WarCacheKey( "project", "r1", skipGwt ) ).isPresent() );
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenFull() throws IOException {
+        final WarArtifactCache cache = new WarArtifactCache( cacheDir, 25 );
+        cache.put( key( "r1" ), war( "app.war", 10 ) );
+        cache.put( key( "r2" ), war( "app.war", 10 ) );
+        cache.get( key( "r1" ) );
+        cache.put( key( "r3" ), war( "app.war", 10 ) );
+
+        assertTrue( cache.contains( key( "r1" ) ) );
+        assertFalse( cache.contains( key( "r2" ) ) );
+        assertTrue( cache.contains( key( "r3" ) ) );
+        assertEquals( 1, cache.getStatistics().getEvictions() );
+        assertEquals( 20, cache.getStatistics().getTotalBytes() );
+    }
+
+    @Test
+    public void doesNotCacheWarsLargerThanTheCache() throws IOException {
+        final WarArtifactCache cache = new WarArtifactCache( cacheDir, 5 );
+        cache.put( key( "r1" ), war( "app.war", 10 ) );
+
+        assertFalse( cache.contains( key( "r1" ) ) );
+    }
+
+    @Test
+    public void entriesSurviveRestart() throws IOException {
+        new WarArtifactCache( cacheDir, 1000 ).put( key( "r1" ), war( "app.war", 10 ) );
+
+        final WarArtifactCache restarted = new WarArtifactCache( cacheDir, 1000 );
+
+        assertTrue( restarted.get( key( "r1" ) ).isPresent() );
+        assertEquals( 10, restarted.getStatistics().getTotalBytes() );
+    }
+
+    private static WarCacheKey key( final String revision ) {
+        return new WarCacheKey( "project", revision, new Properties() );
+    }
+
+    private File war( final String name, final int size ) throws IOException {
+        final File war = new File( workDir, "target/" + name );
+        war.getParentFile().mkdirs();
+        Files.write( war.toPath(), new byte[size] );
+        return war;
+    }
+
+}
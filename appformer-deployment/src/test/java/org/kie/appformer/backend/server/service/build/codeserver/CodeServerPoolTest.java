@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.appformer.backend.server.service.job.BuildJob;
+
+import static org.junit.Assert.*;
+
+public class CodeServerPoolTest {
+
+    private static final long TTL = 1000;
+
+    private long now;
+    private CodeServerPool pool;
+    private AtomicInteger launched;
+
+    @Before
+    public void setup() {
+        now = 0;
+        launched = new AtomicInteger();
+        pool = new CodeServerPool( TTL, () -> now );
+    }
+
+    @Test
+    public void buildsInSameWorkspaceShareCodeServer() {
+        final CodeServerLease first = pool.acquire( key( "master" ), this::launch );
+        final CodeServerLease second = pool.acquire( key( "master" ), this::launch );
+
+        assertSame( first.getCodeServer(), second.getCodeServer() );
+        assertEquals( 1, launched.get() );
+        assertEquals( 2, pool.getStatus().get( 0 ).getUsers() );
+    }
+
+    @Test
+    public void branchesHaveSeparateCodeServers() {
+        final CodeServerLease master = pool.acquire( key( "master" ), this::launch );
+        final CodeServerLease feature = pool.acquire( key( "feature" ), this::launch );
+
+        assertNotSame( master.getCodeServer(), feature.getCodeServer() );
+    }
+
+    @Test
+    public void workspacesHaveSeparateCodeServers() {
+        final CodeServerLease first = pool.acquire( key( "master", "first" ), this::launch );
+        final CodeServerLease second = pool.acquire( key( "master", "second" ), this::launch );
+
+        assertNotSame( first.getCodeServer(), second.getCodeServer() );
+    }
+
+    @Test
+    public void livenessIsNotCheckedWhileHoldingThePoolLock() {
+        final AtomicInteger checkedUnderLock = new AtomicInteger();
+        final FakeCodeServer server = new FakeCodeServer( 50001 ) {
+
+            @Override
+            public boolean isAlive() {
+                if ( Thread.holdsLock( pool ) ) {
+                    checkedUnderLock.incrementAndGet();
+                }
+                return super.isAlive();
+            }
+        };
+        pool.register( key( "master" ), server ).release();
+
+        pool.acquire( key( "master" ), this::launch ).release();
+        pool.acquireRunning( key( "master" ) ).get().release();
+        pool.reap();
+
+        assertEquals( 0, launched.get() );
+        assertEquals( 0, checkedUnderLock.get() );
+    }
+
+    @Test
+    public void deadCodeServerIsReplaced() {
+        final CodeServerLease first = pool.acquire( key( "master" ), this::launch );
+        ( (FakeCodeServer) first.getCodeServer() ).alive = false;
+
+        final CodeServerLease second = pool.acquire( key( "master" ), this::launch );
+
+        assertNotSame( first.getCodeServer(), second.getCodeServer() );
+        assertTrue( ( (FakeCodeServer) first.getCodeServer() ).shutdown );
+        assertFalse( first.isValid() );
+    }
+
+    @Test
+    public void leasedCodeServerIsNotReaped() {
+        final CodeServerLease lease = pool.acquire( key( "master" ), this::launch );
+        now += TTL * 10;
+
+        pool.reap();
+
+        assertTrue( lease.isValid() );
+        assertFalse( ( (FakeCodeServer) lease.getCodeServer() ).shutdown );
+    }
+
+    @Test
+    public void idleCodeServerIsReapedAfterTtl() {
+        final CodeServerLease first = pool.acquire( key( "master" ), this::launch );
+        final CodeServerLease second = pool.acquire( key( "master" ), this::launch );
+        first.release();
+        second.release();
+
+        now += TTL - 1;
+        pool.reap();
+        assertFalse( ( (FakeCodeServer) first.getCodeServer() ).shutdown );
+
+        now += 1;
+        pool.reap();
+        assertTrue( ( (FakeCodeServer) first.getCodeServer() ).shutdown );
+        assertTrue( pool.getStatus().isEmpty() );
+    }
+
+    @Test
+    public void reusedCodeServerRestartsIdleTime() {
+        pool.acquire( key( "master" ), this::launch ).release();
+        now += TTL - 1;
+        pool.acquireRunning( key( "master" ) ).get().release();
+
+        now += TTL - 1;
+        pool.reap();
+
+        assertTrue( pool.acquireRunning( key( "master" ) ).isPresent() );
+    }
+
+    @Test
+    public void registeredCodeServerReplacesPrevious() {
+        final CodeServerLease launchedLease = pool.acquire( key( "master" ), this::launch );
+        final FakeCodeServer registered = new FakeCodeServer( 50001 );
+
+        final CodeServerLease registeredLease = pool.register( key( "master" ), registered );
+
+        assertSame( registered, registeredLease.getCodeServer() );
+        assertTrue( ( (FakeCodeServer) launchedLease.getCodeServer() ).shutdown );
+    }
+
+    @Test
+    public void keyForUsesBranchAndWorkspaceOfCurrentBuildJob() throws Exception {
+        assertEquals( new CodeServerKey( "project", "", null ), pool.keyFor( "project" ) );
+
+        final BuildJob job = new BuildJob( "project", "pipeline", "feature", null, null );
+        job.setWorkspace( workspace( "first" ) );
+        final AtomicReference<CodeServerKey> key = new AtomicReference<>();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            job.runAs( () -> BuildJob.contextual( executor ).execute( () -> key.set( pool.keyFor( "project" ) ) ) );
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination( 10, TimeUnit.SECONDS );
+        }
+
+        assertEquals( key( "feature" ), key.get() );
+    }
+
+    private static CodeServerKey key( final String branch ) {
+        return key( branch, "first" );
+    }
+
+    private static CodeServerKey key( final String branch, final String workspace ) {
+        return new CodeServerKey( "project", branch, workspace( workspace ) );
+    }
+
+    private static File workspace( final String name ) {
+        return new File( "workspaces", name );
+    }
+
+    private CodeServer launch() {
+        return new FakeCodeServer( 50000 + launched.incrementAndGet() );
+    }
+
+    private static class FakeCodeServer implements CodeServer {
+
+        private final int port;
+        private volatile boolean alive = true;
+        private volatile boolean shutdown;
+
+        private FakeCodeServer( final int port ) {
+            this.port = port;
+        }
+
+        @Override
+        public int getPort() {
+            return port;
+        }
+
+        @Override
+        public CompletableFuture<Void> getReady() {
+            return CompletableFuture.completedFuture( null );
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive && !shutdown;
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+    }
+
+}
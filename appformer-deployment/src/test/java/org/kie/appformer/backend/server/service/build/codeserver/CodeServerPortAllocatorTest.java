@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.codeserver;
+
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CodeServerPortAllocatorTest {
+
+    @Test
+    public void leasesDistinctPortsInRange() {
+        final CodeServerPortAllocator allocator = new CodeServerPortAllocator( 50000, 50002, port -> true );
+        final Set<Integer> ports = new HashSet<>();
+
+        for ( int i = 0; i < 3; i++ ) {
+            ports.add( allocator.lease( () -> true ).getPort() );
+        }
+
+        assertEquals( 3, ports.size() );
+        assertTrue( ports.stream().allMatch( port -> port >= 50000 && port <= 50002 ) );
+        assertEquals( 3, allocator.getLeasedPortCount() );
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void failsWhenRangeIsExhausted() {
+        final CodeServerPortAllocator allocator = new CodeServerPortAllocator( 50000, 50001, port -> true );
+        allocator.lease( () -> true );
+        allocator.lease( () -> true );
+        allocator.lease( () -> true );
+    }
+
+    @Test
+    public void skipsPortsBoundByOtherProcesses() {
+        final CodeServerPortAllocator allocator = new CodeServerPortAllocator( 50000, 50002, port -> port == 50001 );
+
+        assertEquals( 50001, allocator.lease( () -> true ).getPort() );
+    }
+
+    @Test
+    public void releasedPortCanBeLeasedAgain() {
+        final CodeServerPortAllocator allocator = new CodeServerPortAllocator( 50000, 50000, port -> true );
+        allocator.lease( () -> true ).release();
+
+        assertEquals( 50000, allocator.lease( () -> true ).getPort() );
+    }
+
+    @Test
+    public void leaseExpiresWithItsOwner() {
+        final CodeServerPortAllocator allocator = new CodeServerPortAllocator( 50000, 50000, port -> true );
+        final AtomicBoolean sessionValid = new AtomicBoolean( true );
+        allocator.lease( sessionValid::get );
+        sessionValid.set( false );
+
+        assertEquals( 50000, allocator.lease( () -> true ).getPort() );
+    }
+
+    @Test
+    public void boundLeaseOutlivesOwnerUntilProcessEnds() {
+        final CodeServerPortAllocator allocator = new CodeServerPortAllocator( 50000, 50000, port -> true );
+        final CompletableFuture<Void> process = new CompletableFuture<>();
+        final CodeServerPortAllocator.PortLease lease = allocator.lease( () -> false );
+        lease.bindTo( process );
+
+        assertFalse( lease.isExpired() );
+        process.complete( null );
+        assertTrue( lease.isExpired() );
+        assertEquals( 50000, allocator.lease( () -> true ).getPort() );
+    }
+
+    @Test
+    public void probeDetectsBoundPort() throws Exception {
+        try ( ServerSocket socket = new ServerSocket( 0 ) ) {
+            assertFalse( CodeServerPortAllocator.canBind( socket.getLocalPort() ) );
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DeploymentMarkerWatcherTest {
+
+    private File deployDir;
+    private DeploymentMarkerWatcher watcher;
+
+    @Before
+    public void setup() throws IOException {
+        deployDir = Files.createTempDirectory( "deployments" ).toFile();
+        watcher = new DeploymentMarkerWatcher();
+    }
+
+    @After
+    public void cleanup() {
+        watcher.shutdown();
+        FileUtils.deleteQuietly( deployDir );
+    }
+
+    @Test
+    public void notifiesWhenMarkerIsCreated() throws Exception {
+        final CountDownLatch deployed = new CountDownLatch( 1 );
+        watcher.watch( deployDir, "app.war.deployed", deployed::countDown );
+
+        Files.createFile( new File( deployDir, "app.war.deployed" ).toPath() );
+
+        assertTrue( deployed.await( 10, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void onlyNotifiesWatchesForTheirOwnMarker() throws Exception {
+        final CountDownLatch deployed = new CountDownLatch( 1 );
+        final AtomicInteger otherNotifications = new AtomicInteger();
+        watcher.watch( deployDir, "other.war.deployed", otherNotifications::incrementAndGet );
+        watcher.watch( deployDir, "app.war.deployed", deployed::countDown );
+
+        Files.createFile( new File( deployDir, "app.war.deployed" ).toPath() );
+
+        assertTrue( deployed.await( 10, TimeUnit.SECONDS ) );
+        assertEquals( 0, otherNotifications.get() );
+    }
+
+    @Test
+    public void notifiesOncePerMarkerWrite() throws Exception {
+        final File marker = new File( deployDir, "app.war.deployed" );
+        final AtomicInteger notifications = new AtomicInteger();
+        final CountDownLatch redeployed = new CountDownLatch( 2 );
+        watcher.watch( deployDir, "app.war.deployed", () -> {
+            notifications.incrementAndGet();
+            redeployed.countDown();
+        } );
+
+        // Creating and writing the marker raises both a create and a modify event
+        Files.write( marker.toPath(), "app.war".getBytes( StandardCharsets.UTF_8 ) );
+        Thread.sleep( 1000 );
+        assertEquals( 1, notifications.get() );
+
+        Files.setLastModifiedTime( marker.toPath(), FileTime.fromMillis( marker.lastModified() + 10000 ) );
+
+        assertTrue( redeployed.await( 10, TimeUnit.SECONDS ) );
+        assertEquals( 2, notifications.get() );
+    }
+
+    @Test
+    public void closedWatchIsNotNotified() throws Exception {
+        final AtomicInteger closedNotifications = new AtomicInteger();
+        final CountDownLatch deployed = new CountDownLatch( 1 );
+        watcher.watch( deployDir, "app.war.deployed", closedNotifications::incrementAndGet ).close();
+        watcher.watch( deployDir, "app.war.deployed", deployed::countDown );
+
+        Files.createFile( new File( deployDir, "app.war.deployed" ).toPath() );
+
+        assertTrue( deployed.await( 10, TimeUnit.SECONDS ) );
+        assertEquals( 0, closedNotifications.get() );
+        assertEquals( 1, watcher.getWatchCount() );
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WarDeployerTest {
+
+    private File workDir;
+    private File deployDir;
+
+    @Before
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory( "war-deployer" ).toFile();
+        deployDir = new File( workDir, "deployments" );
+        deployDir.mkdirs();
+    }
+
+    @After
+    public void cleanup() {
+        FileUtils.deleteQuietly( workDir );
+    }
+
+    @Test
+    public void archiveReplacesPreviousDeployment() throws IOException {
+        final WarDeployer deployer = new WarDeployer( WarDeployer.Mode.ARCHIVE );
+        final File destination = new File( deployDir, "app.war" );
+        Files.write( destination.toPath(), "old".getBytes( StandardCharsets.UTF_8 ) );
+
+        deployer.deploy( war( "index.html", "new" ), destination );
+
+        assertArrayEquals( Files.readAllBytes( new File( workDir, "app.war" ).toPath() ), Files.readAllBytes( destination.toPath() ) );
+        assertArrayEquals( new String[]{ "app.war" }, deployDir.list() );
+    }
+
+    @Test
+    public void detachedWarCanBeRepackagedWithoutChangingDeployment() throws IOException {
+        final File projectDir = new File( workDir, "project" );
+        final File packaged = new File( projectDir, "target/app.war" );
+        FileUtils.copyFile( war( "index.html", "a" ), packaged );
+        final File destination = new File( deployDir, "app.war" );
+        new WarDeployer( WarDeployer.Mode.ARCHIVE ).deploy( packaged, destination );
+        final byte[] deployed = Files.readAllBytes( destination.toPath() );
+
+        WarDeployer.detachPackagedWars( projectDir );
+        Files.write( packaged.toPath(), "repackaged".getBytes( StandardCharsets.UTF_8 ) );
+
+        assertArrayEquals( deployed, Files.readAllBytes( destination.toPath() ) );
+    }
+
+    @Test
+    public void explodedWritesOnlyChangedEntries() throws IOException {
+        final WarDeployer deployer = new WarDeployer( WarDeployer.Mode.EXPLODED );
+        final File destination = new File( deployDir, "app.war" );
+
+        assertEquals( 2, deployer.deploy( war( "index.html", "a", "WEB-INF/web.xml", "<web-app/>" ), destination ) );
+        Files.write( new File( deployDir, "app.war.deployed" ).toPath(), new byte[0] );
+        new File( deployDir, "app.war.dodeploy" ).delete();
+
+        assertEquals( 1, deployer.deploy( war( "index.html", "b", "WEB-INF/web.xml", "<web-app/>" ), destination ) );
+        assertEquals( "b", new String( Files.readAllBytes( new File( destination, "index.html" ).toPath() ), StandardCharsets.UTF_8 ) );
+        assertTrue( new File( deployDir, "app.war.dodeploy" ).exists() );
+    }
+
+    @Test
+    public void explodedRemovesStaleEntries() throws IOException {
+        final WarDeployer deployer = new WarDeployer( WarDeployer.Mode.EXPLODED );
+        final File destination = new File( deployDir, "app.war" );
+
+        deployer.deploy( war( "index.html", "a", "js/old.js", "old" ), destination );
+        deployer.deploy( war( "index.html", "a" ), destination );
+
+        assertTrue( new File( destination, "index.html" ).isFile() );
+        assertFalse( new File( destination, "js" ).exists() );
+    }
+
+    @Test
+    public void unchangedExplodedDeploymentIsNotRedeployed() throws IOException {
+        final WarDeployer deployer = new WarDeployer( WarDeployer.Mode.EXPLODED );
+        final File destination = new File( deployDir, "app.war" );
+        deployer.deploy( war( "index.html", "a" ), destination );
+        Files.write( new File( deployDir, "app.war.deployed" ).toPath(), new byte[0] );
+        new File( deployDir, "app.war.dodeploy" ).delete();
+
+        assertEquals( 0, deployer.deploy( war( "index.html", "a" ), destination ) );
+        assertFalse( new File( deployDir, "app.war.dodeploy" ).exists() );
+    }
+
+    @Test
+    public void switchingModesReplacesDeployment() throws IOException {
+        final File destination = new File( deployDir, "app.war" );
+        new WarDeployer( WarDeployer.Mode.EXPLODED ).deploy( war( "index.html", "a" ), destination );
+
+        new WarDeployer( WarDeployer.Mode.ARCHIVE ).deploy( war( "index.html", "a" ), destination );
+
+        assertTrue( destination.isFile() );
+    }
+
+    private File war( final String... namesAndContents ) throws IOException {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        for ( int i = 0; i < namesAndContents.length; i += 2 ) {
+            entries.put( namesAndContents[i], namesAndContents[i + 1] );
+        }
+
+        final File war = new File( workDir, "app.war" );
+        try ( OutputStream out = Files.newOutputStream( war.toPath() );
+              ZipOutputStream zip = new ZipOutputStream( out ) ) {
+            for ( final Map.Entry<String, String> entry : entries.entrySet() ) {
+                zip.putNextEntry( new ZipEntry( entry.getKey() ) );
+                zip.write( entry.getValue().getBytes( StandardCharsets.UTF_8 ) );
+                zip.closeEntry();
+            }
+        }
+
+        return war;
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.build.fingerprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.appformer.backend.server.service.build.cache.WarArtifactCache;
+
+import static org.junit.Assert.*;
+
+public class IncrementalBuildPlannerTest {
+
+    private File workDir;
+    private File projectDir;
+    private File storeFile;
+    private File cacheDir;
+    private IncrementalBuildPlanner planner;
+
+    @Before
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory( "planner" ).toFile();
+        projectDir = new File( workDir, "project" );
+        storeFile = new File( workDir, "fingerprints.properties" );
+        cacheDir = new File( workDir, "war-cache" );
+
+        write( "pom.xml", "<project/>" );
+        write( "src/main/java/org/example/client/local/PersonFormView.java", "class PersonFormView {}" );
+        write( "src/main/java/org/example/server/PersonEntityService.java", "class PersonEntityService {}" );
+        write( "src/main/resources/META-INF/persistence.xml", "<persistence/>" );
+        write( "target/project.war", "war" );
+
+        planner = newPlanner();
+    }
+
+    @After
+    public void cleanup() {
+        FileUtils.deleteQuietly( workDir );
+    }
+
+    @Test
+    public void firstBuildIsClean() {
+        assertEquals( BuildPlan.CLEAN_PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void unchangedProjectIsSkipped() {
+        buildSuccessfully();
+
+        assertEquals( BuildPlan.SKIP, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void serverChangeOnlyCompiles() throws IOException {
+        buildSuccessfully();
+        write( "src/main/java/org/example/server/PersonEntityService.java", "class PersonEntityService { int x; }" );
+
+        assertEquals( BuildPlan.COMPILE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void rebuildDoesNotReusePackagedWarFile() throws IOException {
+        buildSuccessfully();
+        write( "src/main/java/org/example/server/PersonEntityService.java", "class PersonEntityService { int x; }" );
+        plan( planner, projectDir );
+
+        assertFalse( new File( projectDir, "target/project.war" ).exists() );
+    }
+
+    @Test
+    public void resourceChangeOnlyCompiles() throws IOException {
+        buildSuccessfully();
+        write( "src/main/resources/META-INF/persistence.xml", "<persistence version=\"2.1\"/>" );
+
+        assertEquals( BuildPlan.COMPILE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void clientChangeRunsGwtCompile() throws IOException {
+        buildSuccessfully();
+        write( "src/main/java/org/example/client/local/PersonFormView.java", "class PersonFormView { int x; }" );
+
+        assertEquals( BuildPlan.PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void rootPackageDataObjectChangeRunsGwtCompile() throws IOException {
+        write( "src/main/java/org/example/Person.java", "@Portable @Entity class Person {}" );
+        buildSuccessfully();
+        write( "src/main/java/org/example/Person.java", "@Portable @Entity class Person { int age; }" );
+
+        assertEquals( BuildPlan.PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void moduleSourceChangeRunsGwtCompile() throws IOException {
+        write( "src/main/resources/org/example/App.gwt.xml", "<module><source path=\"shared\"/></module>" );
+        write( "src/main/java/org/example/shared/Constants.java", "class Constants {}" );
+        buildSuccessfully();
+        write( "src/main/java/org/example/shared/Constants.java", "class Constants { int x; }" );
+
+        assertEquals( BuildPlan.PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void pomChangeRunsCleanBuild() throws IOException {
+        buildSuccessfully();
+        write( "pom.xml", "<project><version>2</version></project>" );
+
+        assertEquals( BuildPlan.CLEAN_PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void missingWarIsRestoredFromCache() {
+        buildSuccessfully();
+        FileUtils.deleteQuietly( new File( projectDir, "target" ) );
+
+        assertEquals( BuildPlan.SKIP, plan( planner, projectDir ) );
+        assertTrue( new File( projectDir, "target/project.war" ).isFile() );
+    }
+
+    @Test
+    public void restoredWarIsNotUsedForIncrementalBuilds() throws IOException {
+        buildSuccessfully();
+        FileUtils.deleteQuietly( new File( projectDir, "target" ) );
+        buildSuccessfully();
+        write( "src/main/java/org/example/server/PersonEntityService.java", "class PersonEntityService { int x; }" );
+
+        assertEquals( BuildPlan.CLEAN_PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void identicalSourcesElsewhereUseCachedWar() throws IOException {
+        buildSuccessfully();
+        final File otherDir = new File( workDir, "other/project" );
+        FileUtils.copyDirectory( new File( projectDir, "src" ), new File( otherDir, "src" ) );
+        FileUtils.copyFile( new File( projectDir, "pom.xml" ), new File( otherDir, "pom.xml" ) );
+
+        assertEquals( BuildPlan.SKIP, plan( planner, otherDir ) );
+        assertTrue( new File( otherDir, "target/project.war" ).isFile() );
+    }
+
+    @Test
+    public void otherBuildPropertiesDoNotUseCachedWar() {
+        buildSuccessfully();
+        FileUtils.deleteQuietly( new File( projectDir, "target" ) );
+        final Properties properties = new Properties();
+        properties.setProperty( BuildPlan.GWT_COMPILER_SKIP, "true" );
+
+        assertEquals( BuildPlan.CLEAN_PACKAGE, planner.plan( "project", projectDir, properties ) );
+    }
+
+    @Test
+    public void productionBuildAfterDevModeBuildIsNotSkipped() {
+        final Properties devMode = new Properties();
+        devMode.setProperty( BuildPlan.GWT_COMPILER_SKIP, "true" );
+        planner.plan( "project", projectDir, devMode );
+        packageWar();
+        planner.buildSucceeded( projectDir );
+
+        assertEquals( BuildPlan.SKIP, planner.plan( "project", projectDir, devMode ) );
+        assertEquals( BuildPlan.CLEAN_PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void fingerprintInOldFormatIsIgnored() throws IOException {
+        final Properties fingerprints = new Properties();
+        fingerprints.setProperty( projectDir.getAbsolutePath(), "pom:client:server:resources" );
+        try ( OutputStream out = Files.newOutputStream( storeFile.toPath() ) ) {
+            fingerprints.store( out, null );
+        }
+
+        assertEquals( BuildPlan.CLEAN_PACKAGE, plan( newPlanner(), projectDir ) );
+    }
+
+    @Test
+    public void failedBuildForgetsFingerprint() throws IOException {
+        buildSuccessfully();
+        write( "src/main/java/org/example/server/PersonEntityService.java", "class PersonEntityService { int x; }" );
+        plan( planner, projectDir );
+        planner.buildFailed( projectDir );
+
+        assertEquals( BuildPlan.CLEAN_PACKAGE, plan( planner, projectDir ) );
+    }
+
+    @Test
+    public void fingerprintsSurviveRestart() {
+        buildSuccessfully();
+
+        final IncrementalBuildPlanner restarted = newPlanner();
+
+        assertEquals( BuildPlan.SKIP, plan( restarted, projectDir ) );
+    }
+
+    @Test
+    public void projectIsFoundInParentDir() {
+        plan( planner, workDir );
+        packageWar();
+        planner.buildSucceeded( workDir );
+
+        assertEquals( BuildPlan.SKIP, plan( planner, projectDir ) );
+    }
+
+    private IncrementalBuildPlanner newPlanner() {
+        return new IncrementalBuildPlanner( new BuildFingerprintStore( storeFile ), new WarArtifactCache( cacheDir, Long.MAX_VALUE ) );
+    }
+
+    private static BuildPlan plan( final IncrementalBuildPlanner planner, final File dir ) {
+        return planner.plan( "project", dir, new Properties() );
+    }
+
+    private void buildSuccessfully() {
+        plan( planner, projectDir );
+        packageWar();
+        planner.buildSucceeded( projectDir );
+    }
+
+    private void packageWar() {
+        final File war = new File( projectDir, "target/project.war" );
+        if ( !war.exists() ) {
+            try {
+                write( "target/project.war", "war" );
+            } catch ( final IOException e ) {
+                throw new RuntimeException( e );
+            }
+        }
+    }
+
+    private void write( final String path, final String content ) throws IOException {
+        final File file = new File( projectDir, path );
+        file.getParentFile().mkdirs();
+        Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+}
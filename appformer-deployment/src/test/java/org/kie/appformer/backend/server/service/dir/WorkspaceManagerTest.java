@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.dir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WorkspaceManagerTest {
+
+    private static final long NO_QUOTA = Long.MAX_VALUE;
+    private static final long MAX_IDLE_MILLIS = TimeUnit.HOURS.toMillis( 1 );
+
+    private final WorkspaceKey users = new WorkspaceKey( "users", "master" );
+    private final WorkspaceKey orders = new WorkspaceKey( "orders", "master" );
+    private final AtomicLong time = new AtomicLong( 1000 );
+
+    private File workDir;
+    private File root;
+
+    @Before
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory( "workspaces" ).toFile();
+        root = new File( workDir, "root" );
+    }
+
+    @After
+    public void cleanup() {
+        FileUtils.deleteQuietly( workDir );
+    }
+
+    @Test
+    public void leasesAreExclusive() throws IOException {
+        final WorkspaceManager manager = manager( NO_QUOTA );
+
+        final Workspace first = manager.acquire( users );
+        final Workspace second = manager.acquire( users );
+
+        assertNotEquals( first.getDir(), second.getDir() );
+        assertTrue( first.getDir().isDirectory() );
+        assertTrue( second.getDir().isDirectory() );
+    }
+
+    @Test
+    public void releasedWorkspaceIsReusedForSameProjectOnly() throws IOException {
+        final WorkspaceManager manager = manager( NO_QUOTA );
+        final Workspace first = manager.acquire( users );
+        write( first, "target/classes/A.class", "compiled" );
+        first.release();
+
+        assertNotEquals( first.getDir(), manager.acquire( orders ).getDir() );
+        final Workspace reused = manager.acquire( users );
+
+        assertEquals( first.getDir(), reused.getDir() );
+        assertTrue( new File( reused.getDir(), "target/classes/A.class" ).exists() );
+        assertEquals( 2, manager.getWorkspaceCount() );
+    }
+
+    @Test
+    public void leastRecentlyUsedIdleWorkspaceIsEvictedOverQuota() throws IOException {
+        final WorkspaceManager manager = manager( 150 );
+        final Workspace first = manager.acquire( users );
+        write( first, "a", 100 );
+        first.release();
+        time.addAndGet( 10 );
+
+        final Workspace second = manager.acquire( orders );
+        write( second, "b", 100 );
+        second.release();
+
+        assertFalse( first.getDir().exists() );
+        assertFalse( new File( root, first.getDir().getName() + WorkspaceManager.MARKER_SUFFIX ).exists() );
+        assertTrue( second.getDir().exists() );
+        assertEquals( 100, manager.getTotalSize() );
+    }
+
+    @Test
+    public void leasedWorkspaceIsNotEvicted() throws IOException {
+        final WorkspaceManager manager = manager( 50 );
+        final Workspace leased = manager.acquire( users );
+        write( leased, "a", 100 );
+
+        final Workspace other = manager.acquire( orders );
+        write( other, "b", 100 );
+        other.release();
+
+        assertTrue( leased.getDir().exists() );
+        assertFalse( other.getDir().exists() );
+    }
+
+    @Test
+    public void idleWorkspaceExpires() throws IOException {
+        final WorkspaceManager manager = manager( NO_QUOTA );
+        final Workspace workspace = manager.acquire( users );
+        workspace.release();
+
+        time.addAndGet( MAX_IDLE_MILLIS );
+        manager.evict();
+
+        assertFalse( workspace.getDir().exists() );
+        assertEquals( 0, manager.getWorkspaceCount() );
+    }
+
+    @Test
+    public void startupKeepsWorkspacesAndSweepsOrphans() throws IOException {
+        final Workspace workspace = manager( NO_QUOTA ).acquire( users );
+        write( workspace, "pom.xml", "<project/>" );
+        workspace.release();
+        final File orphan = new File( root, "users12345-session" );
+        orphan.mkdirs();
+        final File strayMarker = new File( root, "gone" + WorkspaceManager.MARKER_SUFFIX );
+        strayMarker.createNewFile();
+
+        final WorkspaceManager restarted = manager( NO_QUOTA );
+
+        assertFalse( orphan.exists() );
+        assertFalse( strayMarker.exists() );
+        assertEquals( 1, restarted.getWorkspaceCount() );
+        assertEquals( "<project/>".length(), restarted.getTotalSize() );
+        assertEquals( workspace.getDir(), restarted.acquire( users ).getDir() );
+    }
+
+    private WorkspaceManager manager( final long maxSizeBytes ) {
+        return new WorkspaceManager( root, maxSizeBytes, MAX_IDLE_MILLIS, time::get );
+    }
+
+    private static void write( final Workspace workspace, final String path, final int size ) throws IOException {
+        write( workspace, path, new String( new char[ size ] ).replace( '\0', 'x' ) );
+    }
+
+    private static void write( final Workspace workspace, final String path, final String content ) throws IOException {
+        final File file = new File( workspace.getDir(), path );
+        file.getParentFile().mkdirs();
+        Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+}
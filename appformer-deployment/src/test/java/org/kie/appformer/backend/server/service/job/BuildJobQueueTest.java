@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.job;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BuildJobQueueTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+    private final BuildJobQueue queue = new BuildJobQueue( executor );
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void workRunsAsItsJobOnAnotherThread() throws Exception {
+        final BuildJob job = job( "users" );
+        final Thread caller = Thread.currentThread();
+        final List<Object> seen = new CopyOnWriteArrayList<>();
+
+        queue.submit( job, () -> {
+            seen.add( BuildJob.current().orElse( null ) );
+            seen.add( Thread.currentThread() );
+        } ).get( 5, TimeUnit.SECONDS );
+
+        assertSame( job, seen.get( 0 ) );
+        assertNotSame( caller, seen.get( 1 ) );
+        assertFalse( BuildJob.current().isPresent() );
+    }
+
+    @Test
+    public void jobsOfSameProjectRunInOrder() throws Exception {
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final List<String> order = new CopyOnWriteArrayList<>();
+
+        queue.submit( job( "users" ), () -> {
+            await( release );
+            order.add( "first" );
+        } );
+        queue.submit( job( "users" ), () -> {
+            throw new RuntimeException( "failed" );
+        } );
+        final CompletableFuture<Void> last = queue.submit( job( "users" ), () -> order.add( "third" ) );
+
+        assertFalse( last.isDone() );
+        release.countDown();
+        last.get( 5, TimeUnit.SECONDS );
+
+        assertEquals( 2, order.size() );
+        assertEquals( "first", order.get( 0 ) );
+        assertEquals( "third", order.get( 1 ) );
+    }
+
+    @Test
+    public void jobsOfOtherProjectsRunConcurrently() throws Exception {
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final CompletableFuture<Void> users = queue.submit( job( "users" ), () -> await( release ) );
+
+        queue.submit( job( "orders" ), () -> {
+        } ).get( 5, TimeUnit.SECONDS );
+
+        assertFalse( users.isDone() );
+        release.countDown();
+    }
+
+    @Test
+    public void contextualExecutorRunsTasksAsSubmittingJob() throws Exception {
+        final BuildJob job = job( "users" );
+        final CompletableFuture<BuildJob> seen = new CompletableFuture<>();
+
+        queue.submit( job, () -> BuildJob.contextual( executor ).execute( () -> seen.complete( BuildJob.current().orElse( null ) ) ) );
+
+        assertSame( job, seen.get( 5, TimeUnit.SECONDS ) );
+    }
+
+    private static BuildJob job( final String project ) {
+        return new BuildJob( project, "pipeline", null, null, null );
+    }
+
+    private static void await( final CountDownLatch latch ) {
+        try {
+            latch.await( 5, TimeUnit.SECONDS );
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.kie.appformer.client.shared.PipelineStatistics;
+import org.kie.appformer.client.shared.TimingStatistics;
+
+import static org.junit.Assert.*;
+
+public class PipelineMetricsTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final PipelineMetrics metrics = new PipelineMetrics( nanos::get );
+
+    @Test
+    public void recordsWallTimeQueueWaitAndStagesInOrder() {
+        metrics.markQueued();
+        advance( 5 );
+        metrics.pipelineStarted( "wildfly pipeline" );
+        runStage( "Git Source", 100, true );
+        runStage( "Maven Build", 2000, true );
+        runStage( "Wildfly Runtime Exec", 300, true );
+        metrics.pipelineFinished( true );
+
+        final PipelineStatistics pipeline = single( metrics.getStatistics() );
+        assertEquals( "wildfly pipeline", pipeline.getName() );
+        assertEquals( 1, pipeline.getWallTime().getSuccesses() );
+        assertEquals( 2400, pipeline.getWallTime().getMaxMillis() );
+        assertEquals( 5, pipeline.getQueueWait().getP50Millis() );
+        assertEquals( 3, pipeline.getStages().size() );
+        assertEquals( "Git Source", pipeline.getStages().get( 0 ).getName() );
+        assertEquals( "Maven Build", pipeline.getStages().get( 1 ).getName() );
+        assertEquals( 2000, pipeline.getStages().get( 1 ).getP99Millis() );
+        assertEquals( "Wildfly Runtime Exec", pipeline.getStages().get( 2 ).getName() );
+    }
+
+    @Test
+    public void failedStageIsCountedOnce() {
+        metrics.pipelineStarted( "wildfly pipeline" );
+        metrics.stageStarted( "Maven Build" );
+        advance( 50 );
+        metrics.stageFinished( "Maven Build", false );
+        metrics.stageFinished( "Maven Build", true );
+        metrics.pipelineFinished( false );
+
+        final PipelineStatistics pipeline = single( metrics.getStatistics() );
+        final TimingStatistics build = pipeline.getStages().get( 0 );
+        assertEquals( 0, build.getSuccesses() );
+        assertEquals( 1, build.getFailures() );
+        assertEquals( 1, pipeline.getWallTime().getFailures() );
+        assertEquals( 0, pipeline.getQueueWait().getSamples() );
+    }
+
+    @Test
+    public void measuredStageTimeTakesPrecedenceOverEvents() {
+        metrics.pipelineStarted( "wildfly pipeline" );
+        metrics.stageStarted( "Wildfly Provider Config" );
+        advance( 2000 );
+        metrics.stageExecuted( "Wildfly Provider Config", 20, true );
+        metrics.stageFinished( "Wildfly Provider Config", true );
+        metrics.pipelineFinished( true );
+
+        final TimingStatistics provider = single( metrics.getStatistics() ).getStages().get( 0 );
+        assertEquals( 1, provider.getSuccesses() );
+        assertEquals( 20, provider.getMaxMillis() );
+    }
+
+    @Test
+    public void percentilesAreTakenOverRecentSamples() {
+        for ( int i = 1; i <= PipelineMetrics.WINDOW_SIZE + 100; i++ ) {
+            metrics.pipelineStarted( "sdm pipeline" );
+            advance( i <= 100 ? 100000 : i );
+            metrics.pipelineFinished( true );
+        }
+
+        final TimingStatistics wallTime = single( metrics.getStatistics() ).getWallTime();
+        assertEquals( PipelineMetrics.WINDOW_SIZE + 100, wallTime.getSuccesses() );
+        assertEquals( PipelineMetrics.WINDOW_SIZE, wallTime.getSamples() );
+        assertEquals( 350, wallTime.getP50Millis() );
+        assertEquals( 550, wallTime.getP90Millis() );
+        assertEquals( 595, wallTime.getP99Millis() );
+        assertEquals( 600, wallTime.getMaxMillis() );
+    }
+
+    @Test
+    public void stageEventsOutsideOfPipelineAreIgnored() {
+        metrics.stageStarted( "Git Source" );
+        metrics.stageFinished( "Git Source", true );
+        metrics.pipelineFinished( true );
+
+        assertTrue( metrics.getStatistics().isEmpty() );
+    }
+
+    private void runStage( final String stage, final long millis, final boolean successful ) {
+        metrics.stageStarted( stage );
+        advance( millis );
+        metrics.stageFinished( stage, successful );
+    }
+
+    private void advance( final long millis ) {
+        nanos.addAndGet( TimeUnit.MILLISECONDS.toNanos( millis ) );
+    }
+
+    private static PipelineStatistics single( final List<PipelineStatistics> statistics ) {
+        assertEquals( 1, statistics.size() );
+        return statistics.get( 0 );
+    }
+
+}
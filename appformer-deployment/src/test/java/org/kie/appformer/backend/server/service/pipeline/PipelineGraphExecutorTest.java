@@ -0,0 +1,384 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server.service.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.guvnor.ala.config.Config;
+import org.guvnor.ala.pipeline.ConfigExecutor;
+import org.guvnor.ala.pipeline.Input;
+import org.guvnor.ala.pipeline.Pipeline;
+import org.guvnor.ala.pipeline.Stage;
+import org.guvnor.ala.pipeline.events.AfterPipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.AfterStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.BeforePipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.BeforeStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.OnErrorPipelineExecutionEvent;
+import org.guvnor.ala.pipeline.events.OnErrorStageExecutionEvent;
+import org.guvnor.ala.pipeline.events.PipelineEventListener;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.guvnor.ala.pipeline.StageUtil.config;
+import static org.junit.Assert.*;
+
+public class PipelineGraphExecutorTest {
+
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private final RecordingListener listener = new RecordingListener();
+    private final Pipeline pipeline = new Pipeline() {
+
+        @Override
+        public String getName() {
+            return "wildfly pipeline";
+        }
+
+        @Override
+        public List<Stage> getStages() {
+            return Collections.emptyList();
+        }
+    };
+
+    @After
+    public void cleanup() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void backgroundStageRunsAlongsideForegroundStages() {
+        final CountDownLatch providerStarted = new CountDownLatch( 1 );
+        final List<Object> runtimeInputs = new ArrayList<>();
+        final Stage<Object, Object> source = stage( "Git Source", input -> "source" );
+        final Stage<Object, Object> build = stage( "Maven Build", input -> {
+            assertEquals( "source", input );
+            await( providerStarted );
+            return "binary";
+        } );
+        final Stage<Object, Object> provider = stage( "Wildfly Provider Config", input -> {
+            assertTrue( input instanceof Input );
+            providerStarted.countDown();
+            return "provider";
+        } );
+        final Stage<Object, Object> runtime = stage( "Wildfly Runtime Exec", input -> {
+            runtimeInputs.add( input );
+            return "runtime";
+        } );
+
+        execute( PipelineGraph.of( pipeline )
+                         .stage( source )
+                         .stage( build, source )
+                         .backgroundStage( provider )
+                         .stage( runtime, build, provider )
+                         .build() );
+
+        assertEquals( Collections.singletonList( "binary" ), runtimeInputs );
+        assertEquals( 4, listener.after.size() );
+    }
+
+    @Test
+    public void typedStagesReceiveOutputOfTheirFirstDependency() {
+        final Stage<Input, FakeConfig> build = config( "Maven Build", (Function<Input, FakeConfig>) input -> new FakeConfig( "Maven Build", new FakeBinary() ) );
+        final Stage<Input, FakeConfig> provider = config( "Wildfly Provider Config", (Function<Input, FakeConfig>) input -> new FakeConfig( "Wildfly Provider Config", new FakeProvider() ) );
+        final Stage<FakeProvider, FakeConfig> runtime = config( "Wildfly Runtime Exec", (Function<FakeProvider, FakeConfig>) p -> new FakeConfig( "Wildfly Runtime Exec", "runtime" ) );
+        final List<Object> outputs = new ArrayList<>();
+
+        new PipelineGraphExecutor( Collections.singletonList( new FakeConfigExecutor() ), workers )
+                .execute( new Input(),
+                          PipelineGraph.of( pipeline )
+                                  .stage( build )
+                                  .backgroundStage( provider )
+                                  .stage( runtime, provider, build )
+                                  .build(),
+                          outputs::add,
+                          listener );
+
+        assertEquals( Collections.singletonList( "runtime" ), outputs );
+        assertFalse( listener.events.contains( "error Wildfly Runtime Exec" ) );
+    }
+
+    @Test
+    public void backgroundStageIsTimedWhileItRuns() {
+        final Map<String, Long> durations = new ConcurrentHashMap<>();
+        final Stage<Object, Object> build = stage( "Maven Build", input -> {
+            sleep( 300 );
+            return "binary";
+        } );
+        final Stage<Object, Object> provider = stage( "Wildfly Provider Config", input -> "provider" );
+        final Stage<Object, Object> runtime = stage( "Wildfly Runtime Exec", input -> "runtime" );
+
+        new PipelineGraphExecutor( Collections.singletonList( new FakeConfigExecutor() ),
+                                   workers,
+                                   ( stage, durationMillis, successful ) -> durations.put( stage, durationMillis ) )
+                .execute( new Input(),
+                          PipelineGraph.of( pipeline )
+                                  .backgroundStage( provider )
+                                  .stage( build )
+                                  .stage( runtime, provider, build )
+                                  .build(),
+                          listener );
+
+        assertEquals( 3, durations.size() );
+        assertTrue( durations.get( "Maven Build" ) >= 300 );
+        assertTrue( durations.get( "Wildfly Provider Config" ) < 200 );
+    }
+
+    @Test
+    public void eventsAreDeliveredOnCallingThreadInOrder() {
+        final Stage<Object, Object> source = stage( "Git Source", input -> "source" );
+        final Stage<Object, Object> provider = stage( "Wildfly Provider Config", input -> "provider" );
+        final Stage<Object, Object> runtime = stage( "Wildfly Runtime Exec", input -> "runtime" );
+
+        execute( PipelineGraph.of( pipeline )
+                         .stage( source )
+                         .backgroundStage( provider )
+                         .stage( runtime, source, provider )
+                         .build() );
+
+        assertEquals( Collections.singleton( Thread.currentThread() ), listener.threads.stream().collect( Collectors.toSet() ) );
+        assertEquals( "before pipeline", listener.events.get( 0 ) );
+        assertEquals( "after pipeline", listener.events.get( listener.events.size() - 1 ) );
+        for ( final String stage : new String[]{ "Git Source", "Wildfly Provider Config", "Wildfly Runtime Exec" } ) {
+            assertTrue( listener.events.indexOf( "before " + stage ) < listener.events.indexOf( "after " + stage ) );
+        }
+        assertTrue( listener.events.indexOf( "after Wildfly Provider Config" ) < listener.events.indexOf( "before Wildfly Runtime Exec" ) );
+    }
+
+    @Test
+    public void failedStageStopsDependentStages() {
+        final Stage<Object, Object> source = stage( "Git Source", input -> "source" );
+        final Stage<Object, Object> build = stage( "Maven Build", input -> {
+            throw new IllegalStateException( "compilation failed" );
+        } );
+        final Stage<Object, Object> provider = stage( "Wildfly Provider Config", input -> "provider" );
+        final Stage<Object, Object> runtime = stage( "Wildfly Runtime Exec", input -> {
+            fail( "Runtime must not be deployed after a failed build." );
+            return null;
+        } );
+
+        try {
+            execute( PipelineGraph.of( pipeline )
+                             .stage( source )
+                             .stage( build, source )
+                             .backgroundStage( provider )
+                             .stage( runtime, build, provider )
+                             .build() );
+            fail( "The pipeline should have failed." );
+        } catch ( final RuntimeException e ) {
+            assertEquals( "compilation failed", e.getCause().getMessage() );
+        }
+
+        assertTrue( listener.events.contains( "error Maven Build" ) );
+        assertTrue( listener.events.contains( "error pipeline" ) );
+        assertFalse( listener.events.contains( "before Wildfly Runtime Exec" ) );
+        assertFalse( listener.events.contains( "after pipeline" ) );
+    }
+
+    @Test
+    public void criticalPathFollowsSlowestDependencies() {
+        final Stage<Object, Object> source = stage( "Git Source", input -> "source" );
+        final Stage<Object, Object> build = stage( "Maven Build", input -> {
+            sleep( 100 );
+            return "binary";
+        } );
+        final Stage<Object, Object> provider = stage( "Wildfly Provider Config", input -> "provider" );
+        final Stage<Object, Object> runtime = stage( "Wildfly Runtime Exec", input -> "runtime" );
+
+        final CriticalPath criticalPath = execute( PipelineGraph.of( pipeline )
+                                                           .stage( source )
+                                                           .stage( build, source )
+                                                           .backgroundStage( provider )
+                                                           .stage( runtime, provider, build )
+                                                           .build() );
+
+        assertEquals( "wildfly pipeline", criticalPath.getPipeline() );
+        assertEquals( asList( "Git Source", "Maven Build", "Wildfly Runtime Exec" ),
+                      criticalPath.getStages().stream().map( CriticalPath.StageTiming::getName ).collect( Collectors.toList() ) );
+        assertTrue( criticalPath.getStages().get( 1 ).getDurationMillis() >= 100 );
+        assertTrue( criticalPath.getTotalMillis() >= 100 );
+    }
+
+    @Test
+    public void callbackReceivesOutputsOfFinalStages() {
+        final Stage<Object, Object> source = stage( "Git Source", input -> "source" );
+        final Stage<Object, Object> provider = stage( "Wildfly Provider Config", input -> "provider" );
+        final Stage<Object, Object> runtime = stage( "Wildfly Runtime Exec", input -> "runtime" );
+        final List<Object> outputs = new ArrayList<>();
+
+        new PipelineGraphExecutor( Collections.singletonList( new FakeConfigExecutor() ), workers )
+                .execute( new Input(),
+                          PipelineGraph.of( pipeline )
+                                  .stage( source )
+                                  .backgroundStage( provider )
+                                  .stage( runtime, source, provider )
+                                  .build(),
+                          outputs::add,
+                          listener );
+
+        assertEquals( Collections.singletonList( "runtime" ), outputs );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void dependenciesMustBeAddedFirst() {
+        final Stage<Object, Object> source = stage( "Git Source", input -> "source" );
+        final Stage<Object, Object> build = stage( "Maven Build", input -> "binary" );
+
+        PipelineGraph.of( pipeline ).stage( build, source );
+    }
+
+    private CriticalPath execute( final PipelineGraph graph ) {
+        final PipelineGraphExecutor executor = new PipelineGraphExecutor( Collections.singletonList( new FakeConfigExecutor() ), workers );
+        return executor.execute( new Input(), graph, listener );
+    }
+
+    private static List<String> asList( final String... values ) {
+        final List<String> list = new ArrayList<>();
+        Collections.addAll( list, values );
+        return list;
+    }
+
+    private static Stage<Object, Object> stage( final String name, final Function<Object, Object> work ) {
+        return new Stage<Object, Object>() {
+
+            @Override
+            public void execute( final Object input, final Consumer<Object> callback ) {
+                callback.accept( new FakeConfig( name, work.apply( input ) ) );
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static void await( final CountDownLatch latch ) {
+        try {
+            assertTrue( "Background stage did not run concurrently.", latch.await( 5, TimeUnit.SECONDS ) );
+        } catch ( final InterruptedException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private static void sleep( final long millis ) {
+        try {
+            Thread.sleep( millis );
+        } catch ( final InterruptedException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private static class FakeConfig implements Config {
+
+        private final String name;
+        private final Object output;
+
+        private FakeConfig( final String name, final Object output ) {
+            this.name = name;
+            this.output = output;
+        }
+
+    }
+
+    private static class FakeBinary {
+
+    }
+
+    private static class FakeProvider {
+
+    }
+
+    private static class FakeConfigExecutor implements ConfigExecutor<FakeConfig, Object> {
+
+        @Override
+        public Optional<Object> apply( final FakeConfig config ) {
+            return Optional.ofNullable( config.output );
+        }
+
+        @Override
+        public Class<? extends Config> executeFor() {
+            return FakeConfig.class;
+        }
+
+        @Override
+        public String outputId() {
+            return "fake";
+        }
+
+        @Override
+        public String inputId() {
+            return "fake";
+        }
+
+    }
+
+    private static class RecordingListener implements PipelineEventListener {
+
+        private final List<String> events = Collections.synchronizedList( new ArrayList<>() );
+        private final List<Thread> threads = Collections.synchronizedList( new ArrayList<>() );
+        private final List<String> after = Collections.synchronizedList( new ArrayList<>() );
+
+        private void record( final String event ) {
+            events.add( event );
+            threads.add( Thread.currentThread() );
+        }
+
+        @Override
+        public void beforePipelineExecution( final BeforePipelineExecutionEvent event ) {
+            record( "before pipeline" );
+        }
+
+        @Override
+        public void afterPipelineExecution( final AfterPipelineExecutionEvent event ) {
+            record( "after pipeline" );
+        }
+
+        @Override
+        public void beforeStageExecution( final BeforeStageExecutionEvent event ) {
+            record( "before " + event.getStage().getName() );
+        }
+
+        @Override
+        public void onStageError( final OnErrorStageExecutionEvent event ) {
+            record( "error " + event.getStage().getName() );
+        }
+
+        @Override
+        public void afterStageExecution( final AfterStageExecutionEvent event ) {
+            record( "after " + event.getStage().getName() );
+            after.add( event.getStage().getName() );
+        }
+
+        @Override
+        public void onPipelineError( final OnErrorPipelineExecutionEvent event ) {
+            record( "error pipeline" );
+        }
+
+    }
+
+}
@@ -16,12 +16,37 @@
 
 package org.kie.appformer.formmodeler.codegen;
 
+import java.util.Map;
+
 import org.kie.workbench.common.forms.model.FormDefinition;
 import org.uberfire.backend.vfs.Path;
+import org.uberfire.java.nio.base.options.CommentedOption;
 
 public interface FormSourcesGenerator {
 
     void generateEntityFormSources( FormDefinition form, Path resourcePath );
 
+    /**
+     * Generates the sources of the entity forms of a data object, and writes all of them with the given option.
+     *
+     * @param commentedOption
+     *            The option to commit with, such as one made while the request that changed the data object was active.
+     */
+    void generateEntityFormSources( FormDefinition form, Path resourcePath, CommentedOption commentedOption );
+
+    /**
+     * Generates the sources of the entity forms of several data objects of one project, and writes all of them in a
+     * single batch with one commit message.
+     *
+     * @param forms
+     *            The forms to generate, by the path of their data object.
+     */
+    void generateEntityFormSources( Map<Path, FormDefinition> forms );
+
     void generateFormSources( FormDefinition form, Path resourcePath );
+
+    /**
+     * @return An option committing as the user of the current request, or as the system outside of any request.
+     */
+    CommentedOption makeCommentedOption( String commitMessage );
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+
+import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.services.datamodeller.core.DataObject;
+import org.kie.workbench.common.services.shared.project.KieProject;
+
+/**
+ * Provides the data objects and forms of a project to code generation. A project is loaded once and then kept up to
+ * date from resource events, so generating the sources of one data object does not reload the whole project.
+ */
+public interface ProjectModelCache {
+
+    /**
+     * @return The data object with the given class name, or null if the project has none.
+     */
+    DataObject getDataObject( KieProject project, String className );
+
+    Collection<DataObject> getDataObjects( KieProject project );
+
+    /**
+     * @return The sorted class names of the project's data objects, which only change when data objects are added or
+     *         removed.
+     */
+    SortedSet<String> getDataObjectClassNames( KieProject project );
+
+    List<FormDefinition> getForms( KieProject project );
+
+}
@@ -16,9 +16,14 @@
 
 package org.kie.appformer.formmodeler.codegen;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.kie.workbench.common.forms.model.FieldDefinition;
 import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.forms.model.impl.relations.EntityRelationField;
+import org.kie.workbench.common.services.datamodeller.core.DataObject;
 import org.uberfire.backend.vfs.Path;
 import org.guvnor.common.services.project.model.Package;
 
@@ -31,6 +36,14 @@ public class SourceGenerationContext {
     public static final String REST_IMPL_SUFFIX = "RestServiceImpl";
     public static final String FLOW_PRODUCER_SUFFIX = "FlowProducer";
 
+    private static final List<String> GENERATED_CLASS_SUFFIXES = Arrays.asList( FORM_MODEL_SUFFIX,
+                                                                               FORM_VIEW_SUFFIX,
+                                                                               LIST_VIEW_SUFFIX,
+                                                                               REST_SERVICE_SUFFIX,
+                                                                               ENTITY_SERVICE_SUFFIX,
+                                                                               REST_IMPL_SUFFIX,
+                                                                               FLOW_PRODUCER_SUFFIX );
+
     private FormDefinition formDefinition;
     private final Path path;
     private final Package root;
@@ -38,6 +51,7 @@ public class SourceGenerationContext {
     private final Package shared;
     private final Package server;
     private final List<FormDefinition> projectForms;
+    private final DataObject dataObject;
 
     public SourceGenerationContext( final FormDefinition form,
                                     final Path path,
@@ -46,15 +60,39 @@ public class SourceGenerationContext {
                                     final Package shared,
                                     final Package server,
                                     final List<FormDefinition> projectForms ) {
+        this( form, path, root, local, shared, server, projectForms, null );
+    }
+
+    /**
+     * @param dataObject
+     *            The data object the form is bound to, or null if it is unknown.
+     */
+    public SourceGenerationContext( final FormDefinition form,
+                                    final Path path,
+                                    final Package root,
+                                    final Package local,
+                                    final Package shared,
+                                    final Package server,
+                                    final List<FormDefinition> projectForms,
+                                    final DataObject dataObject ) {
         this.path = path;
         this.root = root;
         this.local = local;
         this.shared = shared;
         this.server = server;
         this.projectForms = projectForms;
+        this.dataObject = dataObject;
         setFormDefinition( form );
     }
 
+    /**
+     * @return True if the given class name, simple or qualified, is that of a class generated for a form rather than a
+     *         data object.
+     */
+    public static boolean isGeneratedClassName( final String className ) {
+        return GENERATED_CLASS_SUFFIXES.stream().anyMatch( className::endsWith );
+    }
+
     public FormDefinition getFormDefinition() {
         return formDefinition;
     }
@@ -79,6 +117,20 @@ public class SourceGenerationContext {
         return formDefinition.getName() + LIST_VIEW_SUFFIX;
     }
 
+    /**
+     * @return The fields of the form that are shown as columns of its list.
+     */
+    public List<FieldDefinition> getListColumnFields() {
+        final List<FieldDefinition> fields = new ArrayList<>();
+        for ( final FieldDefinition field : formDefinition.getFields() ) {
+            if ( !( field instanceof EntityRelationField ) ) {
+                fields.add( field );
+            }
+        }
+
+        return fields;
+    }
+
     public String getRestServiceName() {
         return formDefinition.getName() + REST_SERVICE_SUFFIX;
     }
@@ -118,4 +170,11 @@ public class SourceGenerationContext {
     public List<FormDefinition> getProjectForms() {
         return projectForms;
     }
+
+    /**
+     * @return The data object the form is bound to, or null if it is unknown.
+     */
+    public DataObject getDataObject() {
+        return dataObject;
+    }
 }
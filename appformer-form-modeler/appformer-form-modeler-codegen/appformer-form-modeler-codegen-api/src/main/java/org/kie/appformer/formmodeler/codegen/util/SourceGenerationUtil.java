@@ -61,6 +61,8 @@ public interface SourceGenerationUtil {
 
     public static final String ENTITY_SERVICE_CLASS = "org.kie.appformer.formmodeler.rendering.server.rest.BaseEntityService";
 
+    public static final String REST_PAYLOAD = "org.kie.appformer.formmodeler.rendering.server.rest.RestPayload";
+
     public static final String BASE_REST_SERVICE = "org.kie.appformer.formmodeler.rendering.client.shared.AppFormerRestService";
 
     public static final String READONLY_PARAM = "readOnly";
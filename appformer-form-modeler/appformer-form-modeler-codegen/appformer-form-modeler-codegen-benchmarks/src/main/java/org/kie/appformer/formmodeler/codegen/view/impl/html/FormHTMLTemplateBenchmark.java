@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.view.impl.html;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.inject.Instance;
+
+import org.kie.appformer.formmodeler.codegen.SourceGenerationContext;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.inputs.CheckBoxTemplateProvider;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.inputs.DatePickerTemplateProvider;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.inputs.ListBoxTemplateProvider;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.inputs.TextAreaTemplateProvider;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.inputs.TextBoxTemplateProvider;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.util.HTMLTemplateFormatter;
+import org.kie.workbench.common.forms.data.modeller.model.DataObjectFormModel;
+import org.kie.workbench.common.forms.model.FieldDefinition;
+import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.forms.model.impl.basic.textBox.TextBoxFieldDefinition;
+import org.kie.workbench.common.forms.service.FieldManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.ext.layout.editor.api.editor.LayoutColumn;
+import org.uberfire.ext.layout.editor.api.editor.LayoutComponent;
+import org.uberfire.ext.layout.editor.api.editor.LayoutRow;
+import org.uberfire.ext.layout.editor.api.editor.LayoutTemplate;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Measures the generation of the HTML template of forms with one text box per row. Run it from this module, for
+ * instance with {@code mvn -Pbenchmarks compile exec:java
+ * -Dexec.mainClass=org.kie.appformer.formmodeler.codegen.view.impl.html.FormHTMLTemplateBenchmark}, adding
+ * {@code -Dappformer.codegen.mvel_optimizer=ASM} to compare MVEL optimizers.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class FormHTMLTemplateBenchmark {
+
+    private static final String FIELD_DRAG_TYPE = "org.kie.workbench.common.forms.editor.client.editor.rendering.EditorFieldLayoutComponent";
+
+    @Param( { "20", "200", "500" } )
+    private int fieldCount;
+
+    private MVELFormHTMLTemplateSourceGenerator generator;
+    private SourceGenerationContext context;
+
+    @Setup
+    @SuppressWarnings( "unchecked" )
+    public void setup() {
+        final FieldManager fieldManager = mock( FieldManager.class );
+        final FieldDefinition definition = mock( FieldDefinition.class );
+        when( fieldManager.getDefinitionByTypeCode( anyString() ) ).thenReturn( definition );
+
+        final List<InputTemplateProvider> providers = Arrays.asList( new TextBoxTemplateProvider( fieldManager ),
+                                                                     new TextAreaTemplateProvider( fieldManager ),
+                                                                     new CheckBoxTemplateProvider( fieldManager ),
+                                                                     new DatePickerTemplateProvider( fieldManager ),
+                                                                     new ListBoxTemplateProvider( fieldManager ) );
+        final Instance<InputTemplateProvider> instance = mock( Instance.class );
+        when( instance.iterator() ).then( invocation -> providers.iterator() );
+
+        generator = new MVELFormHTMLTemplateSourceGenerator( instance, new HTMLTemplateFormatter() );
+        generator.init();
+
+        context = new SourceGenerationContext( createForm( fieldCount ), mock( Path.class ), null, null, null, null,
+                                               Collections.emptyList() );
+    }
+
+    @Benchmark
+    public String generateHTMLTemplate() {
+        return generator.generateHTMLTemplate( context );
+    }
+
+    private static FormDefinition createForm( final int fieldCount ) {
+        final FormDefinition form = new FormDefinition( new DataObjectFormModel( "employee", "org.test.Employee" ) );
+        form.setId( "org.test.Employee" );
+        form.setName( "Employee" );
+
+        final LayoutTemplate layout = new LayoutTemplate();
+        for ( int i = 0; i < fieldCount; i++ ) {
+            final TextBoxFieldDefinition field = new TextBoxFieldDefinition();
+            field.setId( "field" + i );
+            field.setName( "field" + i );
+            field.setLabel( "Field " + i );
+            form.getFields().add( field );
+
+            final LayoutComponent component = new LayoutComponent( FIELD_DRAG_TYPE );
+            component.addProperty( "field_id", field.getId() );
+            final LayoutColumn column = new LayoutColumn( "12" );
+            column.addLayoutComponent( component );
+            final LayoutRow row = new LayoutRow();
+            row.add( column );
+            layout.addRow( row );
+        }
+        form.setLayoutTemplate( layout );
+
+        return form;
+    }
+
+    public static void main( final String[] args ) throws RunnerException {
+        new Runner( new OptionsBuilder().include( FormHTMLTemplateBenchmark.class.getSimpleName() ).build() ).run();
+    }
+
+}
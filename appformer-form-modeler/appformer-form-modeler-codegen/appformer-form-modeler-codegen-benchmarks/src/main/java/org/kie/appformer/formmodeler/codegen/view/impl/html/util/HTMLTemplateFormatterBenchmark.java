@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.view.impl.html.util;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.io.HTMLWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the streaming {@link HTMLTemplateFormatter} with the dom4j parse and write round trip it replaced, on
+ * templates shaped like those of generated forms. Run it like {@code FormHTMLTemplateBenchmark}, with the
+ * {@code -prof gc} JMH option to compare allocations.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class HTMLTemplateFormatterBenchmark {
+
+    @Param( { "20", "200", "2000" } )
+    private int fieldCount;
+
+    private final HTMLTemplateFormatter formatter = new HTMLTemplateFormatter();
+    private String template;
+
+    @Setup
+    public void setup() {
+        final StringBuilder sb = new StringBuilder( "<div>\n    <form onsubmit=\"false\">\n        <fieldset>\n" );
+        for ( int i = 0; i < fieldCount; i++ ) {
+            sb.append( "            <div class=\"row\">\n" )
+                    .append( "                <div class=\"col-md-12\">\n" )
+                    .append( "            <div id=\"field" ).append( i ).append( "_form_group\" class=\"form-group\">\n" )
+                    .append( "                <label class=\"control-label\" for=\"field" ).append( i ).append( "\">Field " )
+                    .append( i ).append( "</label>\n" )
+                    .append( "                <input class=\"form-control\" id=\"field" ).append( i ).append( "\" type=\"text\"\n" )
+                    .append( "                    maxlength=\"100\"\n" )
+                    .append( "                    placeholder=\"\"\n" )
+                    .append( "                    />\n" )
+                    .append( "                <p id=\"field" ).append( i ).append( "_help_block\" class=\"help-block\"></p>\n" )
+                    .append( "            </div>\n" )
+                    .append( "                </div>\n" )
+                    .append( "            </div>\n" );
+        }
+        template = sb.append( "        </fieldset>\n    </form>\n</div>\n" ).toString();
+    }
+
+    @Benchmark
+    public String streaming() {
+        return formatter.formatHTMLCode( template );
+    }
+
+    @Benchmark
+    public String dom4j() throws Exception {
+        final Document document = DocumentHelper.parseText( template );
+        final StringWriter sw = new StringWriter();
+        new HTMLWriter( sw ).write( document );
+        return sw.toString();
+    }
+
+    public static void main( final String[] args ) throws RunnerException {
+        new Runner( new OptionsBuilder().include( HTMLTemplateFormatterBenchmark.class.getSimpleName() ).build() ).run();
+    }
+
+}
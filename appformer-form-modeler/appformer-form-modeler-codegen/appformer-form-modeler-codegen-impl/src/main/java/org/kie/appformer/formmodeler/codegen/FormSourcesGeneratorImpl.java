@@ -17,16 +17,34 @@
 package org.kie.appformer.formmodeler.codegen;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Set;
-
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.commons.lang3.StringUtils;
 import org.guvnor.common.services.backend.util.CommentedOptionFactory;
 import org.guvnor.common.services.project.model.Package;
+import org.jboss.forge.roaster.Roaster;
+import org.jboss.forge.roaster.model.source.JavaClassSource;
 import org.kie.appformer.formmodeler.codegen.ErraiAppPropertiesGenerator;
 import org.kie.appformer.formmodeler.codegen.FormSourcesGenerator;
 import org.kie.appformer.formmodeler.codegen.JavaSourceGenerator;
@@ -41,10 +59,9 @@ import org.kie.appformer.formmodeler.codegen.view.HTMLTemplateGenerator;
 import org.kie.appformer.formmodeler.codegen.view.ListView;
 import org.kie.workbench.common.forms.commons.layout.FormLayoutTemplateGenerator;
 import org.kie.workbench.common.forms.commons.layout.Static;
-import org.kie.workbench.common.forms.editor.service.VFSFormFinderService;
 import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.forms.model.JavaModel;
 import org.kie.workbench.common.forms.serialization.FormDefinitionSerializer;
-import org.kie.workbench.common.screens.datamodeller.service.DataModelerService;
 import org.kie.workbench.common.services.datamodeller.core.DataObject;
 import org.kie.workbench.common.services.shared.project.KieProject;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
@@ -56,10 +73,21 @@ import org.uberfire.backend.vfs.PathFactory;
 import org.uberfire.io.IOService;
 import org.uberfire.java.nio.base.options.CommentedOption;
 
+/**
+ * Generates the sources of a form on a pool of {@code appformer.codegen.threads} threads (at most 4 by default), as the
+ * generators only read the shared {@link SourceGenerationContext}.
+ *
+ * ErraiApp.properties lists the portable types of the whole project in sorted order, so its content only changes, and
+ * it is only rewritten, when data objects were added or removed. Otherwise every regeneration would invalidate the GWT
+ * compile caches.
+ */
 @ApplicationScoped
 public class FormSourcesGeneratorImpl implements FormSourcesGenerator {
     private static transient Logger log = LoggerFactory.getLogger( FormSourcesGeneratorImpl.class );
 
+    private static final String THREADS_PROPERTY = "appformer.codegen.threads";
+    private static final String SYSTEM_COMMITTER = "system";
+
     @Inject
     @Named("ioStrategy")
     private IOService ioService;
@@ -68,7 +96,7 @@ public class FormSourcesGeneratorImpl implements FormSourcesGenerator {
     private KieProjectService projectService;
 
     @Inject
-    private DataModelerService dataModelerService;
+    private ProjectModelCache projectModelCache;
 
     @Inject
     @FormModel
@@ -116,94 +144,116 @@ public class FormSourcesGeneratorImpl implements FormSourcesGenerator {
     @Inject
     private ErraiAppPropertiesGenerator serializableTypesGenerator;
 
-    @Inject
-    private VFSFormFinderService vfsFormFinderService;
-
     @Inject
     private CommentedOptionFactory commentedOptionFactory;
 
-    @Override
-    public void generateEntityFormSources(final FormDefinition form, final Path resourcePath) {
-        final Package resPackage = projectService.resolvePackage(resourcePath);
-        final KieProject project = projectService.resolveProject(resourcePath);
-
-        final Package root = getRootPackage(resPackage);
-
-        final Package client = getOrCreateClientPackage(root);
-        final Package local = getOrCreateLocalPackage(client);
-        final Package shared = getOrCreateSharedPackage(client);
-        final Package server = getOrCreateServerPackage(root);
+    @Resource
+    private ManagedThreadFactory threadFactory;
 
-        final SourceGenerationContext context = new SourceGenerationContext( form,
-                resourcePath, root, local, shared, server,
-                vfsFormFinderService.findAllForms( resourcePath ) );
+    private ExecutorService generatorPool;
 
-        final String formModelSource = formModelSourceGenerator.generateJavaSource( context );
+    @PostConstruct
+    protected void init() {
+        final int threads = Integer.getInteger( THREADS_PROPERTY, Math.min( 4, Runtime.getRuntime().availableProcessors() ) );
+        generatorPool = Executors.newFixedThreadPool( threads, threadFactory );
+        // Roaster discovers its parsers lazily, which is not safe to race on
+        Roaster.create( JavaClassSource.class );
+    }
 
-        if ( form.getLayoutTemplate() == null ) {
-            formLayoutTemplateGenerator.generateLayoutTemplate( form );
-        }
+    @PreDestroy
+    protected void shutdown() {
+        generatorPool.shutdownNow();
+    }
 
-        final String formTemplateLayout = formDefinitionSerializer.serialize( form );
+    @Override
+    public void generateEntityFormSources( final FormDefinition form, final Path resourcePath ) {
+        generateEntityFormSources( Collections.singletonMap( resourcePath, form ), null );
+    }
 
-        final String formViewSource = formViewSourceGenerator.generateJavaSource( context );
-        final String formViewTemplate = formViewTemplateGenerator.generateHTMLTemplate( context );
+    @Override
+    public void generateEntityFormSources( final FormDefinition form, final Path resourcePath, final CommentedOption commentedOption ) {
+        generateEntityFormSources( Collections.singletonMap( resourcePath, form ), commentedOption );
+    }
 
-        final String listViewSource = listViewSourceGenerator.generateJavaSource( context );
-        final String listViewTemplate = listViewTemplateGenerator.generateHTMLTemplate( context );
+    @Override
+    public void generateEntityFormSources( final Map<Path, FormDefinition> forms ) {
+        generateEntityFormSources( forms, makeCommentedOption( "Generated form sources for " + forms.size() + " data objects." ) );
+    }
 
-        final String restApiSource = restApiSourceGenerator.generateJavaSource( context );
-        final String restImplSource = restImplSourceGenerator.generateJavaSource( context );
-        final String entityServiceSource = entityServiceSourceGenerator.generateJavaSource( context );
+    /**
+     * @param batchOption
+     *            The option to write all sources with, or null to describe each source in its own commit message.
+     */
+    private void generateEntityFormSources( final Map<Path, FormDefinition> forms, final CommentedOption batchOption ) {
+        if ( forms.isEmpty() ) {
+            return;
+        }
 
-        final String flowProducerSource = flowProducerSourceGenerator.generateJavaSource( context );
+        final KieProject project = projectService.resolveProject( forms.keySet().iterator().next() );
+        final List<FormDefinition> projectForms = projectModelCache.getForms( project );
+        final Map<String, FormPackages> packages = new HashMap<>();
+
+        final long start = System.nanoTime();
+        final List<EntityFormSources> generated = new ArrayList<>( forms.size() );
+        for ( final Map.Entry<Path, FormDefinition> entry : forms.entrySet() ) {
+            try {
+                final Package resPackage = projectService.resolvePackage( entry.getKey() );
+                final FormPackages formPackages = packages.computeIfAbsent( resPackage.getPackageName(), name -> new FormPackages( resPackage ) );
+                final DataObject dataObject = getDataObject( project, entry.getValue() );
+                generated.add( new EntityFormSources( entry.getValue(), entry.getKey(), formPackages, projectForms, dataObject ) );
+            } catch ( final RuntimeException e ) {
+                log.error( "It was not possible to generate form sources for file: " + entry.getKey() + " due to the following errors.", e );
+            }
+        }
 
+        // These load the project through other services, so they stay on the calling thread while the sources generate
+        final Iterator<EntityFormSources> serialized = generated.iterator();
+        while ( serialized.hasNext() ) {
+            final EntityFormSources sources = serialized.next();
+            try {
+                sources.serializeForm();
+            } catch ( final RuntimeException e ) {
+                serialized.remove();
+                log.error( "It was not possible to generate form sources for file: " + sources.resourcePath + " due to the following errors.", e );
+            }
+        }
         final String serializableTypesDeclaration = serializableTypesGenerator.generate( getSerializableTypeClassNames( project ) );
 
-        if ( !allNonEmpty( resourcePath,
-                formModelSource,
-                formTemplateLayout,
-                formViewSource,
-                formViewTemplate,
-                listViewSource,
-                listViewTemplate,
-                restApiSource,
-                restImplSource,
-                entityServiceSource,
-                flowProducerSource,
-                serializableTypesDeclaration ) ) {
-            log.warn( "Unable to generate the required form assets for Data Object: {}", resourcePath );
-            return;
+        final GeneratedResourceWriter writer = new GeneratedResourceWriter( ioService, batchOption );
+        int complete = 0;
+        for ( final EntityFormSources sources : generated ) {
+            try {
+                if ( sources.join() ) {
+                    sources.write( writer );
+                    complete++;
+                } else {
+                    log.warn( "Unable to generate the required form assets for Data Object: {}", sources.resourcePath );
+                }
+            } catch ( final RuntimeException e ) {
+                log.error( "It was not possible to generate form sources for file: " + sources.resourcePath + " due to the following errors.", e );
+            }
         }
+        log.info( "Generated form sources for {} data objects in {}ms", complete, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
 
-        final org.uberfire.java.nio.file.Path parent = Paths.convert( resourcePath ).getParent();
+        if ( complete == 0 || StringUtils.isEmpty( serializableTypesDeclaration ) ) {
+            return;
+        }
 
-        ioService.startBatch( parent.getFileSystem() );
         try {
-            writeJavaSource( resourcePath, context.getFormModelName(), formModelSource, shared );
-            writeFormTemplate( resourcePath, form.getName(), formTemplateLayout, shared );
+            writer.add( getErraiAppPropertiesPath( project ),
+                        serializableTypesDeclaration,
+                        makeCommentedOption( "Updated ErraiApp.properties." ) );
 
-            writeJavaSource( resourcePath, context.getFormViewName(), formViewSource, local );
-            writeJavaSource( resourcePath, context.getListViewName(), listViewSource, local );
-            writeJavaSource( resourcePath, context.getFlowProducerName(), flowProducerSource, local );
-            writeJavaSource( resourcePath, context.getRestServiceName(), restApiSource, shared );
-            writeJavaSource( resourcePath, context.getRestServiceImplName(), restImplSource, server );
-            writeJavaSource( resourcePath, context.getEntityServiceName(), entityServiceSource, server );
-
-            writeHTMLSource( resourcePath, context.getFormViewName(), formViewTemplate, local );
-            writeHTMLSource( resourcePath, context.getListViewName(), listViewTemplate, local );
-
-            writeErraiAppProperties( serializableTypesDeclaration, project );
+            log.debug( "Wrote {} changed form sources", writer.writeChanged() );
         } catch ( final Exception e ) {
-            log.error( "It was not possible to generate form sources for file: " + resourcePath + " due to the following errors.", e );
-        } finally {
-            ioService.endBatch();
+            log.error( "It was not possible to write the form sources of project " + project.getProjectName() + " due to the following errors.", e );
         }
     }
 
     @Override
     public void generateFormSources( final FormDefinition form, final Path resourcePath ) {
         final Package resPackage = projectService.resolvePackage( resourcePath );
+        final KieProject project = projectService.resolveProject( resourcePath );
 
         final Package root = getRootPackage( resPackage );
 
@@ -212,12 +262,17 @@ public class FormSourcesGeneratorImpl implements FormSourcesGenerator {
         final Package shared = getOrCreateSharedPackage( client );
 
         final SourceGenerationContext context = new SourceGenerationContext( form, resourcePath, root, local, shared, null,
-                vfsFormFinderService.findAllForms( resourcePath ) );
+                projectModelCache.getForms( project ) );
 
-        final String modelSource = formModelSourceGenerator.generateJavaSource( context );
+        final long start = System.nanoTime();
+        final CompletableFuture<String> modelFuture = generate( () -> formModelSourceGenerator.generateJavaSource( context ) );
+        final CompletableFuture<String> javaTemplateFuture = generate( () -> formViewSourceGenerator.generateJavaSource( context ) );
+        final CompletableFuture<String> htmlTemplateFuture = generate( () -> formViewTemplateGenerator.generateHTMLTemplate( context ) );
 
-        final String javaTemplate = formViewSourceGenerator.generateJavaSource( context );
-        final String htmlTemplate = formViewTemplateGenerator.generateHTMLTemplate( context );
+        final String modelSource = join( modelFuture );
+        final String javaTemplate = join( javaTemplateFuture );
+        final String htmlTemplate = join( htmlTemplateFuture );
+        log.info( "Generated form sources for {} in {}ms", resourcePath, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
 
         if ( !allNonEmpty( resourcePath,
                              modelSource,
@@ -227,26 +282,47 @@ public class FormSourcesGeneratorImpl implements FormSourcesGenerator {
             return;
         }
 
-        final org.uberfire.java.nio.file.Path parent = Paths.convert( resourcePath ).getParent();
-
-        ioService.startBatch( parent.getFileSystem() );
+        final GeneratedResourceWriter writer = new GeneratedResourceWriter( ioService );
         try {
-            writeJavaSource( resourcePath, context.getFormModelName(), modelSource, shared );
-            writeJavaSource( resourcePath, context.getFormViewName(), javaTemplate, local );
-            writeHTMLSource( resourcePath, context.getFormViewName(), htmlTemplate, local );
+            writeJavaSource( writer, resourcePath, context.getFormModelName(), modelSource, shared );
+            writeJavaSource( writer, resourcePath, context.getFormViewName(), javaTemplate, local );
+            writeHTMLSource( writer, resourcePath, context.getFormViewName(), htmlTemplate, local );
+
+            log.debug( "Wrote {} changed form sources for {}", writer.writeChanged(), resourcePath );
         } catch ( final Exception e ) {
             log.error( "It was not possible to generate form sources for file: " + resourcePath + " due to the following errors.", e );
-        } finally {
-            ioService.endBatch();
         }
     }
 
-    private Collection<String> getSerializableTypeClassNames( final KieProject project ) {
-        final Set<DataObject> dataObjects = dataModelerService.loadModel( project ).getDataObjects();
-        final Collection<String> retVal = new ArrayList<>( dataObjects.size() );
+    private CompletableFuture<String> generate( final Supplier<String> generator ) {
+        return CompletableFuture.supplyAsync( generator, generatorPool );
+    }
+
+    private static String join( final CompletableFuture<String> generated ) {
+        try {
+            return generated.join();
+        } catch ( final CompletionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            } else if ( e.getCause() instanceof Error ) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private DataObject getDataObject( final KieProject project, final FormDefinition form ) {
+        if ( form.getModel() instanceof JavaModel ) {
+            return projectModelCache.getDataObject( project, ( (JavaModel) form.getModel() ).getType() );
+        }
 
-        for ( final DataObject dataObject : dataObjects ) {
-            final String className = dataObject.getClassName();
+        return null;
+    }
+
+    private SortedSet<String> getSerializableTypeClassNames( final KieProject project ) {
+        final SortedSet<String> retVal = new TreeSet<>();
+
+        for ( final String className : projectModelCache.getDataObjectClassNames( project ) ) {
             if ( isNotDerivedObject( className ) ) {
                 retVal.add( className );
             }
@@ -257,26 +333,18 @@ public class FormSourcesGeneratorImpl implements FormSourcesGenerator {
 
     private boolean isNotDerivedObject( final String className ) {
         // TODO figure out a less hacky implementation of this method
-        return !( className.endsWith( SourceGenerationContext.ENTITY_SERVICE_SUFFIX )
-        || className.endsWith( SourceGenerationContext.FORM_MODEL_SUFFIX )
-        || className.endsWith( SourceGenerationContext.FORM_VIEW_SUFFIX )
-        || className.endsWith( SourceGenerationContext.LIST_VIEW_SUFFIX )
-        || className.endsWith( SourceGenerationContext.REST_IMPL_SUFFIX )
-        || className.endsWith( SourceGenerationContext.REST_SERVICE_SUFFIX )
+        return !( SourceGenerationContext.isGeneratedClassName( className )
         || className.contains( ".builtin." )
         || className.contains( ".server." )
         || className.contains( ".backend." ) );
     }
 
-    private void writeErraiAppProperties( final String serializableTypesDeclaration, final KieProject project  ) {
+    private org.uberfire.java.nio.file.Path getErraiAppPropertiesPath( final KieProject project ) {
         final Package defaultPackage = projectService.resolveDefaultPackage( project );
         final Path resourceRoot = defaultPackage.getPackageMainResourcesPath();
 
         final org.uberfire.java.nio.file.Path parentPath = Paths.convert( resourceRoot );
-        final org.uberfire.java.nio.file.Path filePath = parentPath.resolve( "ErraiApp.properties" );
-        ioService.write( filePath,
-                         serializableTypesDeclaration,
-                         makeCommentedOption( "Updated ErraiApp.properties." ) );
+        return parentPath.resolve( "ErraiApp.properties" );
     }
 
     private Package getOrCreateServerPackage( final Package root ) {
@@ -324,42 +392,158 @@ public class FormSourcesGeneratorImpl implements FormSourcesGenerator {
         return true;
     }
 
-    private void writeFormTemplate( final Path dataObjectPath,
+    private void writeFormTemplate( final GeneratedResourceWriter writer,
+                                  final Path dataObjectPath,
                                   final String name,
                                   final String formTemplate,
                                   final Package sourcePackage ) {
         final org.uberfire.java.nio.file.Path parentPath = Paths.convert( sourcePackage.getPackageMainResourcesPath() );
         final org.uberfire.java.nio.file.Path htmlPath = parentPath.resolve( name + ".frm" );
 
-        ioService.write( htmlPath,
+        writer.add( htmlPath,
                 formTemplate,
                 makeCommentedOption( "Added HTML Source for Form Template '" + dataObjectPath + "'" ) );
     }
 
-    private void writeHTMLSource( final Path dataObjectPath,
+    private void writeHTMLSource( final GeneratedResourceWriter writer,
+                                  final Path dataObjectPath,
                                   final String name,
                                   final String htmlTemplate,
                                   final Package sourcePackage ) {
         final org.uberfire.java.nio.file.Path parentPath = Paths.convert( sourcePackage.getPackageMainResourcesPath() );
         final org.uberfire.java.nio.file.Path htmlPath = parentPath.resolve( name + ".html" );
 
-        ioService.write( htmlPath,
-                         htmlTemplate,
-                         makeCommentedOption( "Added HTML Source for Form Template '" + dataObjectPath + "'" ) );
+        writer.add( htmlPath,
+                    htmlTemplate,
+                    makeCommentedOption( "Added HTML Source for Form Template '" + dataObjectPath + "'" ) );
     }
 
-    private void writeJavaSource( final Path dataObjectPath,
+    private void writeJavaSource( final GeneratedResourceWriter writer,
+                                  final Path dataObjectPath,
                                   final String name,
                                   final String javaSource,
                                   final Package sourcePackage ) {
         final org.uberfire.java.nio.file.Path parentPath = Paths.convert( sourcePackage.getPackageMainSrcPath() );
         final org.uberfire.java.nio.file.Path filePath = parentPath.resolve( name + ".java" );
-        ioService.write( filePath,
-                         javaSource,
-                         makeCommentedOption( "Added Java Source for Form Model '" + dataObjectPath + "'" ) );
+        writer.add( filePath,
+                    javaSource,
+                    makeCommentedOption( "Added Java Source for Form Model '" + dataObjectPath + "'" ) );
     }
 
+    @Override
     public CommentedOption makeCommentedOption( final String commitMessage ) {
-        return commentedOptionFactory.makeCommentedOption( commitMessage );
+        try {
+            return commentedOptionFactory.makeCommentedOption( commitMessage );
+        } catch ( final ContextNotActiveException e ) {
+            // Such as resource events fired by a push rather than a user's request
+            return new CommentedOption( SYSTEM_COMMITTER, commitMessage );
+        }
+    }
+
+    /**
+     * The subpackages the sources of the forms of one data object package are generated in.
+     */
+    private class FormPackages {
+
+        private final Package root;
+        private final Package local;
+        private final Package shared;
+        private final Package server;
+
+        private FormPackages( final Package resPackage ) {
+            root = getRootPackage( resPackage );
+            final Package client = getOrCreateClientPackage( root );
+            local = getOrCreateLocalPackage( client );
+            shared = getOrCreateSharedPackage( client );
+            server = getOrCreateServerPackage( root );
+        }
+
+    }
+
+    /**
+     * The sources of one entity form, which start generating on the pool as soon as it is created.
+     */
+    private class EntityFormSources {
+
+        private final FormDefinition form;
+        private final Path resourcePath;
+        private final FormPackages packages;
+        private final SourceGenerationContext context;
+        private final CompletableFuture<String> formModel;
+        private final CompletableFuture<String> formView;
+        private final CompletableFuture<String> formViewTemplate;
+        private final CompletableFuture<String> listView;
+        private final CompletableFuture<String> listViewTemplate;
+        private final CompletableFuture<String> restApi;
+        private final CompletableFuture<String> restImpl;
+        private final CompletableFuture<String> entityService;
+        private final CompletableFuture<String> flowProducer;
+        private String formTemplateLayout;
+
+        private EntityFormSources( final FormDefinition form,
+                                   final Path resourcePath,
+                                   final FormPackages packages,
+                                   final List<FormDefinition> projectForms,
+                                   final DataObject dataObject ) {
+            this.form = form;
+            this.resourcePath = resourcePath;
+            this.packages = packages;
+            this.context = new SourceGenerationContext( form, resourcePath, packages.root, packages.local, packages.shared,
+                                                        packages.server, projectForms, dataObject );
+
+            // The layout is part of the form the generators read, so it must be complete before they start
+            if ( form.getLayoutTemplate() == null ) {
+                formLayoutTemplateGenerator.generateLayoutTemplate( form );
+            }
+
+            formModel = generate( () -> formModelSourceGenerator.generateJavaSource( context ) );
+            formView = generate( () -> formViewSourceGenerator.generateJavaSource( context ) );
+            formViewTemplate = generate( () -> formViewTemplateGenerator.generateHTMLTemplate( context ) );
+            listView = generate( () -> listViewSourceGenerator.generateJavaSource( context ) );
+            listViewTemplate = generate( () -> listViewTemplateGenerator.generateHTMLTemplate( context ) );
+            restApi = generate( () -> restApiSourceGenerator.generateJavaSource( context ) );
+            restImpl = generate( () -> restImplSourceGenerator.generateJavaSource( context ) );
+            entityService = generate( () -> entityServiceSourceGenerator.generateJavaSource( context ) );
+            flowProducer = generate( () -> flowProducerSourceGenerator.generateJavaSource( context ) );
+        }
+
+        private void serializeForm() {
+            formTemplateLayout = formDefinitionSerializer.serialize( form );
+        }
+
+        /**
+         * Waits for the sources to be generated.
+         *
+         * @return Whether all sources were generated.
+         */
+        private boolean join() {
+            return allNonEmpty( resourcePath,
+                    FormSourcesGeneratorImpl.join( formModel ),
+                    formTemplateLayout,
+                    FormSourcesGeneratorImpl.join( formView ),
+                    FormSourcesGeneratorImpl.join( formViewTemplate ),
+                    FormSourcesGeneratorImpl.join( listView ),
+                    FormSourcesGeneratorImpl.join( listViewTemplate ),
+                    FormSourcesGeneratorImpl.join( restApi ),
+                    FormSourcesGeneratorImpl.join( restImpl ),
+                    FormSourcesGeneratorImpl.join( entityService ),
+                    FormSourcesGeneratorImpl.join( flowProducer ) );
+        }
+
+        private void write( final GeneratedResourceWriter writer ) {
+            writeJavaSource( writer, resourcePath, context.getFormModelName(), formModel.join(), packages.shared );
+            writeFormTemplate( writer, resourcePath, form.getName(), formTemplateLayout, packages.shared );
+
+            writeJavaSource( writer, resourcePath, context.getFormViewName(), formView.join(), packages.local );
+            writeJavaSource( writer, resourcePath, context.getListViewName(), listView.join(), packages.local );
+            writeJavaSource( writer, resourcePath, context.getFlowProducerName(), flowProducer.join(), packages.local );
+            writeJavaSource( writer, resourcePath, context.getRestServiceName(), restApi.join(), packages.shared );
+            writeJavaSource( writer, resourcePath, context.getRestServiceImplName(), restImpl.join(), packages.server );
+            writeJavaSource( writer, resourcePath, context.getEntityServiceName(), entityService.join(), packages.server );
+
+            writeHTMLSource( writer, resourcePath, context.getFormViewName(), formViewTemplate.join(), packages.local );
+            writeHTMLSource( writer, resourcePath, context.getListViewName(), listViewTemplate.join(), packages.local );
+        }
+
     }
 }
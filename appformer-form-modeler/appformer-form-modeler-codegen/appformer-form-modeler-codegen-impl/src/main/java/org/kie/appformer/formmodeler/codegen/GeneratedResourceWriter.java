@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.uberfire.io.IOService;
+import org.uberfire.java.nio.base.options.CommentedOption;
+import org.uberfire.java.nio.file.Path;
+
+/**
+ * Collects generated resources and writes those whose content differs from the current file in a single batch. Every
+ * write is a commit that fires resource events and triggers incremental builds, so regenerating unchanged sources must
+ * not write anything.
+ */
+class GeneratedResourceWriter {
+
+    private final IOService ioService;
+    private final CommentedOption batchOption;
+    private final Map<Path, GeneratedResource> resources = new LinkedHashMap<>();
+
+    GeneratedResourceWriter( final IOService ioService ) {
+        this( ioService, null );
+    }
+
+    /**
+     * @param batchOption
+     *            If not null, all resources are written with this option instead of their own.
+     */
+    GeneratedResourceWriter( final IOService ioService,
+                             final CommentedOption batchOption ) {
+        this.ioService = ioService;
+        this.batchOption = batchOption;
+    }
+
+    void add( final Path path,
+              final String content,
+              final CommentedOption option ) {
+        resources.put( path, new GeneratedResource( path, content, option ) );
+    }
+
+    /**
+     * @return The number of resources written.
+     */
+    int writeChanged() {
+        final List<GeneratedResource> changed = new ArrayList<>();
+        for ( final GeneratedResource resource : resources.values() ) {
+            if ( !isUnchanged( resource ) ) {
+                changed.add( resource );
+            }
+        }
+
+        if ( changed.isEmpty() ) {
+            return 0;
+        }
+
+        ioService.startBatch( changed.get( 0 ).path.getFileSystem() );
+        try {
+            for ( final GeneratedResource resource : changed ) {
+                ioService.write( resource.path, resource.content, batchOption != null ? batchOption : resource.option );
+            }
+        } finally {
+            ioService.endBatch();
+        }
+
+        return changed.size();
+    }
+
+    private boolean isUnchanged( final GeneratedResource resource ) {
+        return ioService.exists( resource.path )
+                && Arrays.equals( ioService.readAllBytes( resource.path ), resource.content.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    private static class GeneratedResource {
+
+        private final Path path;
+        private final String content;
+        private final CommentedOption option;
+
+        private GeneratedResource( final Path path,
+                                   final String content,
+                                   final CommentedOption option ) {
+            this.path = path;
+            this.content = content;
+            this.option = option;
+        }
+
+    }
+
+}
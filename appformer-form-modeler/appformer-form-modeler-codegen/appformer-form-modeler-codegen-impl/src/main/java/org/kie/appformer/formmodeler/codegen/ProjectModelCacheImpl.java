@@ -0,0 +1,282 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.guvnor.common.services.project.model.Package;
+import org.kie.workbench.common.forms.editor.service.VFSFormFinderService;
+import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.screens.datamodeller.model.GenerationResult;
+import org.kie.workbench.common.screens.datamodeller.service.DataModelerService;
+import org.kie.workbench.common.services.datamodeller.core.DataObject;
+import org.kie.workbench.common.services.shared.project.KieProject;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.backend.server.util.Paths;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.IOService;
+import org.uberfire.workbench.events.ResourceAddedEvent;
+import org.uberfire.workbench.events.ResourceBatchChangesEvent;
+import org.uberfire.workbench.events.ResourceCopiedEvent;
+import org.uberfire.workbench.events.ResourceDeletedEvent;
+import org.uberfire.workbench.events.ResourceRenamedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+/**
+ * Loads the data model and forms of a project once, then keeps them up to date from resource events. A changed Java
+ * source is only parsed again when the project is next read, and changed forms make the project's form list reload
+ * on its next read. Batches of changes, such as pushes, drop the cached project altogether. Data objects are kept
+ * sorted by class name.
+ */
+@ApplicationScoped
+public class ProjectModelCacheImpl implements ProjectModelCache {
+
+    private static final Logger log = LoggerFactory.getLogger( ProjectModelCacheImpl.class );
+
+    private final ConcurrentMap<String, ProjectModel> models = new ConcurrentHashMap<>();
+
+    private IOService ioService;
+    private KieProjectService projectService;
+    private DataModelerService dataModelerService;
+    private VFSFormFinderService vfsFormFinderService;
+
+    public ProjectModelCacheImpl() {
+    }
+
+    @Inject
+    public ProjectModelCacheImpl( @Named("ioStrategy") final IOService ioService,
+                                  final KieProjectService projectService,
+                                  final DataModelerService dataModelerService,
+                                  final VFSFormFinderService vfsFormFinderService ) {
+        this.ioService = ioService;
+        this.projectService = projectService;
+        this.dataModelerService = dataModelerService;
+        this.vfsFormFinderService = vfsFormFinderService;
+    }
+
+    @Override
+    public DataObject getDataObject( final KieProject project, final String className ) {
+        return className != null ? getModel( project ).getDataObjects().get( className ) : null;
+    }
+
+    @Override
+    public Collection<DataObject> getDataObjects( final KieProject project ) {
+        return Collections.unmodifiableCollection( getModel( project ).getDataObjects().values() );
+    }
+
+    @Override
+    public SortedSet<String> getDataObjectClassNames( final KieProject project ) {
+        return new TreeSet<>( getModel( project ).getDataObjects().navigableKeySet() );
+    }
+
+    @Override
+    public List<FormDefinition> getForms( final KieProject project ) {
+        return getModel( project ).getForms();
+    }
+
+    public void onResourceAdded( @Observes final ResourceAddedEvent event ) {
+        resourceChanged( event.getPath(), true );
+    }
+
+    public void onResourceUpdated( @Observes final ResourceUpdatedEvent event ) {
+        resourceChanged( event.getPath(), true );
+    }
+
+    public void onResourceDeleted( @Observes final ResourceDeletedEvent event ) {
+        resourceChanged( event.getPath(), false );
+    }
+
+    public void onResourceCopied( @Observes final ResourceCopiedEvent event ) {
+        resourceChanged( event.getDestinationPath(), true );
+    }
+
+    public void onResourceRenamed( @Observes final ResourceRenamedEvent event ) {
+        resourceChanged( event.getPath(), false );
+        resourceChanged( event.getDestinationPath(), true );
+    }
+
+    public void onResourceBatchChanges( @Observes final ResourceBatchChangesEvent event ) {
+        for ( final Path path : event.getBatch().keySet() ) {
+            final String root = findRoot( path );
+            if ( root != null ) {
+                models.remove( root );
+            }
+        }
+    }
+
+    String readSource( final Path path ) {
+        return ioService.readAllString( Paths.convert( path ) );
+    }
+
+    private ProjectModel getModel( final KieProject project ) {
+        return models.computeIfAbsent( project.getRootPath().toURI(), root -> new ProjectModel( project ) );
+    }
+
+    private void resourceChanged( final Path path, final boolean exists ) {
+        if ( path == null ) {
+            return;
+        }
+
+        final String root = findRoot( path );
+        final ProjectModel model = root != null ? models.get( root ) : null;
+        if ( model == null ) {
+            return;
+        }
+
+        if ( path.getFileName().endsWith( ".java" ) ) {
+            model.sourceChanged( path, exists );
+        } else if ( path.getFileName().endsWith( ".frm" ) ) {
+            model.formsChanged();
+        }
+    }
+
+    private String findRoot( final Path path ) {
+        final String uri = path.toURI();
+        for ( final String root : models.keySet() ) {
+            if ( uri.startsWith( root + "/" ) ) {
+                return root;
+            }
+        }
+
+        return null;
+    }
+
+    private class ProjectModel {
+
+        private final KieProject project;
+        private final Map<String, Optional<Path>> changedSources = new ConcurrentHashMap<>();
+        private final AtomicInteger formChanges = new AtomicInteger();
+        private ConcurrentNavigableMap<String, DataObject> dataObjects;
+        private List<String> sourceRoots;
+        private List<FormDefinition> forms;
+        private int formsVersion;
+
+        private ProjectModel( final KieProject project ) {
+            this.project = project;
+        }
+
+        void sourceChanged( final Path path, final boolean exists ) {
+            changedSources.put( path.toURI(), exists ? Optional.of( path ) : Optional.empty() );
+        }
+
+        void formsChanged() {
+            formChanges.incrementAndGet();
+        }
+
+        synchronized ConcurrentNavigableMap<String, DataObject> getDataObjects() {
+            if ( dataObjects == null ) {
+                load();
+            } else {
+                applyChanges();
+            }
+
+            return dataObjects;
+        }
+
+        synchronized List<FormDefinition> getForms() {
+            final int version = formChanges.get();
+            if ( forms == null || formsVersion != version ) {
+                forms = vfsFormFinderService.findAllForms( project.getRootPath() );
+                formsVersion = version;
+            }
+
+            return forms;
+        }
+
+        private void load() {
+            // Changes made while loading are applied on the next read
+            changedSources.clear();
+            final long start = System.nanoTime();
+            final ConcurrentNavigableMap<String, DataObject> loaded = new ConcurrentSkipListMap<>();
+            for ( final DataObject dataObject : dataModelerService.loadModel( project ).getDataObjects() ) {
+                loaded.put( dataObject.getClassName(), dataObject );
+            }
+
+            final Package defaultPackage = projectService.resolveDefaultPackage( project );
+            sourceRoots = Arrays.asList( defaultPackage.getPackageMainSrcPath().toURI(),
+                                         defaultPackage.getPackageTestSrcPath().toURI() );
+            dataObjects = loaded;
+            log.debug( "Loaded {} data objects of {} in {}ms", loaded.size(), project.getProjectName(),
+                       TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        }
+
+        private void applyChanges() {
+            for ( final String uri : changedSources.keySet() ) {
+                final Optional<Path> source = changedSources.remove( uri );
+                if ( source == null ) {
+                    continue;
+                }
+
+                final String className = getClassName( uri );
+                if ( className != null ) {
+                    dataObjects.remove( className );
+                }
+                if ( source.isPresent() ) {
+                    final DataObject dataObject = parse( source.get() );
+                    if ( dataObject != null ) {
+                        dataObjects.put( dataObject.getClassName(), dataObject );
+                    }
+                }
+            }
+        }
+
+        private DataObject parse( final Path path ) {
+            try {
+                final GenerationResult result = dataModelerService.loadDataObject( project.getRootPath(), readSource( path ), path );
+                return result != null ? result.getDataObject() : null;
+            } catch ( final Exception e ) {
+                log.warn( "Unable to load the data object of '{}'", path.toURI(), e );
+                return null;
+            }
+        }
+
+        /*
+         * Mirrors the naming of sources under the main and test source roots, e.g. src/main/java/org/Pojo.java.
+         */
+        private String getClassName( final String uri ) {
+            for ( final String sourceRoot : sourceRoots ) {
+                if ( uri.startsWith( sourceRoot + "/" ) && uri.endsWith( ".java" ) ) {
+                    return uri.substring( sourceRoot.length() + 1, uri.length() - ".java".length() ).replace( '/', '.' );
+                }
+            }
+
+            return null;
+        }
+
+    }
+
+}
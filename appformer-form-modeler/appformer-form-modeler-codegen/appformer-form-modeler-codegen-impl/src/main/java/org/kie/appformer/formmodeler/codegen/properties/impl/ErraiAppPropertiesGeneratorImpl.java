@@ -18,6 +18,8 @@ package org.kie.appformer.formmodeler.codegen.properties.impl;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.kie.appformer.formmodeler.codegen.ErraiAppPropertiesGenerator;
 
@@ -33,8 +35,12 @@ public class ErraiAppPropertiesGeneratorImpl implements ErraiAppPropertiesGenera
 
 
 
+    /**
+     * Types are declared in sorted order, so the same types always produce the same properties.
+     */
     @Override
     public String generate( Collection<String> fullyQualifiedClassNames ) {
+        final SortedSet<String> sortedClassNames = new TreeSet<>( fullyQualifiedClassNames );
         final StringBuilder builder = new StringBuilder();
 
         builder.append( SECURITY_COOKIE_ENABLED );
@@ -43,8 +49,8 @@ public class ErraiAppPropertiesGeneratorImpl implements ErraiAppPropertiesGenera
         builder.append( CDI_ALTERNATIVES );
 
         builder.append( "\n\n" );
-        generateDeclaration( fullyQualifiedClassNames, builder, MARHSALLING_DECLARATION_LHS );
-        generateDeclaration( fullyQualifiedClassNames, builder, BINDING_DECLARATION_LHS );
+        generateDeclaration( sortedClassNames, builder, MARHSALLING_DECLARATION_LHS );
+        generateDeclaration( sortedClassNames, builder, BINDING_DECLARATION_LHS );
 
         return builder.toString();
     }
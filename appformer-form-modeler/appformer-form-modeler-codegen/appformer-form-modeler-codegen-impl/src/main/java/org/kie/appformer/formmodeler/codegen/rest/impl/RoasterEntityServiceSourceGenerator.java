@@ -21,6 +21,9 @@ import static org.kie.appformer.formmodeler.codegen.util.SourceGenerationUtil.EJ
 import static org.kie.appformer.formmodeler.codegen.util.SourceGenerationUtil.EJB_TRANSACTION_ATTR;
 import static org.kie.appformer.formmodeler.codegen.util.SourceGenerationUtil.ENTITY_SERVICE_CLASS;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import javax.enterprise.context.ApplicationScoped;
 
 import org.jboss.forge.roaster.Roaster;
@@ -28,17 +31,28 @@ import org.jboss.forge.roaster.model.source.JavaClassSource;
 import org.kie.appformer.formmodeler.codegen.JavaSourceGenerator;
 import org.kie.appformer.formmodeler.codegen.SourceGenerationContext;
 import org.kie.appformer.formmodeler.codegen.rest.EntityService;
+import org.kie.appformer.formmodeler.rendering.server.rest.CachePolicy;
+import org.kie.workbench.common.forms.model.FieldDefinition;
+import org.kie.workbench.common.forms.model.impl.relations.EntityRelationField;
+import org.kie.workbench.common.services.datamodeller.core.Annotation;
+import org.kie.workbench.common.services.datamodeller.core.DataObject;
 
 @ApplicationScoped
 @EntityService
 public class RoasterEntityServiceSourceGenerator implements JavaSourceGenerator {
 
+    private static final String CACHEABLE_ANNOTATION = "javax.persistence.Cacheable";
+    private static final String HIBERNATE_CACHE_ANNOTATION = "org.hibernate.annotations.Cache";
+
     @Override
     public String generateJavaSource( SourceGenerationContext context ) {
         JavaClassSource entityService = Roaster.create( JavaClassSource.class );
         String packageName = getPackageName( context );
 
         addTypeSignature( context, entityService, packageName );
+        addFetchedRelations( context, entityService );
+        addSummaryAttributes( context, entityService );
+        addCachePolicy( context, entityService );
 
         return entityService.toString();
     }
@@ -55,6 +69,104 @@ public class RoasterEntityServiceSourceGenerator implements JavaSourceGenerator
                      .setLiteralValue( EJB_REQUIRES_NEW );
     }
 
+    /*
+     * Listed entities are sent to clients with the relations their forms edit, so those relations are fetched along
+     * with the entities instead of once per entity.
+     */
+    private void addFetchedRelations( SourceGenerationContext context,
+                                      JavaClassSource entityService ) {
+        Set<String> relations = new LinkedHashSet<>();
+        for ( FieldDefinition field : context.getFormDefinition().getFields() ) {
+            if ( field instanceof EntityRelationField && field.getBinding() != null && !field.getBinding().isEmpty() ) {
+                relations.add( field.getBinding() );
+            }
+        }
+
+        addNamesMethod( entityService, "getFetchedRelations", relations );
+    }
+
+    /*
+     * Lists only load the values of their columns, the rest is loaded when a row is opened.
+     */
+    private void addSummaryAttributes( SourceGenerationContext context,
+                                       JavaClassSource entityService ) {
+        Set<String> attributes = new LinkedHashSet<>();
+        for ( FieldDefinition field : context.getListColumnFields() ) {
+            if ( field.getBinding() != null && !field.getBinding().isEmpty() ) {
+                attributes.add( field.getBinding() );
+            }
+        }
+
+        addNamesMethod( entityService, "getSummaryAttributes", attributes );
+    }
+
+    private void addCachePolicy( SourceGenerationContext context,
+                                 JavaClassSource entityService ) {
+        CachePolicy policy = getCachePolicy( context.getDataObject() );
+        if ( policy == CachePolicy.NONE ) {
+            return;
+        }
+
+        entityService.addImport( CachePolicy.class );
+        entityService.addMethod()
+                     .setName( "getCachePolicy" )
+                     .setProtected()
+                     .setReturnType( CachePolicy.class.getSimpleName() )
+                     .setBody( "return " + CachePolicy.class.getSimpleName() + "." + policy.name() + ";" )
+                     .addAnnotation( Override.class );
+    }
+
+    /*
+     * Data objects are cached if they are @Cacheable or have the Hibernate @Cache annotation. Its READ_ONLY and
+     * NONSTRICT_READ_WRITE strategies mark data that rarely changes.
+     */
+    static CachePolicy getCachePolicy( DataObject dataObject ) {
+        if ( dataObject == null ) {
+            return CachePolicy.NONE;
+        }
+
+        Annotation cacheable = dataObject.getAnnotation( CACHEABLE_ANNOTATION );
+        if ( cacheable != null && "false".equals( String.valueOf( cacheable.getValue( "value" ) ) ) ) {
+            return CachePolicy.NONE;
+        }
+
+        Annotation cache = dataObject.getAnnotation( HIBERNATE_CACHE_ANNOTATION );
+        if ( cache != null ) {
+            String usage = String.valueOf( cache.getValue( "usage" ) );
+            if ( usage.endsWith( "READ_ONLY" ) || usage.endsWith( "NONSTRICT_READ_WRITE" ) ) {
+                return CachePolicy.READ_MOSTLY;
+            } else if ( usage.endsWith( "NONE" ) ) {
+                return CachePolicy.NONE;
+            }
+            return CachePolicy.READ_WRITE;
+        }
+
+        return cacheable != null ? CachePolicy.READ_WRITE : CachePolicy.NONE;
+    }
+
+    private void addNamesMethod( JavaClassSource entityService,
+                                 String methodName,
+                                 Set<String> names ) {
+        if ( names.isEmpty() ) {
+            return;
+        }
+
+        StringBuilder body = new StringBuilder( "return new String[] {" );
+        String separator = " ";
+        for ( String name : names ) {
+            body.append( separator ).append( '"' ).append( name ).append( '"' );
+            separator = ", ";
+        }
+        body.append( " };" );
+
+        entityService.addMethod()
+                     .setName( methodName )
+                     .setProtected()
+                     .setReturnType( "String[]" )
+                     .setBody( body.toString() )
+                     .addAnnotation( Override.class );
+    }
+
     private String getPackageName( SourceGenerationContext context ) {
         return context.getServerPackage().getPackageName();
     }
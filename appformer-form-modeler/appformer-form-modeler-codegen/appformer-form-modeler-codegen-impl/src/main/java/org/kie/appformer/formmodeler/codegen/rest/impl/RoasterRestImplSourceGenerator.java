@@ -62,6 +62,7 @@ public class RoasterRestImplSourceGenerator extends RoasterRestServiceSourceGene
     private void addTypeAnnotations( final SourceGenerationContext context,
                                      final JavaClassSource restImpl ) {
         restImpl.addAnnotation( EJB_STATELESS );
+        restImpl.addAnnotation( REST_PAYLOAD );
     }
 
     @Override
@@ -76,6 +77,9 @@ public class RoasterRestImplSourceGenerator extends RoasterRestServiceSourceGene
         addCreateMethodImpl( context, restImpl );
         addLoadMethodImpl( context, restImpl );
         addRangedLoadMethodImpl( context, restImpl );
+        addLoadSummaryMethodImpl( context, restImpl );
+        addLoadColumnarSummaryMethodImpl( context, restImpl );
+        addReloadMethodImpl( context, restImpl );
         addUpdateMethodImpl( context, restImpl );
         addDeleteMethodImpl( context, restImpl );
         addListMethodImpl( context, restImpl );
@@ -216,6 +220,44 @@ public class RoasterRestImplSourceGenerator extends RoasterRestServiceSourceGene
         load.addAnnotation( Override.class );
     }
 
+    private void addLoadSummaryMethodImpl( final SourceGenerationContext context,
+                                           final JavaClassSource restImpl ) {
+        final MethodSource<JavaClassSource> loadSummary = restImpl.addMethod();
+        loadSummary
+                .setName( "loadSummary" )
+                .setPublic()
+                .setReturnType( "List<" + context.getEntityName() + ">" )
+                .setBody( "return " + ENTITY_SERVICE + ".listSummaries( " + context.getEntityName() + ".class, start, end );" );
+        loadSummary.addParameter( int.class, "start" );
+        loadSummary.addParameter( int.class, "end" );
+        loadSummary.addAnnotation( Override.class );
+    }
+
+    private void addLoadColumnarSummaryMethodImpl( final SourceGenerationContext context,
+                                                   final JavaClassSource restImpl ) {
+        final MethodSource<JavaClassSource> loadSummary = restImpl.addMethod();
+        loadSummary
+                .setName( "loadColumnarSummary" )
+                .setPublic()
+                .setReturnType( "List<" + context.getEntityName() + ">" )
+                .setBody( "return loadSummary( start, end );" );
+        loadSummary.addParameter( int.class, "start" );
+        loadSummary.addParameter( int.class, "end" );
+        loadSummary.addAnnotation( Override.class );
+    }
+
+    private void addReloadMethodImpl( final SourceGenerationContext context,
+                                      final JavaClassSource restImpl ) {
+        final MethodSource<JavaClassSource> reload = restImpl.addMethod();
+        reload
+                .setName( "reload" )
+                .setPublic()
+                .setReturnType( context.getEntityName() )
+                .setBody( "return " + ENTITY_SERVICE + ".load( " + context.getEntityName() + ".class, model );" );
+        reload.addParameter( context.getEntityName(), "model" );
+        reload.addAnnotation( Override.class );
+    }
+
     private void addCreateMethodImpl( final SourceGenerationContext context,
                                       final JavaClassSource restImpl ) {
         final MethodSource<JavaClassSource> create = restImpl.addMethod();
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.view.impl.html;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.mvel2.templates.CompiledTemplate;
+import org.mvel2.templates.SimpleTemplateRegistry;
+import org.mvel2.templates.TemplateError;
+import org.mvel2.templates.TemplateRegistry;
+
+/**
+ * The compiled templates of {@link InputTemplateProvider input template providers}, which can be shared by concurrent
+ * renderings. Templates declared while rendering, such as those of {@code @declare} tags, go to the
+ * {@link #newRenderingRegistry() registry of the rendering} instead.
+ */
+public final class CompiledTemplateRegistry {
+
+    private final Map<String, CompiledTemplate> templates;
+
+    private CompiledTemplateRegistry( final Map<String, CompiledTemplate> templates ) {
+        this.templates = Collections.unmodifiableMap( templates );
+    }
+
+    public static CompiledTemplateRegistry of( final Iterable<? extends InputTemplateProvider> providers ) {
+        final TemplateRegistry registered = new SimpleTemplateRegistry();
+        for ( final InputTemplateProvider provider : providers ) {
+            provider.registerTemplates( registered );
+        }
+
+        final Map<String, CompiledTemplate> templates = new HashMap<>();
+        for ( final String name : registered.getNames() ) {
+            templates.put( name, registered.getNamedTemplate( name ) );
+        }
+
+        return new CompiledTemplateRegistry( templates );
+    }
+
+    /**
+     * @return A registry for a single rendering, holding the shared templates and those declared by the rendering.
+     */
+    public TemplateRegistry newRenderingRegistry() {
+        return new RenderingRegistry();
+    }
+
+    private class RenderingRegistry implements TemplateRegistry {
+
+        private final Map<String, CompiledTemplate> declared = new HashMap<>();
+
+        @Override
+        public Iterator<String> iterator() {
+            return getNames().iterator();
+        }
+
+        @Override
+        public Set<String> getNames() {
+            final Set<String> names = new HashSet<>( templates.keySet() );
+            names.addAll( declared.keySet() );
+            return names;
+        }
+
+        @Override
+        public boolean contains( final String name ) {
+            return declared.containsKey( name ) || templates.containsKey( name );
+        }
+
+        @Override
+        public void addNamedTemplate( final String name, final CompiledTemplate template ) {
+            declared.put( name, template );
+        }
+
+        @Override
+        public CompiledTemplate getNamedTemplate( final String name ) {
+            final CompiledTemplate template = declared.containsKey( name ) ? declared.get( name ) : templates.get( name );
+            if ( template == null ) {
+                throw new TemplateError( "no named template exists '" + name + "'" );
+            }
+
+            return template;
+        }
+
+    }
+
+}
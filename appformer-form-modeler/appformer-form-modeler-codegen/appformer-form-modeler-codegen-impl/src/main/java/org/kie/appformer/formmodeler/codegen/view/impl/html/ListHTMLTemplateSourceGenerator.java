@@ -26,7 +26,6 @@ import org.kie.appformer.formmodeler.codegen.view.ListView;
 import org.kie.appformer.formmodeler.codegen.view.impl.html.util.HTMLTemplateFormatter;
 import org.mvel2.templates.CompiledTemplate;
 import org.mvel2.templates.TemplateCompiler;
-import org.mvel2.templates.TemplateRuntime;
 
 @ListView
 @ApplicationScoped
@@ -45,6 +44,6 @@ public class ListHTMLTemplateSourceGenerator implements HTMLTemplateGenerator {
 
     @Override
     public String generateHTMLTemplate( SourceGenerationContext context ) {
-        return formatter.formatHTMLCode( (String) TemplateRuntime.execute( listViewTemplate ) );
+        return formatter.formatHTMLCode( TemplateRendering.execute( listViewTemplate ) );
     }
 }
@@ -29,15 +29,12 @@ import org.kie.appformer.formmodeler.codegen.view.HTMLTemplateGenerator;
 import org.kie.appformer.formmodeler.codegen.view.impl.html.util.HTMLTemplateFormatter;
 import org.kie.workbench.common.forms.model.FormDefinition;
 import org.mvel2.templates.CompiledTemplate;
-import org.mvel2.templates.SimpleTemplateRegistry;
 import org.mvel2.templates.TemplateCompiler;
-import org.mvel2.templates.TemplateRegistry;
-import org.mvel2.templates.TemplateRuntime;
 
 @FormView
 @ApplicationScoped
 public class MVELFormHTMLTemplateSourceGenerator implements HTMLTemplateGenerator {
-    TemplateRegistry registry = new SimpleTemplateRegistry();
+    private CompiledTemplateRegistry registry;
 
     @Inject
     protected Instance<InputTemplateProvider> providers;
@@ -48,20 +45,25 @@ public class MVELFormHTMLTemplateSourceGenerator implements HTMLTemplateGenerato
     private final String formTemplatePath = "templates/form.mv";
     private CompiledTemplate formTemplate;
 
+    public MVELFormHTMLTemplateSourceGenerator() {
+    }
+
+    MVELFormHTMLTemplateSourceGenerator( final Instance<InputTemplateProvider> providers,
+                                         final HTMLTemplateFormatter formatter ) {
+        this.providers = providers;
+        this.formatter = formatter;
+    }
+
     @PostConstruct
     protected void init() {
         formTemplate = TemplateCompiler.compileTemplate( getClass().getResourceAsStream( formTemplatePath ) );
-
-        for ( final InputTemplateProvider provider : providers ) {
-            provider.registerTemplates( registry );
-        }
-
+        registry = CompiledTemplateRegistry.of( providers );
     }
 
     @Override
     public String generateHTMLTemplate( final SourceGenerationContext context ) {
         final Map<String, FormDefinition> params = new HashMap<>(  );
         params.put( "formDefinition", context.getFormDefinition() );
-        return formatter.formatHTMLCode( ( String ) TemplateRuntime.execute( formTemplate, null, params, registry ) );
+        return formatter.formatHTMLCode( TemplateRendering.execute( formTemplate, params, registry ) );
     }
 }
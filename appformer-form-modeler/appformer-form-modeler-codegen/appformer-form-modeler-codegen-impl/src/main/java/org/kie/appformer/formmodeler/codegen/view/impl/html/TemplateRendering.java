@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.view.impl.html;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.mvel2.optimizers.AccessorOptimizer;
+import org.mvel2.optimizers.OptimizerFactory;
+import org.mvel2.templates.CompiledTemplate;
+import org.mvel2.templates.TemplateRuntime;
+
+/**
+ * Renders precompiled MVEL templates. Form sources are generated concurrently, so renderings share the compiled
+ * templates but each gets its own runtime and {@link CompiledTemplateRegistry#newRenderingRegistry() registry}.
+ *
+ * Expressions are optimized by the MVEL optimizer named by {@code appformer.codegen.mvel_optimizer}, such as
+ * {@code ASM} to compile them to bytecode right away, or by MVEL's default dynamic optimizer if it is not set. The
+ * optimizer is only set on the rendering thread while a template renders, so other MVEL users are not affected.
+ */
+final class TemplateRendering {
+
+    private static final String OPTIMIZER_PROPERTY = "appformer.codegen.mvel_optimizer";
+
+    private static final Class<? extends AccessorOptimizer> OPTIMIZER = getOptimizer();
+
+    private TemplateRendering() {
+    }
+
+    static String execute( final CompiledTemplate template ) {
+        return render( () -> TemplateRuntime.execute( template ) );
+    }
+
+    static String execute( final CompiledTemplate template,
+                           final Map<String, ?> vars,
+                           final CompiledTemplateRegistry registry ) {
+        return render( () -> TemplateRuntime.execute( template, null, vars, registry.newRenderingRegistry() ) );
+    }
+
+    private static String render( final Supplier<Object> rendering ) {
+        if ( OPTIMIZER != null ) {
+            OptimizerFactory.setThreadAccessorOptimizer( OPTIMIZER );
+        }
+        try {
+            return (String) rendering.get();
+        } finally {
+            if ( OPTIMIZER != null ) {
+                OptimizerFactory.clearThreadAccessorOptimizer();
+            }
+        }
+    }
+
+    private static Class<? extends AccessorOptimizer> getOptimizer() {
+        final String optimizer = System.getProperty( OPTIMIZER_PROPERTY );
+        return optimizer != null ? OptimizerFactory.getAccessorCompiler( optimizer ).getClass() : null;
+    }
+
+}
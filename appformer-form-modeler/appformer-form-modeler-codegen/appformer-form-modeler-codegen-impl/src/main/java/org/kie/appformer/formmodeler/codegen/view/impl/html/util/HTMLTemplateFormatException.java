@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.view.impl.html.util;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Thrown when a generated HTML template is not well-formed.
+ */
+public class HTMLTemplateFormatException extends RuntimeException {
+
+    private final int line;
+    private final int column;
+
+    public HTMLTemplateFormatException( final XMLStreamException cause ) {
+        this( cause, cause.getLocation() );
+    }
+
+    private HTMLTemplateFormatException( final XMLStreamException cause,
+                                         final Location location ) {
+        super( "Malformed HTML template" + ( location != null ? " at line " + location.getLineNumber()
+                                                                + ", column " + location.getColumnNumber() : "" )
+                       + ": " + message( cause ), cause );
+        this.line = location != null ? location.getLineNumber() : -1;
+        this.column = location != null ? location.getColumnNumber() : -1;
+    }
+
+    /*
+     * StAX implementations prefix the message with the location, which is already part of ours.
+     */
+    private static String message( final XMLStreamException cause ) {
+        final String message = cause.getMessage();
+        final int start = message != null ? message.indexOf( "Message: " ) : -1;
+        return start >= 0 ? message.substring( start + "Message: ".length() ) : message;
+    }
+
+    /**
+     * @return The line of the error, starting at 1, or -1 if it is unknown.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return The column of the error, starting at 1, or -1 if it is unknown.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+}
@@ -16,30 +16,225 @@
 
 package org.kie.appformer.formmodeler.codegen.view.impl.html.util;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.enterprise.context.Dependent;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import org.dom4j.Document;
-import org.dom4j.DocumentHelper;
-import org.dom4j.io.HTMLWriter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+/**
+ * Pretty prints generated HTML templates in a single pass over a StAX stream, keeping only the open elements in
+ * memory. Elements are indented by two spaces, text is trimmed, and void elements such as {@code input} are written
+ * without closing tags.
+ */
 @Dependent
 public class HTMLTemplateFormatter {
-    private static transient Logger log = LoggerFactory.getLogger( HTMLTemplateFormatter.class );
 
-    public String formatHTMLCode( String htmlTemplate ) {
+    private static final String INDENT = "  ";
+
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>( Arrays.asList( "area", "base", "br", "col", "hr",
+                                                                                   "img", "input", "link", "meta",
+                                                                                   "param" ) );
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        INPUT_FACTORY.setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, false );
+        INPUT_FACTORY.setProperty( XMLInputFactory.IS_COALESCING, true );
+        INPUT_FACTORY.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+    }
+
+    /**
+     * @throws HTMLTemplateFormatException
+     *             If the template is not well-formed.
+     */
+    public String formatHTMLCode( final String htmlTemplate ) {
+        final StringWriter out = new StringWriter( htmlTemplate.length() );
         try {
-            Document document = DocumentHelper.parseText( htmlTemplate );
-            StringWriter sw = new StringWriter();
-            HTMLWriter writer = new HTMLWriter( sw );
-            writer.write( document );
-            return sw.toString();
-        } catch ( Exception e ) {
-            log.warn( "Error formatting html template: ", e );
-        }
-        return null;
+            format( new StringReader( htmlTemplate ), out );
+        } catch ( final IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        return out.toString();
     }
+
+    /**
+     * @throws HTMLTemplateFormatException
+     *             If the template is not well-formed. Part of the template may have been written by then.
+     */
+    public void format( final Reader in,
+                        final Writer out ) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader( in );
+            new Printer( out ).print( reader );
+        } catch ( final XMLStreamException e ) {
+            throw new HTMLTemplateFormatException( e );
+        } finally {
+            close( reader );
+        }
+    }
+
+    private static void close( final XMLStreamReader reader ) {
+        if ( reader != null ) {
+            try {
+                reader.close();
+            } catch ( final XMLStreamException e ) {
+                // Nothing left to release
+            }
+        }
+    }
+
+    private static class Printer {
+
+        private final Writer out;
+
+        /*
+         * One entry per open element, telling whether it has elements or comments as children so that its end tag
+         * goes on a line of its own.
+         */
+        private final Deque<Boolean> open = new ArrayDeque<>();
+        private boolean startTagPending;
+        private boolean lineStarted;
+
+        Printer( final Writer out ) {
+            this.out = out;
+        }
+
+        void print( final XMLStreamReader reader ) throws XMLStreamException, IOException {
+            while ( reader.hasNext() ) {
+                switch ( reader.next() ) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        startElement( reader );
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        endElement( reader );
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        text( reader.getText() );
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        comment( reader.getText() );
+                        break;
+                    default:
+                        break;
+                }
+            }
+            out.flush();
+        }
+
+        private void startElement( final XMLStreamReader reader ) throws IOException {
+            closeStartTag();
+            newLine();
+            out.write( '<' );
+            out.write( name( reader.getPrefix(), reader.getLocalName() ) );
+            for ( int i = 0; i < reader.getAttributeCount(); i++ ) {
+                out.write( ' ' );
+                out.write( name( reader.getAttributePrefix( i ), reader.getAttributeLocalName( i ) ) );
+                out.write( "=\"" );
+                escape( reader.getAttributeValue( i ), true );
+                out.write( '"' );
+            }
+            startTagPending = true;
+            open.push( false );
+        }
+
+        private void endElement( final XMLStreamReader reader ) throws IOException {
+            final String name = name( reader.getPrefix(), reader.getLocalName() );
+            final boolean hasChildren = open.pop();
+            if ( startTagPending ) {
+                startTagPending = false;
+                out.write( VOID_ELEMENTS.contains( name.toLowerCase() ) ? ">" : "></" + name + ">" );
+                return;
+            }
+            if ( hasChildren ) {
+                newLine();
+            }
+            out.write( "</" );
+            out.write( name );
+            out.write( '>' );
+        }
+
+        private void text( final String text ) throws IOException {
+            final String normalized = text.trim().replaceAll( "\\s+", " " );
+            if ( !normalized.isEmpty() ) {
+                closeStartTag();
+                escape( normalized, false );
+                lineStarted = true;
+            }
+        }
+
+        private void comment( final String text ) throws IOException {
+            closeStartTag();
+            newLine();
+            out.write( "<!--" );
+            out.write( text );
+            out.write( "-->" );
+        }
+
+        private void closeStartTag() throws IOException {
+            if ( startTagPending ) {
+                startTagPending = false;
+                out.write( '>' );
+            }
+        }
+
+        private void newLine() throws IOException {
+            if ( !open.isEmpty() ) {
+                open.pop();
+                open.push( true );
+            }
+            if ( lineStarted ) {
+                out.write( '\n' );
+            }
+            for ( int i = 0; i < open.size(); i++ ) {
+                out.write( INDENT );
+            }
+            lineStarted = true;
+        }
+
+        private void escape( final String value,
+                             final boolean attribute ) throws IOException {
+            for ( int i = 0; i < value.length(); i++ ) {
+                final char c = value.charAt( i );
+                switch ( c ) {
+                    case '&':
+                        out.write( "&amp;" );
+                        break;
+                    case '<':
+                        out.write( "&lt;" );
+                        break;
+                    case '>':
+                        out.write( "&gt;" );
+                        break;
+                    case '"':
+                        out.write( attribute ? "&quot;" : "\"" );
+                        break;
+                    default:
+                        out.write( c );
+                }
+            }
+        }
+
+        private static String name( final String prefix,
+                                    final String localName ) {
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+
+    }
+
 }
@@ -39,7 +39,6 @@ import org.kie.appformer.formmodeler.codegen.view.impl.java.tableColumns.ColumnM
 import org.kie.workbench.common.forms.model.FieldDefinition;
 import org.kie.workbench.common.forms.model.FormDefinition;
 import org.kie.workbench.common.forms.model.JavaModel;
-import org.kie.workbench.common.forms.model.impl.relations.EntityRelationField;
 
 @ListView
 @ApplicationScoped
@@ -130,20 +129,16 @@ public class RoasterListViewSourceGenerator implements JavaSourceGenerator {
                 .append( " = new ArrayList<>();" );
 
 
-        final FormDefinition form = context.getFormDefinition();
-
-        for ( final FieldDefinition field : form.getFields() ) {
-            if ( !( field instanceof EntityRelationField ) ) {
-                final ColumnMetaGenerator generator = columnMetaGeneratorManager.getColumnMetaGeneratorForType( field.getStandaloneClassName() );
-                if ( generator != null ) {
-                    for ( final String imp : generator.getImports() ) {
-                        viewClass.addImport( imp );
-                    }
-                    body.append( generator.generateColumnMeta( field.getBinding(),
-                                                               field.getLabel(),
-                                                               context.getEntityName(),
-                                                               context ) );
+        for ( final FieldDefinition field : context.getListColumnFields() ) {
+            final ColumnMetaGenerator generator = columnMetaGeneratorManager.getColumnMetaGeneratorForType( field.getStandaloneClassName() );
+            if ( generator != null ) {
+                for ( final String imp : generator.getImports() ) {
+                    viewClass.addImport( imp );
                 }
+                body.append( generator.generateColumnMeta( field.getBinding(),
+                                                           field.getLabel(),
+                                                           context.getEntityName(),
+                                                           context ) );
             }
         }
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.enterprise.concurrent.ManagedThreadFactory;
+
+import org.guvnor.common.services.backend.util.CommentedOptionFactory;
+import org.guvnor.common.services.project.model.Package;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kie.appformer.formmodeler.codegen.view.HTMLTemplateGenerator;
+import org.kie.workbench.common.forms.commons.layout.FormLayoutTemplateGenerator;
+import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.forms.serialization.FormDefinitionSerializer;
+import org.kie.workbench.common.services.shared.project.KieProject;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.IOService;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith( MockitoJUnitRunner.class )
+public class FormSourcesGeneratorImplTest {
+
+    @Mock
+    private IOService ioService;
+
+    @Mock
+    private KieProjectService projectService;
+
+    @Mock
+    private ProjectModelCache projectModelCache;
+
+    @Mock
+    private JavaSourceGenerator formModelSourceGenerator;
+
+    @Mock
+    private JavaSourceGenerator formViewSourceGenerator;
+
+    @Mock
+    private HTMLTemplateGenerator formViewTemplateGenerator;
+
+    @Mock
+    private FormDefinitionSerializer formDefinitionSerializer;
+
+    @Mock
+    private FormLayoutTemplateGenerator formLayoutTemplateGenerator;
+
+    @Mock
+    private JavaSourceGenerator listViewSourceGenerator;
+
+    @Mock
+    private HTMLTemplateGenerator listViewTemplateGenerator;
+
+    @Mock
+    private JavaSourceGenerator restApiSourceGenerator;
+
+    @Mock
+    private JavaSourceGenerator entityServiceSourceGenerator;
+
+    @Mock
+    private JavaSourceGenerator restImplSourceGenerator;
+
+    @Mock
+    private JavaSourceGenerator flowProducerSourceGenerator;
+
+    @Mock
+    private ErraiAppPropertiesGenerator serializableTypesGenerator;
+
+    @Mock
+    private CommentedOptionFactory commentedOptionFactory;
+
+    @Mock
+    private ManagedThreadFactory threadFactory;
+
+    @Mock
+    private KieProject project;
+
+    @Mock
+    private Package dataObjectPackage;
+
+    @Mock
+    private Path srcPath;
+
+    @Mock
+    private Path brokenPath;
+
+    @Mock
+    private Path validPath;
+
+    @Mock
+    private FormDefinition brokenForm;
+
+    @Mock
+    private FormDefinition validForm;
+
+    @InjectMocks
+    private FormSourcesGeneratorImpl generator;
+
+    @Before
+    public void setup() {
+        when( threadFactory.newThread( any( Runnable.class ) ) ).thenAnswer( invocation -> new Thread( (Runnable) invocation.getArguments()[0] ) );
+        generator.init();
+
+        when( projectService.resolveProject( any( Path.class ) ) ).thenReturn( project );
+        when( projectService.resolvePackage( any( Path.class ) ) ).thenReturn( dataObjectPackage );
+        // A data object outside of any package
+        when( projectService.resolvePackage( brokenPath ) ).thenReturn( null );
+        when( projectModelCache.getForms( project ) ).thenReturn( Collections.emptyList() );
+        when( dataObjectPackage.getPackageName() ).thenReturn( "org.test" );
+        when( dataObjectPackage.getPackageMainSrcPath() ).thenReturn( srcPath );
+        when( srcPath.toURI() ).thenReturn( "default://master@repo/project/src/main/java/org/test" );
+        when( validForm.getName() ).thenReturn( "Valid" );
+        when( brokenForm.getName() ).thenReturn( "Broken" );
+    }
+
+    @After
+    public void shutdown() {
+        generator.shutdown();
+    }
+
+    @Test
+    public void formThatCannotBePreparedDoesNotStopTheBatch() {
+        final Map<Path, FormDefinition> forms = new LinkedHashMap<>();
+        forms.put( brokenPath, brokenForm );
+        forms.put( validPath, validForm );
+
+        generator.generateEntityFormSources( forms );
+
+        final ArgumentCaptor<SourceGenerationContext> context = ArgumentCaptor.forClass( SourceGenerationContext.class );
+        verify( formModelSourceGenerator ).generateJavaSource( context.capture() );
+        assertSame( validForm, context.getValue().getFormDefinition() );
+        verify( formDefinitionSerializer ).serialize( validForm );
+    }
+
+}
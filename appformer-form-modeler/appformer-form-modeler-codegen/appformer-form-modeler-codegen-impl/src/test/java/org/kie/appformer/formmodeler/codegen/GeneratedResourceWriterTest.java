@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.uberfire.io.IOService;
+import org.uberfire.java.nio.base.options.CommentedOption;
+import org.uberfire.java.nio.file.FileSystem;
+import org.uberfire.java.nio.file.Path;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith( MockitoJUnitRunner.class )
+public class GeneratedResourceWriterTest {
+
+    @Mock
+    private IOService ioService;
+
+    @Mock
+    private FileSystem fileSystem;
+
+    @Mock
+    private Path existing;
+
+    @Mock
+    private Path missing;
+
+    @Mock
+    private CommentedOption option;
+
+    private GeneratedResourceWriter writer;
+
+    @Before
+    public void setup() {
+        when( existing.getFileSystem() ).thenReturn( fileSystem );
+        when( missing.getFileSystem() ).thenReturn( fileSystem );
+        when( ioService.exists( existing ) ).thenReturn( true );
+        when( ioService.readAllBytes( existing ) ).thenReturn( "class A {}".getBytes( StandardCharsets.UTF_8 ) );
+        when( ioService.exists( missing ) ).thenReturn( false );
+
+        writer = new GeneratedResourceWriter( ioService );
+    }
+
+    @Test
+    public void unchangedResourcesAreNotWritten() {
+        writer.add( existing, "class A {}", option );
+
+        assertEquals( 0, writer.writeChanged() );
+
+        verify( ioService, never() ).startBatch( any( FileSystem.class ) );
+        verify( ioService, never() ).write( any( Path.class ), anyString(), any( CommentedOption.class ) );
+    }
+
+    @Test
+    public void changedAndNewResourcesAreWrittenInOneBatch() {
+        writer.add( existing, "class A { int a; }", option );
+        writer.add( missing, "class B {}", option );
+
+        assertEquals( 2, writer.writeChanged() );
+
+        verify( ioService ).startBatch( fileSystem );
+        verify( ioService ).write( existing, "class A { int a; }", option );
+        verify( ioService ).write( missing, "class B {}", option );
+        verify( ioService ).endBatch();
+    }
+
+    @Test
+    public void batchOptionReplacesTheOptionsOfResources() {
+        final CommentedOption batchOption = mock( CommentedOption.class );
+        writer = new GeneratedResourceWriter( ioService, batchOption );
+        writer.add( missing, "class B {}", option );
+
+        assertEquals( 1, writer.writeChanged() );
+
+        verify( ioService ).write( missing, "class B {}", batchOption );
+    }
+
+}
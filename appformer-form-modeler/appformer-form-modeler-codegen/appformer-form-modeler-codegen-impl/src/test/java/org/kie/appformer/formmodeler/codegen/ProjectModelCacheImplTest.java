@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.guvnor.common.services.project.model.Package;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kie.workbench.common.forms.editor.service.VFSFormFinderService;
+import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.screens.datamodeller.model.GenerationResult;
+import org.kie.workbench.common.screens.datamodeller.service.DataModelerService;
+import org.kie.workbench.common.services.datamodeller.core.DataModel;
+import org.kie.workbench.common.services.datamodeller.core.DataObject;
+import org.kie.workbench.common.services.shared.project.KieProject;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.IOService;
+import org.uberfire.workbench.events.ResourceDeletedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith( MockitoJUnitRunner.class )
+public class ProjectModelCacheImplTest {
+
+    private static final String ROOT = "default://master@repo/users";
+    private static final String MAIN_SRC = ROOT + "/src/main/java";
+
+    @Mock
+    private IOService ioService;
+
+    @Mock
+    private KieProjectService projectService;
+
+    @Mock
+    private DataModelerService dataModelerService;
+
+    @Mock
+    private VFSFormFinderService vfsFormFinderService;
+
+    @Mock
+    private KieProject project;
+
+    @Mock
+    private Package defaultPackage;
+
+    @Mock
+    private DataModel dataModel;
+
+    private ProjectModelCacheImpl cache;
+
+    @Before
+    public void setup() {
+        final Path root = path( ROOT );
+        final Path mainSrc = path( MAIN_SRC );
+        final Path testSrc = path( ROOT + "/src/test/java" );
+        when( project.getRootPath() ).thenReturn( root );
+        when( projectService.resolveDefaultPackage( project ) ).thenReturn( defaultPackage );
+        when( defaultPackage.getPackageMainSrcPath() ).thenReturn( mainSrc );
+        when( defaultPackage.getPackageTestSrcPath() ).thenReturn( testSrc );
+
+        final DataObject person = dataObject( "org.Person" );
+        final DataObject address = dataObject( "org.Address" );
+        when( dataModel.getDataObjects() ).thenReturn( new HashSet<>( Arrays.asList( person, address ) ) );
+        when( dataModelerService.loadModel( project ) ).thenReturn( dataModel );
+
+        cache = new ProjectModelCacheImpl( ioService, projectService, dataModelerService, vfsFormFinderService ) {
+            @Override
+            String readSource( final Path path ) {
+                return "source of " + path.toURI();
+            }
+        };
+    }
+
+    @Test
+    public void projectIsLoadedOnce() {
+        assertEquals( 2, cache.getDataObjects( project ).size() );
+        assertNotNull( cache.getDataObject( project, "org.Person" ) );
+        assertNull( cache.getDataObject( project, "org.Missing" ) );
+
+        verify( dataModelerService, times( 1 ) ).loadModel( project );
+    }
+
+    @Test
+    public void onlyTheChangedSourceIsParsedAgain() {
+        cache.getDataObjects( project );
+        final Path source = path( MAIN_SRC + "/org/Person.java" );
+        final DataObject updated = dataObject( "org.Person" );
+        final GenerationResult result = mock( GenerationResult.class );
+        when( result.getDataObject() ).thenReturn( updated );
+        when( dataModelerService.loadDataObject( project.getRootPath(), "source of " + source.toURI(), source ) ).thenReturn( result );
+
+        final ResourceUpdatedEvent event = mock( ResourceUpdatedEvent.class );
+        when( event.getPath() ).thenReturn( source );
+        cache.onResourceUpdated( event );
+
+        assertSame( updated, cache.getDataObject( project, "org.Person" ) );
+        assertEquals( 2, cache.getDataObjects( project ).size() );
+        verify( dataModelerService, times( 1 ) ).loadModel( project );
+        verify( dataModelerService, times( 1 ) ).loadDataObject( any( Path.class ), anyString(), any( Path.class ) );
+    }
+
+    @Test
+    public void classNamesAreSorted() {
+        assertEquals( Arrays.asList( "org.Address", "org.Person" ), new ArrayList<>( cache.getDataObjectClassNames( project ) ) );
+    }
+
+    @Test
+    public void deletedSourceIsRemoved() {
+        cache.getDataObjects( project );
+
+        final Path source = path( MAIN_SRC + "/org/Address.java" );
+        final ResourceDeletedEvent event = mock( ResourceDeletedEvent.class );
+        when( event.getPath() ).thenReturn( source );
+        cache.onResourceDeleted( event );
+
+        assertNull( cache.getDataObject( project, "org.Address" ) );
+        assertEquals( Collections.singleton( "org.Person" ), cache.getDataObjectClassNames( project ) );
+        verify( dataModelerService, never() ).loadDataObject( any( Path.class ), anyString(), any( Path.class ) );
+    }
+
+    @Test
+    public void formsAreReloadedOnlyAfterAFormChanged() {
+        final FormDefinition form = mock( FormDefinition.class );
+        when( vfsFormFinderService.findAllForms( project.getRootPath() ) ).thenReturn( Collections.singletonList( form ) );
+        cache.getForms( project );
+        cache.getForms( project );
+        verify( vfsFormFinderService, times( 1 ) ).findAllForms( project.getRootPath() );
+
+        final Path formPath = path( ROOT + "/src/main/resources/org/Person.frm" );
+        final ResourceUpdatedEvent event = mock( ResourceUpdatedEvent.class );
+        when( event.getPath() ).thenReturn( formPath );
+        cache.onResourceUpdated( event );
+
+        assertEquals( 1, cache.getForms( project ).size() );
+        verify( vfsFormFinderService, times( 2 ) ).findAllForms( project.getRootPath() );
+    }
+
+    private static Path path( final String uri ) {
+        final Path path = mock( Path.class );
+        when( path.toURI() ).thenReturn( uri );
+        when( path.getFileName() ).thenReturn( uri.substring( uri.lastIndexOf( '/' ) + 1 ) );
+        return path;
+    }
+
+    private static DataObject dataObject( final String className ) {
+        final DataObject dataObject = mock( DataObject.class );
+        when( dataObject.getClassName() ).thenReturn( className );
+        return dataObject;
+    }
+
+}
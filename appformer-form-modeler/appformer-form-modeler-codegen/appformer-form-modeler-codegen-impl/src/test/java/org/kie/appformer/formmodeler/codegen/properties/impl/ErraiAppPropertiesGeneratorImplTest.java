@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.properties.impl;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ErraiAppPropertiesGeneratorImplTest {
+
+    private final ErraiAppPropertiesGeneratorImpl generator = new ErraiAppPropertiesGeneratorImpl();
+
+    @Test
+    public void typesAreDeclaredInSortedOrder() {
+        final String properties = generator.generate( Arrays.asList( "org.b.Person", "org.a.Address", "org.b.Person" ) );
+
+        assertTrue( properties.contains( "errai.marshalling.serializableTypes=org.a.Address \\\norg.b.Person\n" ) );
+        assertTrue( properties.contains( "errai.ui.bindableTypes=org.a.Address \\\norg.b.Person\n" ) );
+    }
+
+    @Test
+    public void sameTypesInAnyOrderGenerateTheSameProperties() {
+        assertEquals( generator.generate( Arrays.asList( "org.Person", "org.Address", "org.Order" ) ),
+                      generator.generate( Arrays.asList( "org.Order", "org.Person", "org.Address" ) ) );
+    }
+
+}
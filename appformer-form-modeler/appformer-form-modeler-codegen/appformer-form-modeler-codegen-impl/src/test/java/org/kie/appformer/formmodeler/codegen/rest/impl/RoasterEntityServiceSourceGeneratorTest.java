@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.rest.impl;
+
+import java.util.Collections;
+
+import org.guvnor.common.services.project.model.Package;
+import org.jboss.forge.roaster.Roaster;
+import org.jboss.forge.roaster.model.source.JavaClassSource;
+import org.jboss.forge.roaster.model.source.MethodSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.appformer.formmodeler.codegen.SourceGenerationContext;
+import org.kie.appformer.formmodeler.rendering.server.rest.CachePolicy;
+import org.kie.workbench.common.forms.data.modeller.model.DataObjectFormModel;
+import org.kie.workbench.common.forms.model.FieldDefinition;
+import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.forms.model.impl.basic.textBox.TextBoxFieldDefinition;
+import org.kie.workbench.common.forms.model.impl.relations.MultipleSubFormFieldDefinition;
+import org.kie.workbench.common.forms.model.impl.relations.SubFormFieldDefinition;
+import org.kie.workbench.common.services.datamodeller.core.Annotation;
+import org.kie.workbench.common.services.datamodeller.core.DataObject;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.backend.vfs.PathFactory;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RoasterEntityServiceSourceGeneratorTest {
+
+    private final RoasterEntityServiceSourceGenerator generator = new RoasterEntityServiceSourceGenerator();
+
+    private FormDefinition form;
+    private Path path;
+    private Package server;
+    private SourceGenerationContext context;
+
+    @Before
+    public void setup() {
+        form = new FormDefinition( new DataObjectFormModel( "employee", "org.test.Employee" ) );
+        form.setId( "employee" );
+        form.setName( "Employee" );
+
+        path = PathFactory.newPath( "Employee.frm", "default://master@test/Employee.frm" );
+        server = new Package( path, null, null, null, null, "org.test.server", "caption", "relativeCaption" );
+        context = new SourceGenerationContext( form, path, null, null, null, server, Collections.emptyList() );
+    }
+
+    @Test
+    public void relationsOfTheFormAreFetched() {
+        addField( new TextBoxFieldDefinition(), "name" );
+        addField( new SubFormFieldDefinition(), "address" );
+        addField( new MultipleSubFormFieldDefinition(), "skills" );
+
+        final MethodSource<JavaClassSource> method = generate().getMethod( "getFetchedRelations" );
+
+        assertNotNull( method );
+        assertTrue( method.isProtected() );
+        assertEquals( "return new String[]{\"address\",\"skills\"};", method.getBody().replaceAll( "\\s", "" ) );
+    }
+
+    @Test
+    public void formsWithoutRelationsKeepTheDefaultFetchPlan() {
+        addField( new TextBoxFieldDefinition(), "name" );
+
+        assertNull( generate().getMethod( "getFetchedRelations" ) );
+    }
+
+    @Test
+    public void columnsOfTheListAreSummaryAttributes() {
+        addField( new TextBoxFieldDefinition(), "name" );
+        addField( new SubFormFieldDefinition(), "address" );
+        addField( new TextBoxFieldDefinition(), "email" );
+
+        final MethodSource<JavaClassSource> method = generate().getMethod( "getSummaryAttributes" );
+
+        assertNotNull( method );
+        assertEquals( "return new String[]{\"name\",\"email\"};", method.getBody().replaceAll( "\\s", "" ) );
+    }
+
+    @Test
+    public void cachePolicyFollowsTheAnnotationsOfTheDataObject() {
+        final DataObject dataObject = mock( DataObject.class );
+        assertEquals( CachePolicy.NONE, RoasterEntityServiceSourceGenerator.getCachePolicy( null ) );
+        assertEquals( CachePolicy.NONE, RoasterEntityServiceSourceGenerator.getCachePolicy( dataObject ) );
+
+        final Annotation cacheable = mock( Annotation.class );
+        when( dataObject.getAnnotation( "javax.persistence.Cacheable" ) ).thenReturn( cacheable );
+        assertEquals( CachePolicy.READ_WRITE, RoasterEntityServiceSourceGenerator.getCachePolicy( dataObject ) );
+
+        final Annotation cache = mock( Annotation.class );
+        when( cache.getValue( "usage" ) ).thenReturn( "READ_ONLY" );
+        when( dataObject.getAnnotation( "org.hibernate.annotations.Cache" ) ).thenReturn( cache );
+        assertEquals( CachePolicy.READ_MOSTLY, RoasterEntityServiceSourceGenerator.getCachePolicy( dataObject ) );
+
+        when( cacheable.getValue( "value" ) ).thenReturn( false );
+        assertEquals( CachePolicy.NONE, RoasterEntityServiceSourceGenerator.getCachePolicy( dataObject ) );
+    }
+
+    @Test
+    public void cachedEntitiesHaveTheirPolicy() {
+        final DataObject dataObject = mock( DataObject.class );
+        final Annotation cacheable = mock( Annotation.class );
+        when( dataObject.getAnnotation( "javax.persistence.Cacheable" ) ).thenReturn( cacheable );
+        context = new SourceGenerationContext( form, path, null, null, null, server, Collections.emptyList(), dataObject );
+
+        final MethodSource<JavaClassSource> method = generate().getMethod( "getCachePolicy" );
+
+        assertNotNull( method );
+        assertEquals( "return CachePolicy.READ_WRITE;", method.getBody().trim() );
+    }
+
+    private JavaClassSource generate() {
+        return Roaster.parse( JavaClassSource.class, generator.generateJavaSource( context ) );
+    }
+
+    private void addField( final FieldDefinition field, final String binding ) {
+        field.setId( binding );
+        field.setName( binding );
+        field.setBinding( binding );
+        form.getFields().add( field );
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.view.impl.html;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.enterprise.inject.Instance;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.appformer.formmodeler.codegen.SourceGenerationContext;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.inputs.TextAreaTemplateProvider;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.inputs.TextBoxTemplateProvider;
+import org.kie.appformer.formmodeler.codegen.view.impl.html.util.HTMLTemplateFormatter;
+import org.kie.workbench.common.forms.data.modeller.model.DataObjectFormModel;
+import org.kie.workbench.common.forms.model.FieldDefinition;
+import org.kie.workbench.common.forms.model.FormDefinition;
+import org.kie.workbench.common.forms.model.impl.basic.textBox.TextBoxFieldDefinition;
+import org.kie.workbench.common.forms.service.FieldManager;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.ext.layout.editor.api.editor.LayoutColumn;
+import org.uberfire.ext.layout.editor.api.editor.LayoutComponent;
+import org.uberfire.ext.layout.editor.api.editor.LayoutRow;
+import org.uberfire.ext.layout.editor.api.editor.LayoutTemplate;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MVELFormHTMLTemplateSourceGeneratorTest {
+
+    private static final String FIELD_DRAG_TYPE = "org.kie.workbench.common.forms.editor.client.editor.rendering.EditorFieldLayoutComponent";
+
+    private MVELFormHTMLTemplateSourceGenerator generator;
+
+    @Before
+    public void setup() {
+        generator = newGenerator();
+    }
+
+    @Test
+    public void formTemplateDeclaresItsTemplatesPerRendering() {
+        final String first = generator.generateHTMLTemplate( context( "name", "email" ) );
+        final String second = generator.generateHTMLTemplate( context( "phone" ) );
+
+        assertTrue( first.contains( "id=\"name\"" ) );
+        assertTrue( first.contains( "id=\"email\"" ) );
+        assertTrue( first.contains( "class=\"col-md-12\"" ) );
+        assertTrue( second.contains( "id=\"phone\"" ) );
+        assertFalse( second.contains( "id=\"name\"" ) );
+    }
+
+    @Test
+    public void concurrentRenderingsMatchSerialRenderings() throws Exception {
+        final List<SourceGenerationContext> contexts = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for ( int i = 0; i < 32; i++ ) {
+            contexts.add( context( "name" + i, "email" + i ) );
+            expected.add( generator.generateHTMLTemplate( contexts.get( i ) ) );
+        }
+
+        // Freshly compiled templates, so that their expressions are also optimized concurrently
+        final MVELFormHTMLTemplateSourceGenerator concurrent = newGenerator();
+        final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            final List<Future<String>> rendered = new ArrayList<>();
+            for ( final SourceGenerationContext context : contexts ) {
+                rendered.add( executor.submit( () -> concurrent.generateHTMLTemplate( context ) ) );
+            }
+            for ( int i = 0; i < contexts.size(); i++ ) {
+                assertEquals( expected.get( i ), rendered.get( i ).get() );
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static MVELFormHTMLTemplateSourceGenerator newGenerator() {
+        final FieldManager fieldManager = mock( FieldManager.class );
+        when( fieldManager.getDefinitionByTypeCode( anyString() ) ).thenReturn( mock( FieldDefinition.class ) );
+
+        final List<InputTemplateProvider> providers = Arrays.asList( new TextBoxTemplateProvider( fieldManager ),
+                                                                     new TextAreaTemplateProvider( fieldManager ) );
+        final Instance<InputTemplateProvider> instance = mock( Instance.class );
+        when( instance.iterator() ).then( invocation -> providers.iterator() );
+
+        final MVELFormHTMLTemplateSourceGenerator generator = new MVELFormHTMLTemplateSourceGenerator( instance, new HTMLTemplateFormatter() );
+        generator.init();
+        return generator;
+    }
+
+    private static SourceGenerationContext context( final String... fieldNames ) {
+        final FormDefinition form = new FormDefinition( new DataObjectFormModel( "employee", "org.test.Employee" ) );
+        form.setId( "org.test.Employee" );
+        form.setName( "Employee" );
+
+        final LayoutTemplate layout = new LayoutTemplate();
+        for ( final String name : fieldNames ) {
+            final TextBoxFieldDefinition field = new TextBoxFieldDefinition();
+            field.setId( name );
+            field.setName( name );
+            field.setLabel( name );
+            form.getFields().add( field );
+
+            final LayoutComponent component = new LayoutComponent( FIELD_DRAG_TYPE );
+            component.addProperty( "field_id", field.getId() );
+            final LayoutColumn column = new LayoutColumn( "12" );
+            column.addLayoutComponent( component );
+            final LayoutRow row = new LayoutRow();
+            row.add( column );
+            layout.addRow( row );
+        }
+        form.setLayoutTemplate( layout );
+
+        return new SourceGenerationContext( form, mock( Path.class ), null, null, null, null, Collections.emptyList() );
+    }
+
+}
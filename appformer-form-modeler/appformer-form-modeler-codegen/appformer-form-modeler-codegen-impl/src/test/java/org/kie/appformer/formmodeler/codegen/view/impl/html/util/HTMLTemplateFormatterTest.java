@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.view.impl.html.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HTMLTemplateFormatterTest {
+
+    private final HTMLTemplateFormatter formatter = new HTMLTemplateFormatter();
+
+    @Test
+    public void nestedElementsAreIndented() {
+        final String formatted = formatter.formatHTMLCode( "<div>\n        <form onsubmit=\"false\">"
+                                                                   + "<fieldset>   </fieldset></form>\n</div>" );
+
+        assertEquals( "<div>\n"
+                              + "  <form onsubmit=\"false\">\n"
+                              + "    <fieldset></fieldset>\n"
+                              + "  </form>\n"
+                              + "</div>", formatted );
+    }
+
+    @Test
+    public void textIsTrimmedAndKeptInline() {
+        final String formatted = formatter.formatHTMLCode( "<div><label for=\"name\">\n   Full\n   name  </label>"
+                                                                   + "<label><input type=\"checkbox\"/> Active </label></div>" );
+
+        assertEquals( "<div>\n"
+                              + "  <label for=\"name\">Full name</label>\n"
+                              + "  <label>\n"
+                              + "    <input type=\"checkbox\">Active\n"
+                              + "  </label>\n"
+                              + "</div>", formatted );
+    }
+
+    @Test
+    public void specialCharactersAreEscaped() {
+        final String formatted = formatter.formatHTMLCode( "<p title=\"a &amp; &quot;b&quot;\">1 &lt; 2 &amp;&amp; \"c\"</p>" );
+
+        assertEquals( "<p title=\"a &amp; &quot;b&quot;\">1 &lt; 2 &amp;&amp; \"c\"</p>", formatted );
+    }
+
+    @Test
+    public void commentsAreKept() {
+        final String formatted = formatter.formatHTMLCode( "<div><!-- fields --><span>a</span></div>" );
+
+        assertEquals( "<div>\n"
+                              + "  <!-- fields -->\n"
+                              + "  <span>a</span>\n"
+                              + "</div>", formatted );
+    }
+
+    @Test
+    public void malformedTemplateIsReportedWithItsPosition() {
+        try {
+            formatter.formatHTMLCode( "<div>\n  <span>\n</div>" );
+            fail( "Malformed templates must not be formatted" );
+        } catch ( final HTMLTemplateFormatException e ) {
+            assertEquals( 3, e.getLine() );
+            assertTrue( e.getColumn() > 0 );
+            assertTrue( e.getMessage(), e.getMessage().startsWith( "Malformed HTML template at line 3, column " ) );
+        }
+    }
+
+}
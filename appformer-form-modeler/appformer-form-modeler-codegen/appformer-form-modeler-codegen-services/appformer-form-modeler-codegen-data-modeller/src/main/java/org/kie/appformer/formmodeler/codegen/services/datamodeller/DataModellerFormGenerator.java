@@ -16,9 +16,28 @@
 
 package org.kie.appformer.formmodeler.codegen.services.datamodeller;
 
+import java.util.Collection;
+
 import org.kie.workbench.common.services.datamodeller.core.DataObject;
+import org.kie.workbench.common.services.shared.project.KieProject;
 import org.uberfire.backend.vfs.Path;
+import org.uberfire.java.nio.base.options.CommentedOption;
 
 public interface DataModellerFormGenerator {
     public void generateFormForDataObject(DataObject dataObject, Path path);
+
+    /**
+     * Generates the form of a data object, committing its sources with the given option.
+     */
+    public void generateFormForDataObject(DataObject dataObject, Path path, CommentedOption commentedOption);
+
+    /**
+     * Generates the forms of the given data objects of a project, writing all of their sources in a single batch.
+     */
+    public void generateFormsForDataObjects(KieProject project, Collection<DataObject> dataObjects);
+
+    /**
+     * Generates the forms of all data objects of a project, such as after importing or migrating a large model.
+     */
+    public void generateFormsForProject(KieProject project);
 }
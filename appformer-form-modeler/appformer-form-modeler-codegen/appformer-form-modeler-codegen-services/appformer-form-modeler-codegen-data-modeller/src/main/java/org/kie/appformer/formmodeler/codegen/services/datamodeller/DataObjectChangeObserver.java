@@ -15,28 +15,21 @@
  */
 package org.kie.appformer.formmodeler.codegen.services.datamodeller;
 
-import static org.kie.appformer.formmodeler.codegen.SourceGenerationContext.ENTITY_SERVICE_SUFFIX;
-import static org.kie.appformer.formmodeler.codegen.SourceGenerationContext.FORM_MODEL_SUFFIX;
-import static org.kie.appformer.formmodeler.codegen.SourceGenerationContext.FORM_VIEW_SUFFIX;
-import static org.kie.appformer.formmodeler.codegen.SourceGenerationContext.LIST_VIEW_SUFFIX;
-import static org.kie.appformer.formmodeler.codegen.SourceGenerationContext.REST_IMPL_SUFFIX;
-import static org.kie.appformer.formmodeler.codegen.SourceGenerationContext.REST_SERVICE_SUFFIX;
-
-import java.util.Arrays;
-
 import javax.enterprise.context.Dependent;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import org.guvnor.common.services.project.model.Project;
-import org.kie.workbench.common.screens.datamodeller.service.DataModelerService;
-import org.kie.workbench.common.services.datamodeller.core.DataModel;
+import org.kie.appformer.formmodeler.codegen.FormSourcesGenerator;
+import org.kie.appformer.formmodeler.codegen.ProjectModelCache;
+import org.kie.appformer.formmodeler.codegen.SourceGenerationContext;
 import org.kie.workbench.common.services.datamodeller.core.DataObject;
 import org.kie.workbench.common.services.shared.project.KieProject;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.uberfire.backend.vfs.Path;
+import org.uberfire.java.nio.base.options.CommentedOption;
 import org.uberfire.workbench.events.ResourceAddedEvent;
 import org.uberfire.workbench.events.ResourceCopiedEvent;
 import org.uberfire.workbench.events.ResourceDeletedEvent;
@@ -45,7 +38,7 @@ import org.uberfire.workbench.events.ResourceUpdatedEvent;
 
 /**
  * Server side component that observes for the Data Objects add/delete/update events
- * and generates the associated form.
+ * and queues the generation of the associated form on the {@link DataObjectChangeQueue}.
  */
 @Dependent
 public class DataObjectChangeObserver {
@@ -56,32 +49,49 @@ public class DataObjectChangeObserver {
     private KieProjectService projectService;
 
     @Inject
-    private DataModelerService dataModelerService;
+    private ProjectModelCache projectModelCache;
 
     @Inject
     private DataModellerFormGenerator formGenerator;
 
+    @Inject
+    private FormSourcesGenerator formSourcesGenerator;
+
+    @Inject
+    private DataObjectChangeQueue changeQueue;
+
 
     public void processResourceAdd( @Observes final ResourceAddedEvent resourceAddedEvent ) {
         if ( isNotGeneratedJavaSource( resourceAddedEvent.getPath() ) ) {
-            generateSources( resourceAddedEvent.getPath() );
+            queueSources( resourceAddedEvent.getPath() );
         }
     }
 
     public void processResourceDelete( @Observes final ResourceDeletedEvent resourceDeletedEvent ) {
-
+        if ( isNotGeneratedJavaSource( resourceDeletedEvent.getPath() ) ) {
+            changeQueue.cancel( resourceDeletedEvent.getPath().toURI() );
+        }
     }
 
     public void processResourceUpdate( @Observes final ResourceUpdatedEvent resourceUpdatedEvent ) {
         if ( isNotGeneratedJavaSource( resourceUpdatedEvent.getPath() ) ) {
-            generateSources( resourceUpdatedEvent.getPath() );
+            queueSources( resourceUpdatedEvent.getPath() );
         }
     }
 
-    protected void generateSources (Path path) {
+    /*
+     * The queue regenerates after the request that changed the data object has ended, so the commit option is made
+     * now to commit as the user who made the change.
+     */
+    protected void queueSources( final Path path ) {
+        final CommentedOption commentedOption = formSourcesGenerator.makeCommentedOption( "Generated form sources for '" + path.toURI() + "'" );
+        changeQueue.submit( path.toURI(), () -> generateSources( path, commentedOption ) );
+    }
+
+    protected void generateSources( final Path path, final CommentedOption commentedOption ) {
         DataObject dataObject = getDataObjectForPath( path );
 
-        if ( dataObject != null ) formGenerator.generateFormForDataObject( dataObject, path );
+        if ( dataObject != null ) formGenerator.generateFormForDataObject( dataObject, path, commentedOption );
     }
 
     public void processResourceCopied( @Observes final ResourceCopiedEvent resourceCopiedEvent ) {
@@ -89,8 +99,9 @@ public class DataObjectChangeObserver {
     }
 
     public void processResourceRenamed( @Observes final ResourceRenamedEvent resourceRenamedEvent ) {
-
-
+        if ( isNotGeneratedJavaSource( resourceRenamedEvent.getPath() ) ) {
+            changeQueue.cancel( resourceRenamedEvent.getPath().toURI() );
+        }
     }
 
     protected DataObject getDataObjectForPath(Path path) {
@@ -98,11 +109,9 @@ public class DataObjectChangeObserver {
 
         try {
             KieProject project = projectService.resolveProject( path );
-            DataModel dataModel = dataModelerService.loadModel( project );
             String className = calculateClassName( project, path );
-            DataObject dataObject = dataModel != null ? dataModel.getDataObject( className ) : null;
 
-            return dataObject;
+            return projectModelCache.getDataObject( project, className );
 
         } catch ( Exception e ) {
             logger.warn( "Error loading Data Object for path '{}': {}", path.toURI(), e );
@@ -113,14 +122,7 @@ public class DataObjectChangeObserver {
     protected boolean isNotGeneratedJavaSource( final Path path ) {
         return path != null
                 && path.getFileName().endsWith( ".java" )
-                && !Arrays.asList( ENTITY_SERVICE_SUFFIX,
-                                   FORM_MODEL_SUFFIX,
-                                   FORM_VIEW_SUFFIX,
-                                   LIST_VIEW_SUFFIX,
-                                   REST_IMPL_SUFFIX,
-                                   REST_SERVICE_SUFFIX )
-                    .stream()
-                    .anyMatch( suffix -> path.getFileName().endsWith( suffix + ".java" ) );
+                && !SourceGenerationContext.isGeneratedClassName( path.getFileName().substring( 0, path.getFileName().length() - ".java".length() ) );
     }
 
     private String calculateClassName(Project project,
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.services.datamodeller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Regenerates the forms of changed data objects off the thread that fired the resource event.
+ *
+ * A regeneration only runs once its data object has not changed for {@code appformer.codegen.debounce_millis} (500
+ * milliseconds by default), so a burst of saves or a push touching many data objects results in one regeneration per
+ * data object. Regenerations run one at a time, since the forms of a project share generated resources such as
+ * ErraiApp.properties.
+ */
+@ApplicationScoped
+public class DataObjectChangeQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger( DataObjectChangeQueue.class );
+
+    private static final String DEBOUNCE_PROPERTY = "appformer.codegen.debounce_millis";
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private final ConcurrentMap<String, PendingChange> pending = new ConcurrentHashMap<>();
+    private long debounceNanos;
+    private ScheduledExecutorService scheduler;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    public DataObjectChangeQueue() {
+    }
+
+    DataObjectChangeQueue( final long debounceMillis, final ScheduledExecutorService scheduler ) {
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos( debounceMillis );
+        this.scheduler = scheduler;
+    }
+
+    @PostConstruct
+    private void setup() {
+        debounceNanos = TimeUnit.MILLISECONDS.toNanos( Long.getLong( DEBOUNCE_PROPERTY, DEFAULT_DEBOUNCE_MILLIS ) );
+        scheduler = Executors.newSingleThreadScheduledExecutor( threadFactory );
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Schedules the regeneration of a data object, replacing any regeneration still pending for it and restarting its
+     * debounce delay.
+     *
+     * @param dataObject
+     *            Identifies the changed data object, such as the URI of its source.
+     */
+    public void submit( final String dataObject, final Runnable regeneration ) {
+        final long due = System.nanoTime() + debounceNanos;
+        pending.compute( dataObject, ( key, change ) -> {
+            if ( change == null ) {
+                final PendingChange created = new PendingChange( key, regeneration, due );
+                scheduler.schedule( () -> fire( created ), debounceNanos, TimeUnit.NANOSECONDS );
+                return created;
+            }
+            change.regeneration = regeneration;
+            change.due = due;
+            return change;
+        } );
+        logger.debug( "Queued regeneration of {}, {} data objects pending", dataObject, pending.size() );
+    }
+
+    /**
+     * Drops the pending regeneration of a data object, for instance because its source was deleted.
+     */
+    public void cancel( final String dataObject ) {
+        pending.remove( dataObject );
+    }
+
+    /**
+     * @return The number of data objects waiting to be regenerated.
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    private void fire( final PendingChange change ) {
+        final long remaining = change.due - System.nanoTime();
+        if ( remaining > 0 ) {
+            scheduler.schedule( () -> fire( change ), remaining, TimeUnit.NANOSECONDS );
+            return;
+        }
+
+        // Submissions update the change under the same map lock, so after removal it no longer changes
+        if ( !pending.remove( change.dataObject, change ) ) {
+            return;
+        }
+
+        try {
+            change.regeneration.run();
+        } catch ( final RuntimeException e ) {
+            logger.error( "Unable to regenerate the forms of " + change.dataObject, e );
+        }
+    }
+
+    private static class PendingChange {
+
+        private final String dataObject;
+        private volatile Runnable regeneration;
+        private volatile long due;
+
+        private PendingChange( final String dataObject,
+                               final Runnable regeneration,
+                               final long due ) {
+            this.dataObject = dataObject;
+            this.regeneration = regeneration;
+            this.due = due;
+        }
+
+    }
+
+}
@@ -17,11 +17,16 @@
 package org.kie.appformer.formmodeler.codegen.services.datamodeller.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.text.WordUtils;
 import org.kie.appformer.formmodeler.codegen.FormSourcesGenerator;
+import org.kie.appformer.formmodeler.codegen.ProjectModelCache;
+import org.kie.appformer.formmodeler.codegen.SourceGenerationContext;
 import org.kie.appformer.formmodeler.codegen.services.datamodeller.DataModellerFormGenerator;
 import org.kie.workbench.common.forms.data.modeller.model.DataObjectFormModel;
 import org.kie.workbench.common.forms.data.modeller.service.impl.DataModellerFieldGenerator;
@@ -37,10 +42,13 @@ import org.kie.workbench.common.forms.model.impl.relations.TableColumnMeta;
 import org.kie.workbench.common.forms.service.FieldManager;
 import org.kie.workbench.common.screens.datamodeller.service.DataModelerService;
 import org.kie.workbench.common.services.datamodeller.core.DataObject;
+import org.kie.workbench.common.services.shared.project.KieProject;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.uberfire.backend.vfs.Path;
+import org.uberfire.backend.vfs.PathFactory;
+import org.uberfire.java.nio.base.options.CommentedOption;
 
 public class DataModellerFormGeneratorImpl implements DataModellerFormGenerator {
     private static transient Logger log = LoggerFactory.getLogger( DataModellerFormGeneratorImpl.class );
@@ -63,10 +71,48 @@ public class DataModellerFormGeneratorImpl implements DataModellerFormGenerator
     @Inject
     protected VFSFormFinderService vfsFormFinderService;
 
+    @Inject
+    protected ProjectModelCache projectModelCache;
+
     @Override
     public void generateFormForDataObject( DataObject dataObject, Path path ) {
+        FormDefinition form = createForm( dataObject, path );
+
+        if ( form != null ) formSourcesGenerator.generateEntityFormSources( form, path );
+    }
+
+    @Override
+    public void generateFormForDataObject( DataObject dataObject, Path path, CommentedOption commentedOption ) {
+        FormDefinition form = createForm( dataObject, path );
+
+        if ( form != null ) formSourcesGenerator.generateEntityFormSources( form, path, commentedOption );
+    }
+
+    @Override
+    public void generateFormsForDataObjects( KieProject project, Collection<DataObject> dataObjects ) {
+        Path srcPath = projectService.resolveDefaultPackage( project ).getPackageMainSrcPath();
+        Map<Path, FormDefinition> forms = new LinkedHashMap<>();
+
+        for ( DataObject dataObject : dataObjects ) {
+            if ( isGenerated( dataObject ) ) continue;
 
-        if (dataObject.getProperties().isEmpty()) return;
+            Path path = getSourcePath( srcPath, dataObject );
+            FormDefinition form = createForm( dataObject, path );
+            if ( form != null ) forms.put( path, form );
+        }
+
+        log.info( "Generating forms for {} data objects of {}", forms.size(), project.getProjectName() );
+        formSourcesGenerator.generateEntityFormSources( forms );
+    }
+
+    @Override
+    public void generateFormsForProject( KieProject project ) {
+        generateFormsForDataObjects( project, projectModelCache.getDataObjects( project ) );
+    }
+
+    protected FormDefinition createForm( DataObject dataObject, Path path ) {
+
+        if (dataObject.getProperties().isEmpty()) return null;
 
         String modelName = WordUtils.uncapitalize( dataObject.getName() );
 
@@ -87,10 +133,18 @@ public class DataModellerFormGeneratorImpl implements DataModellerFormGenerator
             form.getFields().add( field );
         }
 
-        if (form.getFields().isEmpty()) return;
+        if (form.getFields().isEmpty()) return null;
 
-        formSourcesGenerator.generateEntityFormSources(form, path);
+        return form;
+    }
+
+    private boolean isGenerated( DataObject dataObject ) {
+        return SourceGenerationContext.isGeneratedClassName( dataObject.getClassName() );
+    }
 
+    private Path getSourcePath( Path srcPath, DataObject dataObject ) {
+        String fileName = dataObject.getName() + ".java";
+        return PathFactory.newPath( fileName, srcPath.toURI() + "/" + dataObject.getClassName().replace( '.', '/' ) + ".java" );
     }
 
     protected boolean loadEmbeddedFormConfig ( FieldDefinition field, Path path ) {
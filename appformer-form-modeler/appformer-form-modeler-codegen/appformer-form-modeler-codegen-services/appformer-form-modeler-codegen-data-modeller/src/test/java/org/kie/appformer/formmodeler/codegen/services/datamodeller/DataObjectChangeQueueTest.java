@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.codegen.services.datamodeller;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DataObjectChangeQueueTest {
+
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final List<String> regenerated = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private DataObjectChangeQueue queue;
+
+    @Before
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        queue = new DataObjectChangeQueue( DEBOUNCE_MILLIS, scheduler );
+    }
+
+    @After
+    public void cleanup() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void burstOfChangesIsRegeneratedOnceWithTheLatestChange() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch( 1 );
+        for ( int i = 1; i <= 5; i++ ) {
+            final String change = "Person v" + i;
+            queue.submit( "Person.java", () -> {
+                regenerated.add( change );
+                done.countDown();
+            } );
+        }
+
+        assertEquals( 1, queue.getQueueDepth() );
+        assertTrue( done.await( 5, TimeUnit.SECONDS ) );
+        awaitEmptyQueue();
+        assertEquals( 1, regenerated.size() );
+        assertEquals( "Person v5", regenerated.get( 0 ) );
+    }
+
+    @Test
+    public void eachDataObjectIsRegenerated() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch( 2 );
+        queue.submit( "Person.java", () -> {
+            regenerated.add( "Person" );
+            done.countDown();
+        } );
+        queue.submit( "Address.java", () -> {
+            regenerated.add( "Address" );
+            done.countDown();
+        } );
+
+        assertEquals( 2, queue.getQueueDepth() );
+        assertTrue( done.await( 5, TimeUnit.SECONDS ) );
+        assertTrue( regenerated.contains( "Person" ) );
+        assertTrue( regenerated.contains( "Address" ) );
+    }
+
+    @Test
+    public void cancelledChangeIsNotRegenerated() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch( 1 );
+        queue.submit( "Person.java", () -> regenerated.add( "Person" ) );
+        queue.submit( "Address.java", done::countDown );
+
+        queue.cancel( "Person.java" );
+
+        assertEquals( 1, queue.getQueueDepth() );
+        assertTrue( done.await( 5, TimeUnit.SECONDS ) );
+        Thread.sleep( DEBOUNCE_MILLIS );
+        assertTrue( regenerated.isEmpty() );
+    }
+
+    @Test
+    public void failedRegenerationDoesNotStopTheQueue() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch( 1 );
+        queue.submit( "Person.java", () -> {
+            throw new IllegalStateException( "broken" );
+        } );
+        awaitEmptyQueue();
+
+        queue.submit( "Person.java", done::countDown );
+
+        assertTrue( done.await( 5, TimeUnit.SECONDS ) );
+    }
+
+    private void awaitEmptyQueue() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while ( queue.getQueueDepth() > 0 && System.currentTimeMillis() < deadline ) {
+            Thread.sleep( 10 );
+        }
+        assertEquals( 0, queue.getQueueDepth() );
+    }
+
+}
@@ -17,6 +17,8 @@
 
 package org.kie.appformer.formmodeler.rendering.client.flow;
 
+import java.util.function.Consumer;
+
 import com.google.gwt.view.client.AsyncDataProvider;
 
 public abstract class FlowDataProvider<M> extends AsyncDataProvider<M> {
@@ -24,4 +26,12 @@ public abstract class FlowDataProvider<M> extends AsyncDataProvider<M> {
     public abstract M getRowData(int index);
     public abstract void clearCache();
 
+    /**
+     * Passes the complete model of a row to the callback. Providers whose rows only hold the values shown in lists
+     * load it first, so the callback may be called later.
+     */
+    public void loadRowData( final int index, final Consumer<M> callback ) {
+        callback.accept( getRowData( index ) );
+    }
+
 }
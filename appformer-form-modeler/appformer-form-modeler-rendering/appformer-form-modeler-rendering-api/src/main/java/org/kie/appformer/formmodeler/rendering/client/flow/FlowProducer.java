@@ -212,7 +212,7 @@ public abstract class FlowProducer<MODEL,
             @Override
             public void execute( final Unit input,
                                  final Consumer<FlowDataProvider<MODEL>> callback ) {
-                callback.accept( new RestCallerDataProvider<>( restService ) );
+                callback.accept( new RestCallerDataProvider<>( restService, getModelType() ) );
             }
 
             @Override
@@ -22,22 +22,39 @@ import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.jboss.errai.common.client.api.Caller;
+import org.jboss.errai.common.client.api.ErrorCallback;
+import org.jboss.errai.enterprise.client.jaxrs.MarshallingWrapper;
+import org.jboss.errai.enterprise.client.jaxrs.api.ResponseCallback;
 import org.kie.appformer.formmodeler.rendering.client.shared.AppFormerRestService;
+import org.kie.appformer.formmodeler.rendering.client.shared.ColumnarPayload;
 
+import com.google.gwt.http.client.Response;
 import com.google.gwt.view.client.HasData;
 import com.google.gwt.view.client.Range;
 
+/**
+ * Pages through the summaries of models, which only hold the values shown in lists, and loads complete models when
+ * rows are opened. When the model type is known, pages are requested in the {@link ColumnarPayload columnar} form and
+ * decoded before they are unmarshalled.
+ */
 public class RestCallerDataProvider<M> extends FlowDataProvider<M> {
 
     private final Caller<? extends AppFormerRestService<M>> caller;
+    private final Class<M> modelType;
     SortedMap<Integer, M> cache = new TreeMap<>();
     Set<Range> inFlight = new HashSet<>();
 
     public RestCallerDataProvider(final Caller<? extends AppFormerRestService<M>> caller) {
+        this( caller, null );
+    }
+
+    public RestCallerDataProvider(final Caller<? extends AppFormerRestService<M>> caller, final Class<M> modelType) {
         this.caller = caller;
+        this.modelType = modelType;
     }
 
     @Override
@@ -61,19 +78,71 @@ public class RestCallerDataProvider<M> extends FlowDataProvider<M> {
         else if ( !inFlight.contains( visibleRange ) ) {
             final int start = visibleRange.getStart();
             final int endExclusive = visibleRange.getStart() + visibleRange.getLength();
-            caller
-                .call( (final List<M> result) -> {
-                    for (int i = 0; i < result.size(); i++) {
-                        cache.put( start + i, result.get( i ) );
-                    }
-                    update( cache.subMap( start, endExclusive - 1 ) );
-                    inFlight.remove( visibleRange );
-                } )
-                .load( start, endExclusive );
+            final ErrorCallback<Object> onError = ( message, throwable ) -> {
+                onPageFailed( visibleRange );
+                return true;
+            };
+            if ( modelType != null ) {
+                caller
+                    .call( (ResponseCallback) response -> onPageResponse( visibleRange, response ), onError )
+                    .loadColumnarSummary( start, endExclusive );
+            }
+            else {
+                caller
+                    .call( (final List<M> result) -> onPageLoaded( visibleRange, result ), onError )
+                    .loadSummary( start, endExclusive );
+            }
             inFlight.add( visibleRange );
         }
     }
 
+    private void onPageLoaded( final Range range, final List<M> result ) {
+        final int start = range.getStart();
+        for (int i = 0; i < result.size(); i++) {
+            cache.put( start + i, result.get( i ) );
+        }
+        update( cache.subMap( start, start + range.getLength() - 1 ) );
+        inFlight.remove( range );
+    }
+
+    /*
+     * Failed pages are no longer in flight, so that they are requested again the next time they are shown.
+     */
+    private void onPageFailed( final Range range ) {
+        inFlight.remove( range );
+    }
+
+    private void onPageResponse( final Range range, final Response response ) {
+        if ( response.getStatusCode() != Response.SC_OK ) {
+            onPageFailed( range );
+            return;
+        }
+
+        final List<M> page;
+        try {
+            page = readPage( response );
+        } catch ( final RuntimeException e ) {
+            onPageFailed( range );
+            throw e;
+        }
+        onPageLoaded( range, page );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private List<M> readPage( final Response response ) {
+        final String text = ColumnarPayload.COLUMNAR.equals( response.getHeader( ColumnarPayload.HEADER ) )
+                ? ColumnarPayload.decode( response.getText() )
+                : response.getText();
+        return MarshallingWrapper.fromJSON( text, List.class, modelType );
+    }
+
+    @Override
+    public void loadRowData( final int index, final Consumer<M> callback ) {
+        caller
+            .call( (final M model) -> callback.accept( model ) )
+            .reload( getRowData( index ) );
+    }
+
     @Override
     public void clearCache() {
         cache.clear();
@@ -42,6 +42,29 @@ public interface AppFormerRestService<M> {
    @GET
    @Produces("application/json") List<M> load( @PathParam( "start" ) int start, @PathParam( "end" ) int end);
 
+   /**
+    * @return Models that only hold their identifier and the values shown in lists.
+    */
+   @Path("summary/{start}/{end}")
+   @GET
+   @Produces("application/json") List<M> loadSummary( @PathParam( "start" ) int start, @PathParam( "end" ) int end);
+
+   /**
+    * Same as {@link #loadSummary(int, int)}, but the page is sent in the {@link ColumnarPayload columnar} form.
+    */
+   @Path("summary/columnar/{start}/{end}")
+   @GET
+   @ColumnarResponse
+   @Produces("application/json") List<M> loadColumnarSummary( @PathParam( "start" ) int start, @PathParam( "end" ) int end);
+
+   /**
+    * @return The complete model of a summary returned by {@link #loadSummary(int, int)}.
+    */
+   @Path("reload")
+   @POST
+   @Consumes("application/json")
+   @Produces("application/json") M reload(M model);
+
    @Path("list")
    @POST
    @Consumes("application/json")
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.rendering.client.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts JSON pages of models to and from a columnar form that only sends the field names once per page:
+ * {@code [{"a":1,"b":2},{"a":3,"b":4}]} becomes {@code {"columns":["a","b"],"rows":[[1,2],[3,4]]}}. Values are
+ * copied verbatim, so the models can be unmarshalled as usual once a page is decoded.
+ */
+public final class ColumnarPayload {
+
+    /**
+     * Response header set to {@link #COLUMNAR} when a response body has been encoded.
+     */
+    public static final String HEADER = "X-AppFormer-Payload";
+
+    public static final String COLUMNAR = "columnar";
+
+    private static final String COLUMNS = "\"columns\"";
+    private static final String ROWS = "\"rows\"";
+
+    private ColumnarPayload() {
+    }
+
+    /**
+     * @param json
+     *            A JSON array.
+     * @return The columnar form of the array, or null if the array has elements that are not objects or that do not
+     *         all have the same fields in the same order.
+     */
+    public static String encode( final String json ) {
+        final Scanner in = new Scanner( json );
+        if ( !in.consume( '[' ) ) {
+            return null;
+        }
+
+        List<String> columns = null;
+        final StringBuilder rows = new StringBuilder();
+        if ( !in.consume( ']' ) ) {
+            do {
+                if ( !in.consume( '{' ) ) {
+                    return null;
+                }
+                final List<String> keys = new ArrayList<>();
+                rows.append( rows.length() == 0 ? "[" : ",[" );
+                if ( !in.consume( '}' ) ) {
+                    do {
+                        keys.add( in.string() );
+                        in.expect( ':' );
+                        rows.append( keys.size() == 1 ? "" : "," ).append( in.value() );
+                    } while ( in.consume( ',' ) );
+                    in.expect( '}' );
+                }
+                rows.append( ']' );
+
+                if ( columns == null ) {
+                    columns = keys;
+                } else if ( !columns.equals( keys ) ) {
+                    return null;
+                }
+            } while ( in.consume( ',' ) );
+            in.expect( ']' );
+        }
+        in.end();
+
+        final StringBuilder out = new StringBuilder( rows.length() + 64 );
+        out.append( '{' ).append( COLUMNS ).append( ":[" );
+        if ( columns != null ) {
+            join( columns, out );
+        }
+        return out.append( "]," ).append( ROWS ).append( ":[" ).append( rows ).append( "]}" ).toString();
+    }
+
+    /**
+     * @param columnar
+     *            A page encoded by {@link #encode(String)}.
+     * @return The page as a JSON array of objects.
+     */
+    public static String decode( final String columnar ) {
+        final Scanner in = new Scanner( columnar );
+        in.expect( '{' );
+        in.expectString( COLUMNS );
+        in.expect( ':' );
+        final List<String> columns = new ArrayList<>();
+        in.expect( '[' );
+        if ( !in.consume( ']' ) ) {
+            do {
+                columns.add( in.string() );
+            } while ( in.consume( ',' ) );
+            in.expect( ']' );
+        }
+        in.expect( ',' );
+        in.expectString( ROWS );
+        in.expect( ':' );
+
+        final StringBuilder out = new StringBuilder( columnar.length() * 2 );
+        out.append( '[' );
+        in.expect( '[' );
+        if ( !in.consume( ']' ) ) {
+            do {
+                out.append( out.length() == 1 ? "{" : ",{" );
+                in.expect( '[' );
+                for ( int i = 0; i < columns.size(); i++ ) {
+                    if ( i > 0 ) {
+                        in.expect( ',' );
+                        out.append( ',' );
+                    }
+                    out.append( columns.get( i ) ).append( ':' ).append( in.value() );
+                }
+                in.expect( ']' );
+                out.append( '}' );
+            } while ( in.consume( ',' ) );
+            in.expect( ']' );
+        }
+        in.expect( '}' );
+        in.end();
+
+        return out.append( ']' ).toString();
+    }
+
+    private static void join( final List<String> values,
+                              final StringBuilder out ) {
+        for ( int i = 0; i < values.size(); i++ ) {
+            if ( i > 0 ) {
+                out.append( ',' );
+            }
+            out.append( values.get( i ) );
+        }
+    }
+
+    /**
+     * Reads JSON values as raw text, without unescaping strings or converting numbers.
+     */
+    private static class Scanner {
+
+        private final String json;
+        private int pos;
+
+        Scanner( final String json ) {
+            this.json = json;
+        }
+
+        boolean consume( final char c ) {
+            skipWhitespace();
+            if ( pos < json.length() && json.charAt( pos ) == c ) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect( final char c ) {
+            if ( !consume( c ) ) {
+                throw malformed( "'" + c + "' expected" );
+            }
+        }
+
+        void expectString( final String expected ) {
+            if ( !expected.equals( string() ) ) {
+                throw malformed( expected + " expected" );
+            }
+        }
+
+        void end() {
+            skipWhitespace();
+            if ( pos < json.length() ) {
+                throw malformed( "Unexpected trailing content" );
+            }
+        }
+
+        String string() {
+            skipWhitespace();
+            final int start = pos;
+            if ( pos >= json.length() || json.charAt( pos ) != '"' ) {
+                throw malformed( "String expected" );
+            }
+            pos++;
+            while ( pos < json.length() ) {
+                final char c = json.charAt( pos++ );
+                if ( c == '\\' ) {
+                    pos++;
+                } else if ( c == '"' ) {
+                    return json.substring( start, pos );
+                }
+            }
+            throw malformed( "Unterminated string" );
+        }
+
+        String value() {
+            skipWhitespace();
+            if ( pos >= json.length() ) {
+                throw malformed( "Value expected" );
+            }
+            final char first = json.charAt( pos );
+            if ( first == '"' ) {
+                return string();
+            }
+
+            final int start = pos;
+            int depth = 0;
+            while ( pos < json.length() ) {
+                final char c = json.charAt( pos );
+                if ( c == '"' ) {
+                    string();
+                    continue;
+                } else if ( c == '{' || c == '[' ) {
+                    depth++;
+                } else if ( c == '}' || c == ']' ) {
+                    if ( depth == 0 ) {
+                        break;
+                    }
+                    depth--;
+                } else if ( c == ',' && depth == 0 ) {
+                    break;
+                }
+                pos++;
+            }
+            final String value = json.substring( start, pos ).trim();
+            if ( depth != 0 || value.isEmpty() ) {
+                throw malformed( "Value expected" );
+            }
+            return value;
+        }
+
+        private void skipWhitespace() {
+            while ( pos < json.length() && isWhitespace( json.charAt( pos ) ) ) {
+                pos++;
+            }
+        }
+
+        private static boolean isWhitespace( final char c ) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+        }
+
+        private IllegalArgumentException malformed( final String reason ) {
+            return new IllegalArgumentException( reason + " at offset " + pos + " of JSON payload" );
+        }
+
+    }
+
+}
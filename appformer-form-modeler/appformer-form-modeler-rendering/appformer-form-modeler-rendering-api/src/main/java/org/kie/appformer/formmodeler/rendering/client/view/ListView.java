@@ -166,23 +166,27 @@ public abstract class ListView<M, F extends FormModel<M>> implements IsElement,
 
         @Override
         public void deleteInstance( final int index ) {
-            final Consumer<Command<CrudOperation, M>> callback = ListView.this.callback;
-            ListView.this.callback = ListView.this.noOpCallback;
-            callback.accept( new Command<>( DELETE, dataProvider.getRowData( index ) ) );
+            dataProvider.loadRowData( index, model -> complete( new Command<>( DELETE, model ) ) );
         }
 
         @Override
         public void createInstance() {
-            final Consumer<Command<CrudOperation, M>> callback = ListView.this.callback;
-            ListView.this.callback = ListView.this.noOpCallback;
-            callback.accept( new Command<>( CREATE, newModel() ) );
+            complete( new Command<>( CREATE, newModel() ) );
         }
 
         @Override
         public void editInstance( final int index ) {
+            dataProvider.loadRowData( index, model -> complete( new Command<>( UPDATE, model ) ) );
+        }
+
+        /*
+         * The list completes with the first command only. Models are loaded before the callback is consumed, so a
+         * failed load leaves the list usable.
+         */
+        private void complete( final Command<CrudOperation, M> command ) {
             final Consumer<Command<CrudOperation, M>> callback = ListView.this.callback;
             ListView.this.callback = ListView.this.noOpCallback;
-            callback.accept( new Command<>( UPDATE, dataProvider.getRowData( index ) ) );
+            callback.accept( command );
         }
     };
 }
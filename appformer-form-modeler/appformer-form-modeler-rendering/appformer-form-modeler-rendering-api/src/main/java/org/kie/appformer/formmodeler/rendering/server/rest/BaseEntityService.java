@@ -16,6 +16,12 @@
 
 package org.kie.appformer.formmodeler.rendering.server.rest;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,18 +29,33 @@ import java.util.Map;
 import javax.annotation.PostConstruct;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.CacheStoreMode;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
 
 import org.kie.appformer.formmodeler.rendering.client.shared.query.QueryCriteria;
 import org.kie.appformer.formmodeler.rendering.server.rest.query.QueryCriteriaGenerator;
 
 public abstract class BaseEntityService {
 
+    private static final String RETRIEVE_MODE_HINT = "javax.persistence.cache.retrieveMode";
+    private static final String STORE_MODE_HINT = "javax.persistence.cache.storeMode";
+    private static final String QUERY_CACHE_HINT = "org.hibernate.cacheable";
+    // Stays below the IN-list limits of databases such as Oracle (1000) and the bind parameter limits of others
+    private static final int FETCH_BATCH_SIZE = 500;
+
     @PersistenceContext
     protected EntityManager em;
 
@@ -68,31 +89,250 @@ public abstract class BaseEntityService {
     }
 
     public <E> List<E> listAll( final Class<E> type ) {
-        final CriteriaQuery<E> selectAllQuery = createQuery( type, null );
+        final FetchPlan fetchPlan = getFetchPlan( type );
+        final CriteriaQuery<E> selectAllQuery = createQuery( type, null, fetchPlan );
 
-        return em.createQuery( selectAllQuery ).getResultList();
+        return fetchCollections( type, cached( em.createQuery( selectAllQuery ) ).getResultList(), fetchPlan );
     }
 
     public <E> List<E> list( final Class<E> type, final QueryCriteria criteria ) {
-        final CriteriaQuery<E> selectAllQuery = createQuery( type, criteria );
+        final FetchPlan fetchPlan = getFetchPlan( type );
+        final CriteriaQuery<E> selectAllQuery = createQuery( type, criteria, fetchPlan );
 
-        return em.createQuery( selectAllQuery ).getResultList();
+        return fetchCollections( type, cached( em.createQuery( selectAllQuery ) ).getResultList(), fetchPlan );
     }
 
     public <E> List<E> list( final Class<E> type, final int start, final int end ) {
-        final CriteriaQuery<E> selectAllQuery = createQuery( type, null );
+        final FetchPlan fetchPlan = getFetchPlan( type );
+        final CriteriaQuery<E> selectAllQuery = createQuery( type, null, fetchPlan );
 
-        return em
-                .createQuery( selectAllQuery )
+        final List<E> entities = cached( em.createQuery( selectAllQuery ) )
                 .setFirstResult( start )
                 .setMaxResults( end - start + 1 )
                 .getResultList();
+
+        return fetchCollections( type, entities, fetchPlan );
     }
 
-    private <E> CriteriaQuery<E> createQuery( final Class<E> entityType, final QueryCriteria criteria ) {
+    /**
+     * Lists new, unmanaged instances of the given entity type that only hold the identifier and the
+     * {@link #getSummaryAttributes() summary attributes} of the persisted entities. Lists the entities themselves if
+     * there are no summary attributes.
+     */
+    public <E> List<E> listSummaries( final Class<E> type, final int start, final int end ) {
+        final String[] names = getSummaryAttributes();
+        final EntityType<E> entity = em.getMetamodel().entity( type );
+        if ( names.length == 0 || !entity.hasSingleIdAttribute() ) {
+            return list( type, start, end );
+        }
+
+        final List<SingularAttribute<? super E, ?>> attributes = new ArrayList<>();
+        attributes.add( entity.getId( entity.getIdType().getJavaType() ) );
+        for ( final String name : names ) {
+            final Attribute<?, ?> attribute = getAttribute( entity, name );
+            if ( attribute instanceof SingularAttribute && !attribute.isAssociation() && !attributes.contains( attribute ) ) {
+                attributes.add( entity.getSingularAttribute( name ) );
+            }
+        }
+
+        final CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        final Root<E> root = query.from( type );
+        final List<Selection<?>> selections = new ArrayList<>();
+        for ( final SingularAttribute<? super E, ?> attribute : attributes ) {
+            selections.add( root.get( attribute ) );
+        }
+        query.multiselect( selections );
+
+        final List<Tuple> rows = cached( em.createQuery( query ) )
+                .setFirstResult( start )
+                .setMaxResults( end - start + 1 )
+                .getResultList();
+
+        final List<E> summaries = new ArrayList<>( rows.size() );
+        for ( final Tuple row : rows ) {
+            final E summary = newInstance( type );
+            for ( int i = 0; i < attributes.size(); i++ ) {
+                setValue( summary, attributes.get( i ), row.get( i ) );
+            }
+            summaries.add( summary );
+        }
+
+        return summaries;
+    }
+
+    /**
+     * @return The persisted entity with the identifier of the given one, such as a summary returned by
+     *         {@link #listSummaries(Class, int, int)}, with its {@link #getFetchedRelations() fetched relations}.
+     */
+    public <E> E load( final Class<E> type, final E entity ) {
+        final Object id = em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier( entity );
+        if ( id == null ) {
+            return entity;
+        }
+
+        final E loaded = em.find( type, id, getCacheHints( false ) );
+        if ( loaded == null ) {
+            return null;
+        }
+
+        // The follow-up queries of collections can fetch any relation of a single entity
+        final FetchPlan fetchPlan = getFetchPlan( type );
+        fetchPlan.collections.addAll( fetchPlan.joins );
+        return fetchCollections( type, Collections.singletonList( loaded ), fetchPlan ).get( 0 );
+    }
+
+    /**
+     * @return The names of the attributes of listed entities that are shown in lists. Only identifiers and basic or
+     *         embedded attributes are part of summaries.
+     */
+    protected String[] getSummaryAttributes() {
+        return new String[0];
+    }
+
+    /**
+     * @return How the entities listed by this service use the second-level cache.
+     */
+    protected CachePolicy getCachePolicy() {
+        return CachePolicy.NONE;
+    }
+
+    private <T> TypedQuery<T> cached( final TypedQuery<T> query ) {
+        return setHints( query, getCacheHints( true ) );
+    }
+
+    private static <T> TypedQuery<T> setHints( final TypedQuery<T> query, final Map<String, Object> hints ) {
+        for ( final Map.Entry<String, Object> hint : hints.entrySet() ) {
+            query.setHint( hint.getKey(), hint.getValue() );
+        }
+
+        return query;
+    }
+
+    /**
+     * @param listQuery
+     *            Whether the hints are for a query that lists entities, which may be cached itself.
+     */
+    private Map<String, Object> getCacheHints( final boolean listQuery ) {
+        final CachePolicy policy = getCachePolicy();
+        final Map<String, Object> hints = new HashMap<>();
+        if ( policy == CachePolicy.NONE ) {
+            return hints;
+        }
+
+        hints.put( RETRIEVE_MODE_HINT, CacheRetrieveMode.USE );
+        hints.put( STORE_MODE_HINT, CacheStoreMode.USE );
+        if ( listQuery && policy == CachePolicy.READ_MOSTLY ) {
+            hints.put( QUERY_CACHE_HINT, true );
+        }
+
+        return hints;
+    }
+
+    /**
+     * @return The names of the relations of listed entities that are sent to clients along with them, and so are
+     *         loaded together with the entities rather than one entity at a time. Relations that are not persistent
+     *         attributes of the listed type are ignored.
+     */
+    protected String[] getFetchedRelations() {
+        return new String[0];
+    }
+
+    private FetchPlan getFetchPlan( final Class<?> type ) {
+        final FetchPlan fetchPlan = new FetchPlan();
+        final String[] relations = getFetchedRelations();
+        if ( relations.length == 0 ) {
+            return fetchPlan;
+        }
+
+        final EntityType<?> entity = em.getMetamodel().entity( type );
+        fetchPlan.entityName = entity.getName();
+        for ( final String relation : relations ) {
+            final Attribute<?, ?> attribute = getAttribute( entity, relation );
+            if ( attribute == null ) {
+                continue;
+            }
+            if ( attribute.isCollection() ) {
+                fetchPlan.collections.add( relation );
+            } else if ( attribute.isAssociation() ) {
+                fetchPlan.joins.add( relation );
+            }
+        }
+
+        return fetchPlan;
+    }
+
+    private static Attribute<?, ?> getAttribute( final EntityType<?> entity, final String name ) {
+        try {
+            return entity.getAttribute( name );
+        } catch ( final IllegalArgumentException e ) {
+            return null;
+        }
+    }
+
+    private static <E> E newInstance( final Class<E> type ) {
+        try {
+            final Constructor<E> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible( true );
+            return constructor.newInstance();
+        } catch ( final ReflectiveOperationException e ) {
+            throw new RuntimeException( "Unable to create a summary of " + type.getName(), e );
+        }
+    }
+
+    /*
+     * Attributes are members of entities: fields with field access or getters with property access.
+     */
+    private static void setValue( final Object entity, final Attribute<?, ?> attribute, final Object value ) {
+        final Member member = attribute.getJavaMember();
+        try {
+            if ( member instanceof Field ) {
+                ( (Field) member ).setAccessible( true );
+                ( (Field) member ).set( entity, value );
+            } else if ( member instanceof Method ) {
+                final String name = attribute.getName();
+                final String setterName = "set" + Character.toUpperCase( name.charAt( 0 ) ) + name.substring( 1 );
+                final Method setter = member.getDeclaringClass().getDeclaredMethod( setterName, attribute.getJavaType() );
+                setter.setAccessible( true );
+                setter.invoke( entity, value );
+            }
+        } catch ( final ReflectiveOperationException e ) {
+            throw new RuntimeException( "Unable to set " + attribute.getName() + " on a summary of " + entity.getClass().getName(), e );
+        }
+    }
+
+    /*
+     * Fetch joining collections would multiply the rows of the listed entities and break paging, so each collection
+     * is loaded for all the listed entities by a query of its own. The entities are managed, so the loaded
+     * collections are set on them.
+     */
+    private <E> List<E> fetchCollections( final Class<E> type, final List<E> entities, final FetchPlan fetchPlan ) {
+        if ( entities.isEmpty() ) {
+            return entities;
+        }
+
+        for ( final String collection : fetchPlan.collections ) {
+            final TypedQuery<E> query = em.createQuery( "select distinct e from " + fetchPlan.entityName + " e left join fetch e."
+                                                                + collection + " where e in :entities", type );
+            setHints( query, getCacheHints( false ) );
+            for ( int from = 0; from < entities.size(); from += FETCH_BATCH_SIZE ) {
+                query.setParameter( "entities", entities.subList( from, Math.min( from + FETCH_BATCH_SIZE, entities.size() ) ) )
+                     .getResultList();
+            }
+        }
+
+        return entities;
+    }
+
+    private <E> CriteriaQuery<E> createQuery( final Class<E> entityType,
+                                              final QueryCriteria criteria,
+                                              final FetchPlan fetchPlan ) {
         final CriteriaQuery<E> criteriaQuery = builder.createQuery( entityType );
         final Root<E> rootEntity = criteriaQuery.from( entityType );
 
+        for ( final String join : fetchPlan.joins ) {
+            rootEntity.fetch( join, JoinType.LEFT );
+        }
+
         if ( criteria != null ) {
             final QueryCriteriaGenerator generator = queryCriteriaGenerators.get( criteria.getClass() );
 
@@ -107,4 +347,12 @@ public abstract class BaseEntityService {
 
         return criteriaQuery.select( rootEntity );
     }
+
+    private static class FetchPlan {
+
+        private String entityName;
+        private final List<String> joins = new ArrayList<>();
+        private final List<String> collections = new ArrayList<>();
+
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.rendering.server.rest;
+
+/**
+ * How an {@link BaseEntityService entity service} uses the JPA second-level cache. Caching only takes effect for
+ * entities that the persistence unit caches, such as {@code @Cacheable} entities with the
+ * {@code ENABLE_SELECTIVE} shared cache mode.
+ */
+public enum CachePolicy {
+
+    /**
+     * Caching is left to the defaults of the persistence unit.
+     */
+    NONE,
+
+    /**
+     * Entities are cached, and so are the results of list queries. Suits lookup data that rarely changes.
+     */
+    READ_MOSTLY,
+
+    /**
+     * Entities are cached, but list queries are not since frequent changes would keep invalidating them.
+     */
+    READ_WRITE
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.rendering.server.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Compresses the responses of {@link RestPayload} services with gzip or deflate, whichever the client accepts (gzip is preferred).
+ * Bodies already serialized by the {@link RestPayloadFilter} are only compressed from
+ * {@code appformer.rest.compression.min_size} bytes (1024 by default), since smaller ones do not shrink enough to be
+ * worth it. Compression can be turned off with {@code appformer.rest.compression=false}.
+ */
+@Provider
+@RestPayload
+public class RestCompressionInterceptor implements WriterInterceptor {
+
+    private static final String COMPRESSION_PROPERTY = "appformer.rest.compression";
+    private static final String MIN_SIZE_PROPERTY = "appformer.rest.compression.min_size";
+    private static final int DEFAULT_MIN_SIZE = 1024;
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private final boolean enabled;
+    private final int minSize;
+
+    @Context
+    private HttpHeaders headers;
+
+    public RestCompressionInterceptor() {
+        this( Boolean.parseBoolean( System.getProperty( COMPRESSION_PROPERTY, "true" ) ),
+              Integer.getInteger( MIN_SIZE_PROPERTY, DEFAULT_MIN_SIZE ) );
+    }
+
+    RestCompressionInterceptor( final boolean enabled,
+                                final int minSize ) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public void aroundWriteTo( final WriterInterceptorContext context ) throws IOException, WebApplicationException {
+        if ( !enabled || context.getHeaders().containsKey( HttpHeaders.CONTENT_ENCODING ) ) {
+            context.proceed();
+            return;
+        }
+
+        context.getHeaders().add( HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING );
+        final String encoding = negotiate( headers.getHeaderString( HttpHeaders.ACCEPT_ENCODING ) );
+        final Object entity = context.getEntity();
+        if ( encoding == null || ( entity instanceof byte[] && ( (byte[]) entity ).length < minSize ) ) {
+            context.proceed();
+            return;
+        }
+
+        context.getHeaders().putSingle( HttpHeaders.CONTENT_ENCODING, encoding );
+        context.getHeaders().remove( HttpHeaders.CONTENT_LENGTH );
+        final OutputStream original = context.getOutputStream();
+        final DeflaterOutputStream compressed = GZIP.equals( encoding )
+                ? new GZIPOutputStream( original )
+                : new DeflaterOutputStream( original );
+        context.setOutputStream( compressed );
+        try {
+            context.proceed();
+        } finally {
+            compressed.finish();
+            context.setOutputStream( original );
+        }
+    }
+
+    /**
+     * @param acceptEncoding
+     *            The {@code Accept-Encoding} header of a request.
+     * @return The content encoding to use for the response, or null if it should not be compressed.
+     */
+    static String negotiate( final String acceptEncoding ) {
+        if ( acceptEncoding == null ) {
+            return null;
+        }
+
+        // Negative until the coding is listed, since codings that are not listed default to the "*" quality
+        float gzip = -1;
+        float deflate = -1;
+        float any = 0;
+        for ( final String coding : acceptEncoding.split( "," ) ) {
+            final String[] parts = coding.split( ";" );
+            final String name = parts[ 0 ].trim().toLowerCase();
+            final float quality = getQuality( parts );
+            if ( name.equals( GZIP ) || name.equals( "x-gzip" ) ) {
+                gzip = quality;
+            } else if ( name.equals( DEFLATE ) ) {
+                deflate = quality;
+            } else if ( name.equals( "*" ) ) {
+                any = quality;
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+
+        if ( gzip > 0 && gzip >= deflate ) {
+            return GZIP;
+        } else if ( deflate > 0 ) {
+            return DEFLATE;
+        } else {
+            return null;
+        }
+    }
+
+    private static float getQuality( final String[] parameters ) {
+        for ( int i = 1; i < parameters.length; i++ ) {
+            final String parameter = parameters[ i ].trim();
+            if ( parameter.startsWith( "q=" ) ) {
+                try {
+                    return Float.parseFloat( parameter.substring( 2 ) );
+                } catch ( final NumberFormatException e ) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.rendering.server.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+
+import org.kie.appformer.formmodeler.rendering.client.shared.ColumnarPayload;
+import org.kie.appformer.formmodeler.rendering.client.shared.ColumnarResponse;
+
+/**
+ * Serializes the responses of {@link RestPayload} services once, in order to:
+ * <ul>
+ * <li>Encode the responses of {@link ColumnarResponse} methods in the {@link ColumnarPayload columnar} form.
+ * <li>Tag the responses of GET requests with a weak ETag computed from their body, and answer requests whose
+ * {@code If-None-Match} header holds the current tag with {@code 304 Not Modified}. Responses must be revalidated
+ * before they are reused, so browsers serve unchanged pages from their cache without downloading them again. ETags
+ * can be turned off with {@code appformer.rest.etags=false}.
+ * </ul>
+ * The serialized body replaces the entity of the response, so it is not serialized again when it is written.
+ */
+@Provider
+@RestPayload
+public class RestPayloadFilter implements ContainerResponseFilter {
+
+    private static final String ETAGS_PROPERTY = "appformer.rest.etags";
+
+    private final boolean etags;
+
+    @Context
+    private Providers providers;
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    public RestPayloadFilter() {
+        this( Boolean.parseBoolean( System.getProperty( ETAGS_PROPERTY, "true" ) ) );
+    }
+
+    RestPayloadFilter( final boolean etags ) {
+        this.etags = etags;
+    }
+
+    @Override
+    public void filter( final ContainerRequestContext request,
+                        final ContainerResponseContext response ) throws IOException {
+        if ( response.getStatus() != Status.OK.getStatusCode()
+                || !response.hasEntity()
+                || response.getEntity() instanceof byte[] ) {
+            return;
+        }
+
+        final boolean columnar = isColumnar( resourceInfo.getResourceClass(), resourceInfo.getResourceMethod() );
+        final boolean conditional = etags && HttpMethod.GET.equals( request.getMethod() );
+        if ( !columnar && !conditional ) {
+            return;
+        }
+
+        byte[] body = serialize( response );
+        if ( columnar ) {
+            final String encoded = ColumnarPayload.encode( new String( body, StandardCharsets.UTF_8 ) );
+            if ( encoded != null ) {
+                body = encoded.getBytes( StandardCharsets.UTF_8 );
+                response.getHeaders().putSingle( ColumnarPayload.HEADER, ColumnarPayload.COLUMNAR );
+            }
+        }
+
+        if ( conditional ) {
+            final EntityTag tag = new EntityTag( digest( body ), true );
+            response.getHeaders().putSingle( HttpHeaders.ETAG, tag );
+            response.getHeaders().putSingle( HttpHeaders.CACHE_CONTROL, "no-cache" );
+            if ( matches( request.getHeaderString( HttpHeaders.IF_NONE_MATCH ), tag ) ) {
+                response.setStatus( Status.NOT_MODIFIED.getStatusCode() );
+                response.setEntity( null );
+                return;
+            }
+        }
+
+        response.setEntity( body, response.getEntityAnnotations(), response.getMediaType() );
+    }
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private byte[] serialize( final ContainerResponseContext response ) throws IOException {
+        final MessageBodyWriter writer = providers.getMessageBodyWriter( response.getEntityClass(),
+                                                                         response.getEntityType(),
+                                                                         response.getEntityAnnotations(),
+                                                                         response.getMediaType() );
+        if ( writer == null ) {
+            throw new IOException( "No writer of " + response.getMediaType() + " for " + response.getEntityClass() );
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo( response.getEntity(),
+                        response.getEntityClass(),
+                        response.getEntityType(),
+                        response.getEntityAnnotations(),
+                        response.getMediaType(),
+                        new MultivaluedHashMap<>( response.getHeaders() ),
+                        out );
+        return out.toByteArray();
+    }
+
+    /*
+     * Annotations of REST interfaces are not inherited by the methods implementing them.
+     */
+    static boolean isColumnar( final Class<?> type,
+                               final Method method ) {
+        if ( type == null || method == null ) {
+            return false;
+        }
+        try {
+            if ( type.getMethod( method.getName(), method.getParameterTypes() ).isAnnotationPresent( ColumnarResponse.class ) ) {
+                return true;
+            }
+        } catch ( final NoSuchMethodException e ) {
+            return false;
+        }
+        for ( final Class<?> iface : type.getInterfaces() ) {
+            if ( isColumnar( iface, method ) ) {
+                return true;
+            }
+        }
+        return isColumnar( type.getSuperclass(), method );
+    }
+
+    /*
+     * Uses the weak comparison of RFC 7232, since the tags do not vary with the content encoding.
+     */
+    static boolean matches( final String ifNoneMatch,
+                            final EntityTag tag ) {
+        if ( ifNoneMatch == null ) {
+            return false;
+        }
+        final String quoted = '"' + tag.getValue() + '"';
+        for ( final String candidate : ifNoneMatch.split( "," ) ) {
+            final String trimmed = candidate.trim();
+            final String opaque = trimmed.startsWith( "W/" ) ? trimmed.substring( 2 ) : trimmed;
+            if ( opaque.equals( "*" ) || opaque.equals( quoted ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String digest( final byte[] body ) {
+        try {
+            final byte[] hash = MessageDigest.getInstance( "SHA-1" ).digest( body );
+            return Base64.getUrlEncoder().withoutPadding().encodeToString( hash );
+        } catch ( final NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.rendering.client.shared;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColumnarPayloadTest {
+
+    private static final String PAGE = "[ {\"^EncodedType\":\"Person\",\"name\":\"A \\\"quoted\\\", name\",\"tags\":[1, {\"x\":[]}],\"age\":null},"
+            + "{\"^EncodedType\":\"Person\",\"name\":\"B\",\"tags\":[],\"age\":42} ]";
+
+    @Test
+    public void encodesFieldNamesOnce() {
+        assertEquals( "{\"columns\":[\"^EncodedType\",\"name\",\"tags\",\"age\"],\"rows\":["
+                              + "[\"Person\",\"A \\\"quoted\\\", name\",[1, {\"x\":[]}],null],"
+                              + "[\"Person\",\"B\",[],42]]}",
+                      ColumnarPayload.encode( PAGE ) );
+    }
+
+    @Test
+    public void decodingRestoresPage() {
+        assertEquals( PAGE.replace( "[ {", "[{" ).replace( "} ]", "}]" ),
+                      ColumnarPayload.decode( ColumnarPayload.encode( PAGE ) ) );
+    }
+
+    @Test
+    public void encodesEmptyPage() {
+        assertEquals( "{\"columns\":[],\"rows\":[]}", ColumnarPayload.encode( " [ ] " ) );
+        assertEquals( "[]", ColumnarPayload.decode( ColumnarPayload.encode( "[]" ) ) );
+    }
+
+    @Test
+    public void doesNotEncodeIrregularPages() {
+        assertNull( ColumnarPayload.encode( "{\"a\":1}" ) );
+        assertNull( ColumnarPayload.encode( "[1,2]" ) );
+        assertNull( ColumnarPayload.encode( "[{\"a\":1},{\"b\":1}]" ) );
+        assertNull( ColumnarPayload.encode( "[{\"a\":1,\"b\":2},{\"b\":2,\"a\":1}]" ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void rejectsMalformedPage() {
+        ColumnarPayload.encode( "[{\"a\":1,}]" );
+    }
+
+}
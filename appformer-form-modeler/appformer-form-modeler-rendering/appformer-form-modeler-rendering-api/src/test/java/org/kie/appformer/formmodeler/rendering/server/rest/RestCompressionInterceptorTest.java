@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.rendering.server.rest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.kie.appformer.formmodeler.rendering.server.rest.RestCompressionInterceptor.*;
+
+public class RestCompressionInterceptorTest {
+
+    @Test
+    public void gzipIsPreferred() {
+        assertEquals( GZIP, negotiate( "gzip, deflate, br" ) );
+        assertEquals( GZIP, negotiate( "deflate, x-gzip" ) );
+        assertEquals( GZIP, negotiate( "*" ) );
+    }
+
+    @Test
+    public void qualitiesAreHonoured() {
+        assertEquals( DEFLATE, negotiate( "gzip;q=0.5, deflate" ) );
+        assertEquals( DEFLATE, negotiate( "gzip;q=0, *" ) );
+        assertNull( negotiate( "gzip;q=0, deflate;q=0" ) );
+    }
+
+    @Test
+    public void unsupportedEncodingsAreNotUsed() {
+        assertNull( negotiate( null ) );
+        assertNull( negotiate( "identity" ) );
+        assertNull( negotiate( "br, *;q=0" ) );
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.formmodeler.rendering.server.rest;
+
+import java.util.List;
+
+import javax.ws.rs.core.EntityTag;
+
+import org.junit.Test;
+import org.kie.appformer.formmodeler.rendering.client.shared.ColumnarResponse;
+
+import static org.junit.Assert.*;
+
+public class RestPayloadFilterTest {
+
+    public interface PageService<M> {
+
+        @ColumnarResponse
+        List<M> columnar( int start, int end );
+
+        List<M> plain( int start, int end );
+
+    }
+
+    public static class PageServiceImpl implements PageService<String> {
+
+        @Override
+        public List<String> columnar( final int start, final int end ) {
+            return null;
+        }
+
+        @Override
+        public List<String> plain( final int start, final int end ) {
+            return null;
+        }
+
+    }
+
+    @Test
+    public void columnarAnnotationIsFoundOnInterface() throws NoSuchMethodException {
+        assertTrue( RestPayloadFilter.isColumnar( PageServiceImpl.class,
+                                                  PageServiceImpl.class.getMethod( "columnar", int.class, int.class ) ) );
+        assertFalse( RestPayloadFilter.isColumnar( PageServiceImpl.class,
+                                                   PageServiceImpl.class.getMethod( "plain", int.class, int.class ) ) );
+    }
+
+    @Test
+    public void ifNoneMatchUsesWeakComparison() {
+        final EntityTag tag = new EntityTag( RestPayloadFilter.digest( "[]".getBytes() ), true );
+
+        assertTrue( RestPayloadFilter.matches( "W/\"" + tag.getValue() + "\"", tag ) );
+        assertTrue( RestPayloadFilter.matches( "\"other\", \"" + tag.getValue() + "\"", tag ) );
+        assertTrue( RestPayloadFilter.matches( "*", tag ) );
+        assertFalse( RestPayloadFilter.matches( "W/\"other\"", tag ) );
+        assertFalse( RestPayloadFilter.matches( null, tag ) );
+    }
+
+    @Test
+    public void digestDependsOnBody() {
+        assertEquals( RestPayloadFilter.digest( "[1]".getBytes() ), RestPayloadFilter.digest( "[1]".getBytes() ) );
+        assertNotEquals( RestPayloadFilter.digest( "[1]".getBytes() ), RestPayloadFilter.digest( "[2]".getBytes() ) );
+    }
+
+}
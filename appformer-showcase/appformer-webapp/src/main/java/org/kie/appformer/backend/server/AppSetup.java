@@ -54,6 +54,10 @@ import org.guvnor.structure.server.config.ConfigGroup;
 import org.guvnor.structure.server.config.ConfigType;
 import org.guvnor.structure.server.config.ConfigurationFactory;
 import org.guvnor.structure.server.config.ConfigurationService;
+import org.kie.appformer.backend.server.service.build.fingerprint.BuildPlan;
+import org.kie.appformer.backend.server.service.build.fingerprint.IncrementalBuildPlanner;
+import org.kie.appformer.backend.server.service.pipeline.PipelineGraph;
+import org.kie.appformer.backend.server.service.pipeline.PipelineGraphRegistry;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.kie.workbench.screens.workbench.backend.BaseAppSetup;
 import org.uberfire.commons.services.cdi.ApplicationStarted;
@@ -79,6 +83,9 @@ public class AppSetup extends BaseAppSetup {
 
     private PipelineRegistry pipelineRegistry;
 
+    private IncrementalBuildPlanner buildPlanner;
+
+    private PipelineGraphRegistry pipelineGraphRegistry;
 
     protected AppSetup() {
     }
@@ -92,12 +99,15 @@ public class AppSetup extends BaseAppSetup {
                      final ConfigurationFactory configurationFactory,
                      final Event<ApplicationStarted> applicationStartedEvent,
                      final RuntimeRegistry runtimeRegistry,
-                     final PipelineRegistry pipelineRegistry ) {
+                     final PipelineRegistry pipelineRegistry,
+                     final IncrementalBuildPlanner buildPlanner,
+                     final PipelineGraphRegistry pipelineGraphRegistry ) {
         super( ioService, repositoryService, organizationalUnitService, projectService, configurationService, configurationFactory );
         this.applicationStartedEvent = applicationStartedEvent;
         this.runtimeRegistry = runtimeRegistry;
         this.pipelineRegistry = pipelineRegistry;
-
+        this.buildPlanner = buildPlanner;
+        this.pipelineGraphRegistry = pipelineGraphRegistry;
     }
 
 
@@ -149,41 +159,48 @@ public class AppSetup extends BaseAppSetup {
         // Create Wildfly Pipeline Configuration
         final Stage<Input, SourceConfig> sourceConfig = config( "Git Source", (Function<Input, SourceConfig>) (s) -> new GitConfig() {} );
         final Stage<SourceConfig, ProjectConfig> projectConfig = config( "Maven Project", (Function<SourceConfig, ProjectConfig>) (s) -> new MavenProjectConfig() {} );
-         final Stage<ProjectConfig, BuildConfig> buildConfig = config( "Maven Build Config", (Function<ProjectConfig, BuildConfig>) (s) -> new MavenBuildConfig() {
-            @Override
-            public List<String> getGoals() {
-                final List<String> result = new ArrayList<>();
-                result.add( "clean" );
-                result.add( "package" );
-                return result;
-            }
+        // Goals depend on what changed since the last successful build in the project's temp dir
+        final Stage<ProjectConfig, BuildConfig> buildConfig = config( "Maven Build Config", (Function<ProjectConfig, BuildConfig>) (s) -> {
+            final Properties properties = new Properties();
+            properties.setProperty("failIfNoTests", "false");
+            final BuildPlan plan = buildPlanner.plan( s, properties );
+            return new MavenBuildConfig() {
+                @Override
+                public List<String> getGoals() {
+                    return new ArrayList<>( plan.getGoals() );
+                }
 
-            @Override
-            public Properties getProperties() {
-                final Properties result = new Properties();
-                result.setProperty("failIfNoTests", "false");
-                return result;
-            }
+                @Override
+                public Properties getProperties() {
+                    final Properties result = new Properties();
+                    result.putAll( properties );
+                    return plan.applyTo( result );
+                }
+            };
         } );
-        final Stage<ProjectConfig, BuildConfig> buildSDMConfig = config( "Maven Build Config", (Function<ProjectConfig, BuildConfig>) (s) -> new MavenBuildConfig() {
-            @Override
-            public List<String> getGoals() {
-                final List<String> result = new ArrayList<>();
-                result.add( "package" );
-                return result;
-            }
-            @Override
-            public Properties getProperties() {
-                final Properties result = new Properties();
-                result.setProperty("failIfNoTests", "false");
-                result.setProperty("gwt.compiler.skip", "true");
-                return result;
-            }
-
+        final Stage<ProjectConfig, BuildConfig> buildSDMConfig = config( "Maven Build Config", (Function<ProjectConfig, BuildConfig>) (s) -> {
+            final Properties properties = new Properties();
+            properties.setProperty("failIfNoTests", "false");
+            properties.setProperty("gwt.compiler.skip", "true");
+            final BuildPlan plan = buildPlanner.plan( s, properties );
+            return new MavenBuildConfig() {
+                @Override
+                public List<String> getGoals() {
+                    return new ArrayList<>( plan.getGoals() );
+                }
+                @Override
+                public Properties getProperties() {
+                    final Properties result = new Properties();
+                    result.putAll( properties );
+                    return result;
+                }
+            };
         } );
         final Stage<BuildConfig, BuildConfig> codeServerExec = config( "Start Code Server", (Function<BuildConfig, BuildConfig>) (s) -> new GWTCodeServerMavenExecConfig() {} );
         final Stage<BuildConfig, BinaryConfig> buildExec = config( "Maven Build", (Function<BuildConfig, BinaryConfig>) (s) -> new MavenBuildExecConfig() {} );
         final Stage<BinaryConfig, ProviderConfig> providerConfig = config( "Wildfly Provider Config", (Function<BinaryConfig, ProviderConfig>) (s) -> new WildflyProviderConfig() {} );
+        // The provider only needs the input, so in the pipeline graphs it is set up while the project builds
+        final Stage<Input, ProviderConfig> inputProviderConfig = config( "Wildfly Provider Config", (Function<Input, ProviderConfig>) (s) -> new WildflyProviderConfig() {} );
         final Stage<ProviderConfig, RuntimeConfig> runtimeExec = config( "Wildfly Runtime Exec", (Function<ProviderConfig, RuntimeConfig>) (s) -> new ContextAwareWildflyRuntimeExecConfig() );
 
         final Pipeline wildflyPipeline = PipelineFactory
@@ -195,6 +212,15 @@ public class AppSetup extends BaseAppSetup {
                 .andThen( runtimeExec ).buildAs( "wildfly pipeline" );
         //Registering the Wildfly Pipeline to be available to the whole workbench
         pipelineRegistry.registerPipeline(wildflyPipeline);
+        // A stage receives the output of its first dependency, so the runtime lists the provider first
+        pipelineGraphRegistry.registerGraph( PipelineGraph.of( wildflyPipeline )
+                                                     .stage( sourceConfig )
+                                                     .stage( projectConfig, sourceConfig )
+                                                     .stage( buildConfig, projectConfig )
+                                                     .stage( buildExec, buildConfig )
+                                                     .backgroundStage( inputProviderConfig )
+                                                     .stage( runtimeExec, inputProviderConfig, buildExec )
+                                                     .build() );
 
         final Pipeline wildflySDMPipeline = PipelineFactory
                 .startFrom( sourceConfig )
@@ -206,6 +232,16 @@ public class AppSetup extends BaseAppSetup {
                 .andThen( runtimeExec ).buildAs( "wildfly sdm pipeline" );
         //Registering the Wildfly Pipeline to be available to the whole workbench
         pipelineRegistry.registerPipeline(wildflySDMPipeline);
+        // The code server and the package build both compile into the project's target dir, so they run one after the other
+        pipelineGraphRegistry.registerGraph( PipelineGraph.of( wildflySDMPipeline )
+                                                     .stage( sourceConfig )
+                                                     .stage( projectConfig, sourceConfig )
+                                                     .stage( buildSDMConfig, projectConfig )
+                                                     .stage( codeServerExec, buildSDMConfig )
+                                                     .stage( buildExec, codeServerExec )
+                                                     .backgroundStage( inputProviderConfig )
+                                                     .stage( runtimeExec, inputProviderConfig, buildExec, codeServerExec )
+                                                     .build() );
 
 
     }
@@ -17,36 +17,151 @@
 package org.kie.appformer.backend.server;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Specializes;
+import javax.inject.Inject;
 import javax.servlet.http.HttpSession;
+import org.guvnor.ala.build.maven.executor.gwt.CodeServerPortHandle;
 import org.guvnor.ala.build.maven.executor.gwt.GWTCodeServerPortLeaserImpl;
-import org.jboss.errai.bus.server.api.RpcContext;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerKey;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerLease;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerPool;
+import org.kie.appformer.backend.server.service.build.codeserver.CodeServerPortAllocator;
+import org.kie.appformer.backend.server.service.build.codeserver.PortBoundCodeServer;
+import org.kie.appformer.backend.server.service.job.BuildJob;
 
+/**
+ * Shares code servers started by the SDM pipeline through the {@link CodeServerPool}. Each HTTP session building a
+ * project holds a lease on its code server, so the code server is only shut down once every session using it has
+ * ended and it has been idle for the pool's TTL.
+ *
+ * Ports are leased from the {@link CodeServerPortAllocator}. A port stays leased while the build job that requested it
+ * is running and, once a code server was started on it, until that code server is shut down. A build that fails before
+ * starting its code server thereby gives the port back.
+ */
 @ApplicationScoped
 @Specializes
 public class HTTPSessionGWTCodeServerPortLeaser extends GWTCodeServerPortLeaserImpl {
 
-  
-    private final HttpSession session;
-    private final Map<String, HttpSession> codeServerBySession = new ConcurrentHashMap<>();
-    
-    public HTTPSessionGWTCodeServerPortLeaser() {
-        session = RpcContext.getHttpSession();
+    private static final String LEASE_ATTR_PREFIX = CodeServerLease.class.getSimpleName() + "-";
+    private static final long CODE_SERVER_STARTUP_TIMEOUT_SECONDS = Long.getLong( "appformer.code_server_ready_timeout_seconds", 600 );
+
+    @Inject
+    private CodeServerPool codeServerPool;
+
+    @Inject
+    private CodeServerPortAllocator portAllocator;
+
+    private final Map<Integer, CodeServerPortAllocator.PortLease> portLeases = new ConcurrentHashMap<>();
+
+    @Override
+    public CodeServerPortHandle getAvailableCodeServerPort() {
+        final CodeServerPortAllocator.PortLease lease = portAllocator.lease( whileRunning( BuildJob.current() ) );
+        portLeases.put( lease.getPort(), lease );
+
+        return new CodeServerPortHandle() {
+
+            @Override
+            public Integer getPortNumber() {
+                return lease.getPort();
+            }
+
+            @Override
+            public void relinquishPort() {
+                release( lease );
+            }
+        };
     }
 
     @Override
     public boolean isCodeServerRunning(String projectName) {
-        return codeServerBySession.containsKey(projectName);
+        final CodeServerKey key = codeServerPool.keyFor( projectName );
+        if ( hasValidLease( key ) ) {
+            return true;
+        }
+
+        final Optional<CodeServerLease> lease = codeServerPool.acquireRunning( key );
+        if ( lease.isPresent() ) {
+            holdLease( lease.get() );
+            return true;
+        } else {
+            codeServerByProject.remove( projectName );
+            return false;
+        }
     }
 
     @Override
     public void setCodeServerForProject(String projectName, Integer portNumber) {
-        codeServerByProject.put(projectName, portNumber);
-        codeServerBySession.put(projectName, session);
-        
+        super.setCodeServerForProject( projectName, portNumber );
+        final CodeServerKey key = codeServerPool.keyFor( projectName );
+        final CodeServerPortAllocator.PortLease portLease = portLeases.get( portNumber );
+        final CompletableFuture<Void> stopped = new CompletableFuture<>();
+        final PortBoundCodeServer codeServer = new PortBoundCodeServer( portNumber,
+                                                                        CODE_SERVER_STARTUP_TIMEOUT_SECONDS,
+                                                                        () -> {
+                                                                            codeServerByProject.remove( projectName, portNumber );
+                                                                            stopped.complete( null );
+                                                                            if ( portLease != null ) {
+                                                                                release( portLease );
+                                                                            }
+                                                                        } );
+        // The code server is shared by sessions, so its port outlives the session that leased it
+        if ( portLease != null ) {
+            portLease.bindTo( stopped );
+        }
+        holdLease( codeServerPool.register( key, codeServer ) );
     }
-    
-    
+
+    private void release( final CodeServerPortAllocator.PortLease portLease ) {
+        portLeases.remove( portLease.getPort(), portLease );
+        portLease.release();
+    }
+
+    private boolean hasValidLease( final CodeServerKey key ) {
+        final HttpSession session = currentSession();
+        if ( session == null ) {
+            return false;
+        }
+
+        final CodeServerLease lease = (CodeServerLease) session.getAttribute( LEASE_ATTR_PREFIX + key );
+        return lease != null && lease.isValid();
+    }
+
+    /*
+     * Replacing a previous lease in the session unbinds and thereby releases it.
+     */
+    private void holdLease( final CodeServerLease lease ) {
+        final HttpSession session = currentSession();
+        if ( session != null ) {
+            session.setAttribute( LEASE_ATTR_PREFIX + lease.getKey(), lease );
+        } else {
+            // Builds outside of an HTTP session do not keep the code server alive.
+            lease.release();
+        }
+    }
+
+    /*
+     * Pipelines run outside of build jobs only when invoked directly, in which case the port is held until it is
+     * relinquished.
+     */
+    private static BooleanSupplier whileRunning( final Optional<BuildJob> job ) {
+        if ( job.isPresent() ) {
+            final CompletableFuture<Void> outcome = job.get().getOutcome();
+            return () -> !outcome.isDone();
+        } else {
+            return () -> true;
+        }
+    }
+
+    /*
+     * Builds run on worker threads, so the session is that of the build job rather than the RPC context.
+     */
+    private static HttpSession currentSession() {
+        return BuildJob.current().map( BuildJob::getSession ).orElse( null );
+    }
+
 }
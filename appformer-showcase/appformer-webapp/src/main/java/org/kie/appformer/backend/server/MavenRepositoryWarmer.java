@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.shared.invoker.DefaultInvocationRequest;
+import org.apache.maven.shared.invoker.DefaultInvoker;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.guvnor.common.services.project.model.Project;
+import org.guvnor.structure.repositories.Repository;
+import org.guvnor.structure.repositories.RepositoryService;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.backend.server.util.Paths;
+import org.uberfire.commons.services.cdi.ApplicationStarted;
+import org.uberfire.io.IOService;
+
+/**
+ * Resolves the dependencies and build plugins of AppFormer projects into the local Maven repository in the background
+ * once the application has started, so the first build after a restart is as fast as later ones. Enabled by setting
+ * {@code appformer.maven.prewarm} to true.
+ *
+ * The projects of all repositories are warmed, along with the POM files listed in {@code appformer.maven.prewarm.poms}
+ * (comma separated), such as that of a project template. Projects with identical POMs are only resolved once.
+ */
+@ApplicationScoped
+public class MavenRepositoryWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger( MavenRepositoryWarmer.class );
+
+    private static final String ENABLED_PROPERTY = "appformer.maven.prewarm";
+    private static final String POMS_PROPERTY = "appformer.maven.prewarm.poms";
+    // Also resolves the plugins of the effective POM, including the war plugin bound by the packaging
+    private static final List<String> GOALS = Collections.singletonList( "dependency:go-offline" );
+    private static final Optional<String> ALT_LOCAL_MVN_REPO = Optional.ofNullable( System.getProperty( "maven.repo.local" ) );
+
+    @Inject
+    private RepositoryService repositoryService;
+
+    @Inject
+    private KieProjectService projectService;
+
+    @Inject
+    @Named( "ioStrategy" )
+    private IOService ioService;
+
+    @Resource
+    private ManagedExecutorService execService;
+
+    public void onApplicationStarted( @Observes final ApplicationStarted event ) {
+        if ( !Boolean.getBoolean( ENABLED_PROPERTY ) ) {
+            return;
+        }
+
+        final Set<String> poms = collectPoms();
+        logger.info( "Warming the local Maven repository with " + poms.size() + " project(s) in the background." );
+        execService.submit( () -> warm( poms ) );
+    }
+
+    private Set<String> collectPoms() {
+        final Set<String> poms = new LinkedHashSet<>();
+        for ( final String pomFile : System.getProperty( POMS_PROPERTY, "" ).split( "," ) ) {
+            if ( !pomFile.trim().isEmpty() ) {
+                try {
+                    poms.add( new String( Files.readAllBytes( new File( pomFile.trim() ).toPath() ), StandardCharsets.UTF_8 ) );
+                } catch ( final IOException e ) {
+                    logger.warn( "Unable to read " + pomFile + " for warming the local Maven repository.", e );
+                }
+            }
+        }
+
+        for ( final Repository repository : repositoryService.getRepositories() ) {
+            for ( final Project project : projectService.getProjects( repository, repository.getDefaultBranch() ) ) {
+                try {
+                    poms.add( ioService.readAllString( Paths.convert( project.getPomXMLPath() ) ) );
+                } catch ( final RuntimeException e ) {
+                    logger.warn( "Unable to read the POM of " + project.getProjectName() + " for warming the local Maven repository.", e );
+                }
+            }
+        }
+
+        return poms;
+    }
+
+    private void warm( final Set<String> poms ) {
+        final long start = System.currentTimeMillis();
+        int failures = 0;
+        for ( final String pom : poms ) {
+            if ( !resolve( pom ) ) {
+                failures++;
+            }
+        }
+        logger.info( "Warmed the local Maven repository in " + ( System.currentTimeMillis() - start ) + "ms"
+                + ( failures > 0 ? ", but " + failures + " of " + poms.size() + " project(s) could not be resolved." : "." ) );
+    }
+
+    private boolean resolve( final String pom ) {
+        File dir = null;
+        try {
+            dir = Files.createTempDirectory( "appformer-prewarm" ).toFile();
+            final File pomXml = new File( dir, "pom.xml" );
+            Files.write( pomXml.toPath(), pom.getBytes( StandardCharsets.UTF_8 ) );
+
+            final DefaultInvocationRequest request = new DefaultInvocationRequest();
+            request.setPomFile( pomXml );
+            request.setGoals( GOALS );
+            request.setBatchMode( true );
+            request.setOutputHandler( line -> logger.debug( line ) );
+            ALT_LOCAL_MVN_REPO
+                .filter( path -> !path.isEmpty() )
+                .map( path -> new File( path ) )
+                .ifPresent( repo -> request.setLocalRepositoryDirectory( repo ) );
+
+            final InvocationResult result = new DefaultInvoker().execute( request );
+            if ( result.getExitCode() != 0 ) {
+                logger.warn( "Resolving a project for warming the local Maven repository exited with " + result.getExitCode() );
+                return false;
+            }
+            return true;
+        } catch ( final Exception e ) {
+            logger.warn( "Unable to resolve a project for warming the local Maven repository.", e );
+            return false;
+        } finally {
+            FileUtils.deleteQuietly( dir );
+        }
+    }
+
+}
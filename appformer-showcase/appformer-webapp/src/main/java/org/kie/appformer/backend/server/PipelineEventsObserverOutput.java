@@ -25,9 +25,9 @@ import org.guvnor.ala.pipeline.events.BeforeStageExecutionEvent;
 import org.guvnor.ala.pipeline.events.OnErrorPipelineExecutionEvent;
 import org.guvnor.ala.pipeline.events.OnErrorStageExecutionEvent;
 import org.jboss.errai.bus.client.api.base.MessageBuilder;
-import org.jboss.errai.bus.server.api.RpcContext;
 import org.jboss.errai.bus.server.api.ServerMessageBus;
 import org.jboss.errai.common.client.protocols.MessageParts;
+import org.kie.appformer.backend.server.service.job.BuildJob;
 
 /**
  */
@@ -38,63 +38,41 @@ public class PipelineEventsObserverOutput {
     private ServerMessageBus bus;
 
     public void beforePipelineEvent(@Observes BeforePipelineExecutionEvent bpee) {
-        final String queueSessionId = RpcContext.getQueueSession().getSessionId();
-        MessageBuilder.createMessage()
-                .toSubject("MavenBuilderOutput")
-                .signalling()
-                .with(MessageParts.SessionID, queueSessionId)
-                .with("output", "Before Starting  Pipeline: " + bpee.getPipeline().getName() + "\n")
-                .noErrorHandling().sendNowWith(bus);
+        sendOutput("Before Starting  Pipeline: " + bpee.getPipeline().getName() + "\n");
     }
 
     public void afterPipelineEvent(@Observes AfterPipelineExecutionEvent bpee) {
-        final String queueSessionId = RpcContext.getQueueSession().getSessionId();
-        MessageBuilder.createMessage()
-                .toSubject("MavenBuilderOutput")
-                .signalling()
-                .with(MessageParts.SessionID, queueSessionId)
-                .with("output", "After Completing  Pipeline: " + bpee.getPipeline().getName() + "\n")
-                .noErrorHandling().sendNowWith(bus);
+        sendOutput("After Completing  Pipeline: " + bpee.getPipeline().getName() + "\n");
     }
 
     public void beforeStageEvent(@Observes BeforeStageExecutionEvent bpee) {
-        final String queueSessionId = RpcContext.getQueueSession().getSessionId();
-        MessageBuilder.createMessage()
-                .toSubject("MavenBuilderOutput")
-                .signalling()
-                .with(MessageParts.SessionID, queueSessionId)
-                .with("output", "Before Stage : " + bpee.getStage().getName() + "\n")
-                .noErrorHandling().sendNowWith(bus);
+        sendOutput("Before Stage : " + bpee.getStage().getName() + "\n");
     }
 
     public void afterStageEvent(@Observes AfterStageExecutionEvent bpee) {
-        final String queueSessionId = RpcContext.getQueueSession().getSessionId();
-        MessageBuilder.createMessage()
-                .toSubject("MavenBuilderOutput")
-                .signalling()
-                .with(MessageParts.SessionID, queueSessionId)
-                .with("output", "After Stage : " + bpee.getStage().getName() + "\n")
-                .noErrorHandling().sendNowWith(bus);
+        sendOutput("After Stage : " + bpee.getStage().getName() + "\n");
     }
     
     public void onStageErrorEvent(@Observes OnErrorStageExecutionEvent bpee) {
-        final String queueSessionId = RpcContext.getQueueSession().getSessionId();
-        MessageBuilder.createMessage()
-                .toSubject("MavenBuilderOutput")
-                .signalling()
-                .with(MessageParts.SessionID, queueSessionId)
-                .with("output", "Error in Stage Stage : " + bpee.getStage().getName() + "\n" + bpee.getError().getMessage() + "\n")
-                .noErrorHandling().sendNowWith(bus);
+        sendOutput("Error in Stage Stage : " + bpee.getStage().getName() + "\n" + bpee.getError().getMessage() + "\n");
     }
     
     public void onStageErrorEvent(@Observes OnErrorPipelineExecutionEvent bpee) {
-        final String queueSessionId = RpcContext.getQueueSession().getSessionId();
-        MessageBuilder.createMessage()
-                .toSubject("MavenBuilderOutput")
-                .signalling()
-                .with(MessageParts.SessionID, queueSessionId)
-                .with("output", "Error in Pipeline  : " + bpee.getPipeline().getName() + "\n" + bpee.getError().getMessage() + "\n")
-                .noErrorHandling().sendNowWith(bus);
+        sendOutput("Error in Pipeline  : " + bpee.getPipeline().getName() + "\n" + bpee.getError().getMessage() + "\n");
+    }
+
+    /*
+     * Pipelines run on build job threads, so the output goes to the bus session of the current build job.
+     */
+    private void sendOutput(final String output) {
+        BuildJob.current()
+                .map(BuildJob::getQueueSessionId)
+                .ifPresent(queueSessionId -> MessageBuilder.createMessage()
+                        .toSubject("MavenBuilderOutput")
+                        .signalling()
+                        .with(MessageParts.SessionID, queueSessionId)
+                        .with("output", output)
+                        .noErrorHandling().sendNowWith(bus));
     }
 
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.backend.server;
+
+import java.util.List;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.kie.appformer.backend.server.service.metrics.PipelineMetrics;
+import org.kie.appformer.client.shared.PipelineStatistics;
+
+/**
+ * Exposes the wall time, outcome, queue wait and per stage timings of deployment pipelines under
+ * {@code /rest/pipelines/metrics}.
+ */
+@Path( "/pipelines/metrics" )
+@RequestScoped
+public class PipelineMetricsResource {
+
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+
+    @GET
+    @Produces( MediaType.APPLICATION_JSON )
+    public List<PipelineStatistics> getPipelineStatistics() {
+        return pipelineMetrics.getStatistics();
+    }
+
+    @GET
+    @Path( "/{pipelineName}" )
+    @Produces( MediaType.APPLICATION_JSON )
+    public Response getPipelineStatistics( @PathParam( "pipelineName" ) final String pipelineName ) {
+        return pipelineMetrics.getStatistics()
+                .stream()
+                .filter( statistics -> statistics.getName().equals( pipelineName ) )
+                .findFirst()
+                .map( statistics -> Response.ok( statistics ).build() )
+                .orElseGet( () -> Response.status( Response.Status.NOT_FOUND ).build() );
+    }
+
+}
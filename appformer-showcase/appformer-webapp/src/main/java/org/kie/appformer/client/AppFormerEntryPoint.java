@@ -26,6 +26,7 @@ import org.jboss.errai.common.client.api.Caller;
 import org.jboss.errai.common.client.api.RemoteCallback;
 import org.jboss.errai.ioc.client.api.EntryPoint;
 import org.jboss.errai.ioc.client.container.SyncBeanManager;
+import org.kie.appformer.client.deployment.PipelineMetricsScreen;
 import org.kie.appformer.client.home.HomeProducer;
 import org.kie.appformer.client.resources.i18n.AppConstants;
 import org.kie.appformer.client.shared.AppReady;
@@ -142,11 +143,14 @@ public class AppFormerEntryPoint extends DefaultWorkbenchEntryPoint {
     }
 
     protected List<MenuItem> getDeploymentViews() {
-        final List<MenuItem> result = new ArrayList<>( 1 );
+        final List<MenuItem> result = new ArrayList<>( 2 );
 
         result.add( MenuFactory.newSimpleItem( constants.ruleDeployments() )
                                     .perspective( SERVER_MANAGEMENT )
                                     .endMenu().build().getItems().get( 0 ) );
+        result.add( MenuFactory.newSimpleItem( constants.pipelineMetrics() )
+                                    .place( new DefaultPlaceRequest( PipelineMetricsScreen.IDENTIFIER ) )
+                                    .endMenu().build().getItems().get( 0 ) );
 
         return result;
     }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.client.deployment;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+
+import org.jboss.errai.bus.client.api.messaging.Message;
+import org.jboss.errai.bus.client.api.messaging.MessageBus;
+import org.jboss.errai.bus.client.api.messaging.MessageCallback;
+import org.jboss.errai.ioc.client.api.EntryPoint;
+import org.kie.appformer.client.resources.i18n.AppConstants;
+import org.kie.appformer.client.shared.AppReady;
+import org.kie.appformer.client.shared.BuildFinished;
+import org.uberfire.workbench.events.NotificationEvent;
+
+/**
+ * Opens the app deployed by a build of this session once it has finished, or notifies the user that it failed.
+ */
+@EntryPoint
+public class BuildFinishedListener {
+
+    @Inject
+    private MessageBus bus;
+
+    @Inject
+    private Event<AppReady> appReadyEvent;
+
+    @Inject
+    private Event<NotificationEvent> notificationEvent;
+
+    @PostConstruct
+    public void init() {
+        bus.subscribe( BuildFinished.SUBJECT, new MessageCallback() {
+
+            @Override
+            public void callback( Message message ) {
+                final BuildFinished finished = message.get( BuildFinished.class, BuildFinished.PART );
+                if ( !finished.isSuccessful() ) {
+                    notificationEvent.fire( new NotificationEvent( AppConstants.INSTANCE.BuildFailed( finished.getError() ),
+                                                                   NotificationEvent.NotificationType.ERROR ) );
+                } else if ( finished.getAppReady() != null ) {
+                    appReadyEvent.fire( finished.getAppReady() );
+                }
+            }
+        } );
+    }
+
+}
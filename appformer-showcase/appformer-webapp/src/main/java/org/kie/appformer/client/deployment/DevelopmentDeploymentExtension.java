@@ -54,7 +54,7 @@ public class DevelopmentDeploymentExtension implements BuildOptionExtension {
 
             @Override
             public void onClick( ClickEvent event ) {
-                buildCaller.call().buildAndDeployDevMode( project );
+                buildCaller.call().startBuildAndDeployDevMode( project );
             }
         };
     }
@@ -23,6 +23,7 @@ import javax.inject.Inject;
 import org.jboss.errai.bus.client.api.messaging.Message;
 import org.jboss.errai.bus.client.api.messaging.MessageBus;
 import org.jboss.errai.bus.client.api.messaging.MessageCallback;
+import org.kie.appformer.client.shared.BuildProgress;
 import org.uberfire.client.annotations.WorkbenchPartTitle;
 import org.uberfire.client.annotations.WorkbenchScreen;
 
@@ -59,6 +60,25 @@ public class MavenBuildOutput extends Composite {
                 }
             }
         } );
+
+        bus.subscribe( BuildProgress.SUBJECT, new MessageCallback() {
+
+            @Override
+            public void callback( Message message ) {
+                final BuildProgress progress = message.get( BuildProgress.class, BuildProgress.PART );
+                switch ( progress.getStatus() ) {
+                    case QUEUED:
+                        outputScreen.setContentAndScroll( "Queued build " + progress.getBuildId() + " of " + progress.getPipeline() + "\n" );
+                        break;
+                    case STARTED:
+                        outputScreen.appendContentAndScroll( "Started build " + progress.getBuildId() + "\n" );
+                        break;
+                    default:
+                        // Stage transitions are already part of the pipeline output.
+                        break;
+                }
+            }
+        } );
     }
 
     @WorkbenchPartTitle
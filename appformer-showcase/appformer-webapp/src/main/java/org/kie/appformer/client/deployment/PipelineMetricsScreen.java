@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kie.appformer.client.deployment;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.gwtbootstrap3.client.ui.Button;
+import org.gwtbootstrap3.client.ui.constants.IconType;
+import org.jboss.errai.common.client.api.Caller;
+import org.kie.appformer.client.resources.i18n.AppConstants;
+import org.kie.appformer.client.shared.PipelineMetricsService;
+import org.kie.appformer.client.shared.PipelineStatistics;
+import org.kie.appformer.client.shared.TimingStatistics;
+import org.uberfire.client.annotations.WorkbenchPartTitle;
+import org.uberfire.client.annotations.WorkbenchScreen;
+import org.uberfire.lifecycle.OnOpen;
+
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlexTable;
+import com.google.gwt.user.client.ui.FlowPanel;
+
+/**
+ * Shows how long each deployment pipeline and its stages take, so slow deployments can be traced to a stage.
+ */
+@ApplicationScoped
+@WorkbenchScreen( identifier = PipelineMetricsScreen.IDENTIFIER )
+public class PipelineMetricsScreen extends Composite {
+
+    public static final String IDENTIFIER = "PipelineMetrics";
+
+    @Inject
+    private Caller<PipelineMetricsService> metricsService;
+
+    private final AppConstants constants = AppConstants.INSTANCE;
+
+    private final FlexTable table = new FlexTable();
+
+    @PostConstruct
+    public void init() {
+        final Button refresh = new Button( constants.Refresh(), IconType.REFRESH, event -> refresh() );
+        table.addStyleName( "table table-condensed" );
+
+        final FlowPanel panel = new FlowPanel();
+        panel.add( refresh );
+        panel.add( table );
+        initWidget( panel );
+    }
+
+    @OnOpen
+    public void onOpen() {
+        refresh();
+    }
+
+    @WorkbenchPartTitle
+    public String title() {
+        return constants.pipelineMetrics();
+    }
+
+    private void refresh() {
+        metricsService.call( ( List<PipelineStatistics> statistics ) -> show( statistics ) ).getPipelineStatistics();
+    }
+
+    private void show( final List<PipelineStatistics> statistics ) {
+        table.removeAllRows();
+        final String[] headers = { constants.PipelineStage(), constants.Succeeded(), constants.Failed(), constants.P50Millis(),
+                constants.P90Millis(), constants.P99Millis(), constants.MaxMillis() };
+        for ( int column = 0; column < headers.length; column++ ) {
+            table.setText( 0, column, headers[ column ] );
+        }
+
+        for ( final PipelineStatistics pipeline : statistics ) {
+            addRow( pipeline.getWallTime(), pipeline.getName() );
+            addRow( pipeline.getQueueWait(), "    " + constants.QueueWait() );
+            for ( final TimingStatistics stage : pipeline.getStages() ) {
+                addRow( stage, "    " + stage.getName() );
+            }
+        }
+    }
+
+    private void addRow( final TimingStatistics timing, final String label ) {
+        final int row = table.getRowCount();
+        table.setText( row, 0, label );
+        table.setText( row, 1, String.valueOf( timing.getSuccesses() ) );
+        table.setText( row, 2, String.valueOf( timing.getFailures() ) );
+        table.setText( row, 3, String.valueOf( timing.getP50Millis() ) );
+        table.setText( row, 4, String.valueOf( timing.getP90Millis() ) );
+        table.setText( row, 5, String.valueOf( timing.getP99Millis() ) );
+        table.setText( row, 6, String.valueOf( timing.getMaxMillis() ) );
+    }
+
+}
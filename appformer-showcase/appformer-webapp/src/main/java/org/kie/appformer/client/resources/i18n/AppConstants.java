@@ -58,6 +58,26 @@ public interface AppConstants
 
     String ruleDeployments();
 
+    String pipelineMetrics();
+
+    String PipelineStage();
+
+    String Succeeded();
+
+    String Failed();
+
+    String P50Millis();
+
+    String P90Millis();
+
+    String P99Millis();
+
+    String MaxMillis();
+
+    String QueueWait();
+
+    String BuildFailed( String error );
+
     String artifactRepository();
 
     String newItem();
@@ -179,8 +179,9 @@ public class AppFormerEntryPointTest {
     public void getDeploymentViewsTest() {
         final List<? extends MenuItem> deploymentMenuItems = entryPoint.getDeploymentViews();
 
-        assertEquals( 1, deploymentMenuItems.size() );
+        assertEquals( 2, deploymentMenuItems.size() );
         assertEquals( entryPoint.constants.ruleDeployments(), deploymentMenuItems.get( 0 ).getCaption() );
+        assertEquals( entryPoint.constants.pipelineMetrics(), deploymentMenuItems.get( 1 ).getCaption() );
     }
 
     private void mockMenuHelper() {